@@ -2,10 +2,12 @@ package com.pedroMartinsMJ.bibliotecaPedroMJ;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.lang.reflect.Array;
 
 @SpringBootApplication
+@EnableScheduling
 public class BibliotecaPedroMjApplication {
 
 	public static void main(String[] args) {
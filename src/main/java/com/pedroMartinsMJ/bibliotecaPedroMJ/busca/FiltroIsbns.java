@@ -0,0 +1,237 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom (com contadores) dos ISBNs cadastrados, na frente do existsByIsbn
+ *
+ * - "Não existe" é definitivo: o cadastro e a importação pulam a query
+ * - "Talvez exista" vai ao banco (falso positivo ~1% na capacidade configurada)
+ * - Contadores de 4 bits em vez de bits: a exclusão de livros também tira o ISBN do filtro;
+ *   contador saturado (15) nunca é decrementado, vira só um falso positivo permanente
+ * - Até terminar a carga do startup responde sempre "talvez" (nunca falso negativo)
+ * - Exclusão durante a carga fica na fila e é aplicada ao fim (a stream pode ainda não ter lido o ISBN,
+ *   e decrementar antes tiraria a contagem de outro ISBN); antes da carga começar é ignorada
+ *   (o livro já saiu do banco, a carga não vai lê-lo)
+ *
+ * Carregado no startup lendo só a coluna isbn e mantido pelo LivroService (criar/deletar).
+ */
+@Component
+@Slf4j
+public class FiltroIsbns {
+
+    private static final int BITS_POR_CONTADOR = 4;
+    private static final int CONTADORES_POR_PALAVRA = Long.SIZE / BITS_POR_CONTADOR;
+    private static final long CONTADOR_MAXIMO = (1L << BITS_POR_CONTADOR) - 1;
+
+    private final LivroRepository livroRepository;
+    private final AtomicLongArray palavras;
+    private final long numeroContadores;
+    private final int numeroHashes;
+    private final Counter negativos;
+    private final Counter possiveis;
+
+    private volatile boolean carregado = false;
+
+    // Exclusões que chegaram durante a carga; carregando e a fila são protegidos pelo monitor da fila
+    private final List<String> remocoesDuranteCarga = new ArrayList<>();
+    private boolean carregando = false;
+
+    public FiltroIsbns(LivroRepository livroRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${biblioteca.isbn-filtro.capacidade:1000000}") long capacidade,
+                       @Value("${biblioteca.isbn-filtro.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.livroRepository = livroRepository;
+
+        // Dimensionamento clássico: m = -n ln(p) / ln(2)^2, k = (m / n) ln(2)
+        long n = Math.max(capacidade, 1);
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavrasNecessarias = Math.toIntExact(Math.ceilDiv(m, CONTADORES_POR_PALAVRA));
+
+        this.palavras = new AtomicLongArray(palavrasNecessarias);
+        this.numeroContadores = (long) palavrasNecessarias * CONTADORES_POR_PALAVRA;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroContadores / n * Math.log(2)));
+
+        this.negativos = Counter.builder("biblioteca.isbn.filtro")
+                .tag("resultado", "negativo")
+                .description("Consultas de ISBN respondidas pelo filtro sem ir ao banco")
+                .register(meterRegistry);
+        this.possiveis = Counter.builder("biblioteca.isbn.filtro")
+                .tag("resultado", "talvez")
+                .description("Consultas de ISBN que precisaram ir ao banco")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o filtro com todos os ISBNs do banco (só a coluna, em lotes)
+     * Adições concorrentes (livros criados durante a carga) vão para a mesma estrutura;
+     * exclusões concorrentes esperam o fim da carga
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+        long total = 0;
+        int adiadas;
+
+        synchronized (remocoesDuranteCarga) {
+            carregando = true;
+        }
+        try {
+            try (Stream<String> isbns = livroRepository.streamIsbns()) {
+                for (String isbn : (Iterable<String>) isbns::iterator) {
+                    adicionar(isbn);
+                    total++;
+                }
+            }
+
+            synchronized (remocoesDuranteCarga) {
+                remocoesDuranteCarga.forEach(this::decrementar);
+                adiadas = remocoesDuranteCarga.size();
+                carregado = true;
+            }
+        } finally {
+            synchronized (remocoesDuranteCarga) {
+                remocoesDuranteCarga.clear();
+                carregando = false;
+            }
+        }
+
+        log.info("Filtro de ISBNs carregado: {} ISBNs ({} exclusões adiadas), {} contadores, {} hashes em {} ms",
+                total, adiadas, numeroContadores, numeroHashes, System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * false = ISBN com certeza não cadastrado; true = pode estar (confirmar no banco)
+     */
+    public boolean talvezExista(String isbn) {
+        if (!carregado) {
+            possiveis.increment();
+            return true;
+        }
+
+        long h1 = hash(isbn);
+        long h2 = segundoHash(h1);
+
+        for (int i = 0; i < numeroHashes; i++) {
+            if (lerContador(posicao(h1, h2, i)) == 0) {
+                negativos.increment();
+                return false;
+            }
+        }
+
+        possiveis.increment();
+        return true;
+    }
+
+    public void adicionar(String isbn) {
+        if (isbn == null) return;
+
+        long h1 = hash(isbn);
+        long h2 = segundoHash(h1);
+
+        for (int i = 0; i < numeroHashes; i++) {
+            alterarContador(posicao(h1, h2, i), +1);
+        }
+    }
+
+    public void remover(String isbn) {
+        if (isbn == null) return;
+
+        if (!carregado) {
+            synchronized (remocoesDuranteCarga) {
+                if (carregando) {
+                    remocoesDuranteCarga.add(isbn);
+                    return;
+                }
+                if (!carregado) return;
+            }
+        }
+        decrementar(isbn);
+    }
+
+    private void decrementar(String isbn) {
+        long h1 = hash(isbn);
+        long h2 = segundoHash(h1);
+
+        for (int i = 0; i < numeroHashes; i++) {
+            alterarContador(posicao(h1, h2, i), -1);
+        }
+    }
+
+    // ====== CONTADORES ======
+
+    /**
+     * Double hashing (Kirsch-Mitzenmacher): k posições a partir de dois hashes de 64 bits
+     */
+    private long posicao(long h1, long h2, int i) {
+        return Long.remainderUnsigned(h1 + i * h2, numeroContadores);
+    }
+
+    private long lerContador(long posicao) {
+        int deslocamento = (int) (posicao % CONTADORES_POR_PALAVRA) * BITS_POR_CONTADOR;
+        return (palavras.get((int) (posicao / CONTADORES_POR_PALAVRA)) >>> deslocamento) & CONTADOR_MAXIMO;
+    }
+
+    /**
+     * Incrementa/decrementa um contador de 4 bits com CAS na palavra
+     * Saturado não muda mais (não sabemos quantos ISBNs caíram nele); zerado não decrementa
+     */
+    private void alterarContador(long posicao, int delta) {
+        int indice = (int) (posicao / CONTADORES_POR_PALAVRA);
+        int deslocamento = (int) (posicao % CONTADORES_POR_PALAVRA) * BITS_POR_CONTADOR;
+
+        while (true) {
+            long palavra = palavras.get(indice);
+            long contador = (palavra >>> deslocamento) & CONTADOR_MAXIMO;
+
+            if (contador == CONTADOR_MAXIMO || (delta < 0 && contador == 0)) return;
+
+            long novaPalavra = (palavra & ~(CONTADOR_MAXIMO << deslocamento)) | ((contador + delta) << deslocamento);
+            if (palavras.compareAndSet(indice, palavra, novaPalavra)) return;
+        }
+    }
+
+    // ====== HASH ======
+
+    /**
+     * FNV-1a de 64 bits sobre os caracteres + finalização do MurmurHash3 (boa dispersão dos bits)
+     */
+    private static long hash(String isbn) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < isbn.length(); i++) {
+            h ^= isbn.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return misturar(h);
+    }
+
+    /**
+     * Segundo hash derivado do primeiro; ímpar para percorrer todas as posições
+     */
+    private static long segundoHash(long h1) {
+        return misturar(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long misturar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
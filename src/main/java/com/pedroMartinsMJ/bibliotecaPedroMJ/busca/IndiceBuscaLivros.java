@@ -0,0 +1,375 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória sobre os metadados dos livros (título, descrição, editora, autor)
+ *
+ * - Cada livro recebe um ordinal denso (0, 1, 2...) na ordem em que é indexado
+ * - Cada termo aponta para a lista ordenada de ordinais que o contêm + peso por campo
+ * - Consulta = interseção (AND) dos termos, começando pelo mais raro, ranqueada por BM25
+ * - Último termo da consulta também casa como prefixo (busca enquanto digita: "dom cas"), via vocabulário
+ *   ordenado; termos só com o prefixo contam com PESO_PREFIXO do peso do termo exato
+ * - Remoção marca o ordinal como apagado (tombstone); reindexar o mesmo livro gera ordinal novo
+ * - IDF usa só os postings ativos de cada termo; termo sem nenhum livro ativo sai do índice
+ * - Tombstones passando de COMPACTAR_MINIMO e de 1/4 dos ordinais: renumera os livros ativos e
+ *   reescreve as listas sem os apagados (custo amortizado nas remoções, sob o lock de escrita)
+ *
+ * Carregado no startup a partir do banco e mantido pelo LivroService (criar/deletar).
+ */
+@Component
+@Slf4j
+public class IndiceBuscaLivros {
+
+    // Pesos por campo: título conta mais que descrição
+    private static final float PESO_TITULO = 3.0f;
+    private static final float PESO_AUTOR = 2.0f;
+    private static final float PESO_EDITORA = 1.0f;
+    private static final float PESO_DESCRICAO = 1.0f;
+
+    // Parâmetros padrão do BM25
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Compactação: mínimo de tombstones (evita reescrever índice pequeno a cada remoção) e fração dos ordinais
+    private static final int COMPACTAR_MINIMO = 1024;
+    private static final int COMPACTAR_FRACAO = 4;
+
+    // Prefixo do último termo: quantos termos do vocabulário entram no máximo, e quanto vale cada um
+    private static final int MAX_EXPANSOES_PREFIXO = 64;
+    private static final float PESO_PREFIXO = 0.5f;
+
+    private final LivroRepository livroRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, ListaPostings> postings = new HashMap<>();
+    // Mesmos termos de postings, em ordem: termos que começam com um prefixo ficam contíguos
+    private final NavigableSet<String> vocabulario = new TreeSet<>();
+    private final Map<UUID, Integer> ordinalPorId = new HashMap<>();
+    private final List<UUID> idPorOrdinal = new ArrayList<>();
+    private float[] comprimentos = new float[1024];
+    // Listas em que cada ordinal aparece (para descontar o df e compactar sem percorrer o vocabulário)
+    private ListaPostings[][] listasPorOrdinal = new ListaPostings[1024][];
+    private BitSet removidos = new BitSet();
+    private int totalRemovidos;
+
+    private int documentosAtivos;
+    private double somaComprimentos;
+
+    public IndiceBuscaLivros(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+    }
+
+    /**
+     * Carrega o índice com o catálogo inteiro (stream, sem lista em memória)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+
+        try (Stream<LivroResumo> livros = livroRepository.streamCatalogo()) {
+            livros.forEach(l -> indexar(l.id(), l.titulo(), l.descricao(), l.editora(), l.autorNome()));
+        }
+
+        log.info("Índice de busca carregado: {} livros, {} termos em {} ms",
+                documentosAtivos, postings.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Indexa (ou reindexa) um livro
+     */
+    public void indexar(UUID id, String titulo, String descricao, String editora, String autorNome) {
+        // Peso acumulado de cada termo neste documento
+        Map<String, Float> pesos = new HashMap<>();
+        float comprimento = 0;
+        comprimento += acumular(pesos, titulo, PESO_TITULO);
+        comprimento += acumular(pesos, autorNome, PESO_AUTOR);
+        comprimento += acumular(pesos, editora, PESO_EDITORA);
+        comprimento += acumular(pesos, descricao, PESO_DESCRICAO);
+
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+
+            int ordinal = idPorOrdinal.size();
+            idPorOrdinal.add(id);
+            ordinalPorId.put(id, ordinal);
+
+            if (ordinal >= comprimentos.length) {
+                comprimentos = Arrays.copyOf(comprimentos, comprimentos.length * 2);
+                listasPorOrdinal = Arrays.copyOf(listasPorOrdinal, listasPorOrdinal.length * 2);
+            }
+            comprimentos[ordinal] = comprimento;
+            somaComprimentos += comprimento;
+            documentosAtivos++;
+
+            ListaPostings[] listas = new ListaPostings[pesos.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> termo : pesos.entrySet()) {
+                ListaPostings lista = postings.computeIfAbsent(termo.getKey(), t -> {
+                    vocabulario.add(t);
+                    return new ListaPostings(t);
+                });
+                lista.adicionar(ordinal, termo.getValue());
+                listas[i++] = lista;
+            }
+            listasPorOrdinal[ordinal] = listas;
+
+            // Reindexar também deixa tombstone
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um livro do índice (não aparece mais nos resultados)
+     */
+    public void remover(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca livros que contenham TODOS os termos da consulta, do mais relevante ao menos
+     * (o último termo pode estar incompleto: casa também com os termos que começam com ele)
+     */
+    public List<UUID> buscar(String consulta, int limite) {
+        List<String> termos = NormalizadorTexto.tokenizar(consulta).stream().distinct().toList();
+        if (termos.isEmpty() || limite <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            List<ListaPostings> listas = new ArrayList<>(termos.size());
+            for (int t = 0; t < termos.size(); t++) {
+                String termo = termos.get(t);
+                ListaPostings lista = t == termos.size() - 1 ? comPrefixo(termo) : postings.get(termo);
+                if (lista == null) return List.of(); // termo inexistente: AND vazio
+                listas.add(lista);
+            }
+            // Percorre a lista mais curta e confere as demais por busca binária
+            listas.sort(Comparator.comparingInt(l -> l.tamanho));
+
+            double mediaComprimento = documentosAtivos == 0 ? 1 : somaComprimentos / documentosAtivos;
+            float[] idf = new float[listas.size()];
+            for (int t = 0; t < listas.size(); t++) {
+                int df = listas.get(t).ativos;
+                idf[t] = (float) Math.log(1 + (documentosAtivos - df + 0.5) / (df + 0.5));
+            }
+
+            // Min-heap com os "limite" melhores
+            PriorityQueue<Candidato> melhores = new PriorityQueue<>(limite + 1,
+                    Comparator.comparingDouble(Candidato::score));
+
+            ListaPostings menor = listas.getFirst();
+            candidatos:
+            for (int i = 0; i < menor.tamanho; i++) {
+                int ordinal = menor.ordinais[i];
+                if (removidos.get(ordinal)) continue;
+
+                float normalizacao = (float) (K1 * (1 - B + B * comprimentos[ordinal] / mediaComprimento));
+                float score = bm25(menor.pesos[i], normalizacao) * idf[0];
+
+                for (int t = 1; t < listas.size(); t++) {
+                    ListaPostings outra = listas.get(t);
+                    int pos = Arrays.binarySearch(outra.ordinais, 0, outra.tamanho, ordinal);
+                    if (pos < 0) continue candidatos;
+                    score += bm25(outra.pesos[pos], normalizacao) * idf[t];
+                }
+
+                if (melhores.size() < limite) {
+                    melhores.offer(new Candidato(ordinal, score));
+                } else if (score > melhores.peek().score()) {
+                    melhores.poll();
+                    melhores.offer(new Candidato(ordinal, score));
+                }
+            }
+
+            List<UUID> resultado = new ArrayList<>(melhores.size());
+            while (!melhores.isEmpty()) {
+                resultado.add(idPorOrdinal.get(melhores.poll().ordinal()));
+            }
+            Collections.reverse(resultado);
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return documentosAtivos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ====== AUXILIARES ======
+
+    private static float bm25(float pesoTermo, float normalizacao) {
+        return pesoTermo * (K1 + 1) / (pesoTermo + normalizacao);
+    }
+
+    private static float acumular(Map<String, Float> pesos, String texto, float peso) {
+        List<String> termos = NormalizadorTexto.tokenizar(texto);
+        for (String termo : termos) {
+            pesos.merge(termo, peso, Float::sum);
+        }
+        return termos.size() * peso;
+    }
+
+    /**
+     * Postings do termo exato somados aos dos termos que começam com ele (peso reduzido por PESO_PREFIXO;
+     * livro com os dois fica com o maior), numa lista temporária só para esta consulta
+     */
+    private ListaPostings comPrefixo(String prefixo) {
+        ListaPostings exato = postings.get(prefixo);
+
+        List<ListaPostings> extensoes = new ArrayList<>();
+        for (String termo : vocabulario.tailSet(prefixo, false)) {
+            if (!termo.startsWith(prefixo) || extensoes.size() == MAX_EXPANSOES_PREFIXO) break;
+            extensoes.add(postings.get(termo));
+        }
+        if (extensoes.isEmpty()) return exato;
+
+        Map<Integer, Float> pesos = new HashMap<>();
+        if (exato != null) {
+            for (int i = 0; i < exato.tamanho; i++) {
+                if (!removidos.get(exato.ordinais[i])) pesos.put(exato.ordinais[i], exato.pesos[i]);
+            }
+        }
+        for (ListaPostings extensao : extensoes) {
+            for (int i = 0; i < extensao.tamanho; i++) {
+                if (removidos.get(extensao.ordinais[i])) continue;
+                pesos.merge(extensao.ordinais[i], extensao.pesos[i] * PESO_PREFIXO, Math::max);
+            }
+        }
+
+        int[] ordinais = pesos.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        ListaPostings combinada = new ListaPostings(prefixo);
+        for (int ordinal : ordinais) {
+            combinada.adicionar(ordinal, pesos.get(ordinal));
+        }
+        return combinada;
+    }
+
+    private void removerSemLock(UUID id) {
+        Integer ordinal = ordinalPorId.remove(id);
+        if (ordinal == null) return;
+
+        removidos.set(ordinal);
+        totalRemovidos++;
+        somaComprimentos -= comprimentos[ordinal];
+        documentosAtivos--;
+
+        for (ListaPostings lista : listasPorOrdinal[ordinal]) {
+            if (--lista.ativos == 0) {
+                postings.remove(lista.termo);
+                vocabulario.remove(lista.termo);
+            }
+        }
+        listasPorOrdinal[ordinal] = null;
+    }
+
+    private void compactarSeNecessario() {
+        if (totalRemovidos < COMPACTAR_MINIMO || totalRemovidos < idPorOrdinal.size() / COMPACTAR_FRACAO) return;
+
+        long inicio = System.currentTimeMillis();
+        int antes = idPorOrdinal.size();
+
+        // Ordinal antigo -> novo (-1 = apagado); a ordem relativa se mantém, então as listas continuam ordenadas
+        int[] novoOrdinal = new int[antes];
+        List<UUID> ids = new ArrayList<>(documentosAtivos);
+        float[] novosComprimentos = new float[Math.max(1024, documentosAtivos * 2)];
+        ListaPostings[][] novasListas = new ListaPostings[novosComprimentos.length][];
+        for (int ordinal = 0; ordinal < antes; ordinal++) {
+            if (removidos.get(ordinal)) {
+                novoOrdinal[ordinal] = -1;
+                continue;
+            }
+            int novo = ids.size();
+            novoOrdinal[ordinal] = novo;
+            ids.add(idPorOrdinal.get(ordinal));
+            novosComprimentos[novo] = comprimentos[ordinal];
+            novasListas[novo] = listasPorOrdinal[ordinal];
+            ordinalPorId.put(idPorOrdinal.get(ordinal), novo);
+        }
+
+        postings.values().forEach(lista -> lista.renumerar(novoOrdinal));
+
+        idPorOrdinal.clear();
+        idPorOrdinal.addAll(ids);
+        comprimentos = novosComprimentos;
+        listasPorOrdinal = novasListas;
+        removidos = new BitSet();
+        totalRemovidos = 0;
+
+        log.info("Índice de busca compactado: {} -> {} ordinais em {} ms",
+                antes, ids.size(), System.currentTimeMillis() - inicio);
+    }
+
+    private record Candidato(int ordinal, float score) {}
+
+    /**
+     * Lista de postings de um termo: ordinais crescentes + peso do termo em cada documento
+     * tamanho inclui tombstones (custo de percorrer); ativos = df usado no IDF
+     */
+    private static final class ListaPostings {
+        final String termo;
+        int[] ordinais = new int[4];
+        float[] pesos = new float[4];
+        int tamanho;
+        int ativos;
+
+        ListaPostings(String termo) {
+            this.termo = termo;
+        }
+
+        void adicionar(int ordinal, float peso) {
+            if (tamanho == ordinais.length) {
+                ordinais = Arrays.copyOf(ordinais, tamanho * 2);
+                pesos = Arrays.copyOf(pesos, tamanho * 2);
+            }
+            ordinais[tamanho] = ordinal;
+            pesos[tamanho] = peso;
+            tamanho++;
+            ativos++;
+        }
+
+        /**
+         * Descarta os postings apagados (novoOrdinal = -1) e troca os demais pelo ordinal novo
+         */
+        void renumerar(int[] novoOrdinal) {
+            int escrita = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int novo = novoOrdinal[ordinais[i]];
+                if (novo < 0) continue;
+                ordinais[escrita] = novo;
+                pesos[escrita] = pesos[i];
+                escrita++;
+            }
+            tamanho = escrita;
+            if (ordinais.length > 4 && tamanho < ordinais.length / 4) {
+                ordinais = Arrays.copyOf(ordinais, Math.max(4, tamanho * 2));
+                pesos = Arrays.copyOf(pesos, ordinais.length);
+            }
+        }
+    }
+}
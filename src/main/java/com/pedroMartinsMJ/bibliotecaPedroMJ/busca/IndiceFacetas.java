@@ -0,0 +1,755 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Filtros facetados do catálogo (idioma, tipo de arquivo, editora, ano de publicação) em memória
+ *
+ * - Cada livro recebe um ordinal denso, do mais antigo para o mais novo (ordinal maior = mais recente)
+ * - Cada valor de faceta guarda um bitmap com os ordinais dos livros que o têm (comprimido no estilo
+ *   Roaring: valor raro custa poucos bytes, não uma palavra a cada 64 livros do catálogo)
+ * - Filtro = OR dos valores dentro da faceta, AND entre facetas
+ * - Contagem de uma faceta usa os filtros das OUTRAS facetas (o usuário vê quantos teria ao trocar o valor)
+ * - Ordinal de livro removido não é reaproveitado (quebraria a ordem de cadastro); removidos passando de
+ *   COMPACTAR_MINIMO e de 1/4 dos ordinais: renumera os ativos na mesma ordem e refaz os bitmaps
+ *
+ * Carregado no startup a partir do banco e mantido pelo LivroService (criar/atualizar/deletar).
+ */
+@Component
+@Slf4j
+public class IndiceFacetas {
+
+    // Quantos valores de cada faceta voltam na resposta (os mais frequentes + os selecionados)
+    public static final int MAX_VALORES_POR_FACETA = 20;
+
+    // Base com até 1/FATOR_VARREDURA do catálogo: contar lendo o valor de cada livro da base
+    private static final int FATOR_VARREDURA = 8;
+
+    // Compactação: mínimo de ordinais removidos (evita refazer índice pequeno a cada remoção) e fração dos ordinais
+    private static final int COMPACTAR_MINIMO = 1024;
+    private static final int COMPACTAR_FRACAO = 4;
+
+    private final LivroRepository livroRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final EnumMap<Faceta, Map<String, Bitmap>> bitmaps = new EnumMap<>(Faceta.class);
+    private final Map<UUID, Integer> ordinalPorId = new HashMap<>();
+    private final List<UUID> idPorOrdinal = new ArrayList<>();
+    private final List<String[]> valoresPorOrdinal = new ArrayList<>();
+    private Bitmap ativos = new Bitmap();
+    private int totalRemovidos;
+
+    public IndiceFacetas(LivroRepository livroRepository) {
+        this.livroRepository = livroRepository;
+        for (Faceta faceta : Faceta.values()) {
+            bitmaps.put(faceta, new HashMap<>());
+        }
+    }
+
+    /**
+     * Facetas disponíveis; o nome do parâmetro é o usado na URL
+     */
+    public enum Faceta {
+        IDIOMA("idioma"),
+        TIPO_ARQUIVO("tipoArquivo"),
+        EDITORA("editora"),
+        ANO("ano");
+
+        private final String parametro;
+
+        Faceta(String parametro) {
+            this.parametro = parametro;
+        }
+
+        public String getParametro() {
+            return parametro;
+        }
+    }
+
+    /**
+     * Resultado de um filtro: página de ids (mais recentes primeiro), total e contagens por faceta
+     */
+    public record Resultado(List<UUID> ids, int total, Map<Faceta, Map<String, Integer>> contagens) {}
+
+    /**
+     * Carrega o índice com o catálogo inteiro em ordem de cadastro
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+
+        try (Stream<LivroResumo> livros = livroRepository.streamCatalogoPorCadastro()) {
+            livros.forEach(l -> indexar(l.id(), l.idioma(), l.tipoArquivo(), l.editora(), l.dataPublicacao()));
+        }
+
+        log.info("Índice de facetas carregado: {} livros em {} ms",
+                ordinalPorId.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Indexa um livro novo ou atualiza os valores de um já indexado (mantém o ordinal)
+     */
+    public void indexar(UUID id, String idioma, TipoArquivo tipoArquivo, String editora, LocalDate dataPublicacao) {
+        String[] valores = new String[Faceta.values().length];
+        valores[Faceta.IDIOMA.ordinal()] = limpar(idioma);
+        valores[Faceta.TIPO_ARQUIVO.ordinal()] = tipoArquivo != null ? tipoArquivo.name() : null;
+        valores[Faceta.EDITORA.ordinal()] = limpar(editora);
+        valores[Faceta.ANO.ordinal()] = dataPublicacao != null ? String.valueOf(dataPublicacao.getYear()) : null;
+
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalPorId.get(id);
+            if (ordinal == null) {
+                ordinal = idPorOrdinal.size();
+                idPorOrdinal.add(id);
+                valoresPorOrdinal.add(null);
+                ordinalPorId.put(id, ordinal);
+                ativos.set(ordinal);
+            } else {
+                desmarcar(ordinal);
+            }
+
+            valoresPorOrdinal.set(ordinal, valores);
+            marcar(ordinal, valores);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um livro do índice (some dos resultados e das contagens)
+     */
+    public void remover(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalPorId.remove(id);
+            if (ordinal == null) return;
+
+            desmarcar(ordinal);
+            valoresPorOrdinal.set(ordinal, null);
+            ativos.clear(ordinal);
+            totalRemovidos++;
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica os filtros e devolve a página pedida + contagens de todas as facetas
+     * Faceta ausente (ou com conjunto vazio) no mapa = sem filtro
+     */
+    public Resultado filtrar(Map<Faceta, Set<String>> filtros, int offset, int limite) {
+        lock.readLock().lock();
+        try {
+            // Bitmap de cada faceta filtrada (OR dos valores escolhidos)
+            EnumMap<Faceta, Bitmap> porFaceta = new EnumMap<>(Faceta.class);
+            filtros.forEach((faceta, valores) -> {
+                if (valores == null || valores.isEmpty()) return;
+                Bitmap uniao = new Bitmap();
+                for (String valor : valores) {
+                    Bitmap bitmap = bitmaps.get(faceta).get(valor);
+                    if (bitmap != null) uniao = uniao.ou(bitmap);
+                }
+                porFaceta.put(faceta, uniao);
+            });
+
+            Bitmap resultado = intersecao(porFaceta, null);
+
+            EnumMap<Faceta, Map<String, Integer>> contagens = new EnumMap<>(Faceta.class);
+            for (Faceta faceta : Faceta.values()) {
+                // Sem filtro nesta faceta, a base é o próprio resultado (evita refazer a interseção)
+                Bitmap base = porFaceta.containsKey(faceta) ? intersecao(porFaceta, faceta) : resultado;
+                contagens.put(faceta, contar(faceta, base, filtros.get(faceta)));
+            }
+
+            List<UUID> ids = new ArrayList<>(Math.max(0, limite));
+            int pulados = 0;
+            for (int o = resultado.anterior(idPorOrdinal.size() - 1); o >= 0 && ids.size() < limite; o = resultado.anterior(o - 1)) {
+                if (pulados++ < offset) continue;
+                ids.add(idPorOrdinal.get(o));
+            }
+
+            return new Resultado(ids, resultado.cardinalidade(), contagens);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return ordinalPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinais em uso (ativos + removidos ainda não compactados); não cresce sem limite com remoções
+     */
+    public int quantidadeOrdinais() {
+        lock.readLock().lock();
+        try {
+            return idPorOrdinal.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ====== AUXILIARES ======
+
+    /**
+     * Livros ativos AND bitmap de cada faceta filtrada, exceto a "ignorada"
+     */
+    private Bitmap intersecao(Map<Faceta, Bitmap> porFaceta, Faceta ignorada) {
+        Bitmap base = ativos;
+        for (Map.Entry<Faceta, Bitmap> filtro : porFaceta.entrySet()) {
+            if (filtro.getKey() != ignorada) base = base.e(filtro.getValue());
+        }
+        return base;
+    }
+
+    /**
+     * Conta cada valor da faceta dentro da base, mantendo os mais frequentes e os selecionados
+     *
+     * Do caminho mais barato ao mais caro:
+     * - Base = todos os ativos (sem filtro nas outras facetas): cardinalidade de cada valor, sem interseção
+     * - Base pequena: percorre só os livros da base somando o valor de cada um
+     * - Senão: interseção da base com o bitmap de cada valor
+     */
+    private Map<String, Integer> contar(Faceta faceta, Bitmap base, Set<String> selecionados) {
+        Map<String, Bitmap> porValor = bitmaps.get(faceta);
+        Map<String, Integer> quantidades = new HashMap<>();
+
+        if (base == ativos) {
+            porValor.forEach((valor, bitmap) -> quantidades.put(valor, bitmap.cardinalidade()));
+        } else if ((long) base.cardinalidade() * FATOR_VARREDURA <= ordinalPorId.size()) {
+            int indice = faceta.ordinal();
+            base.paraCada(ordinal -> {
+                String valor = valoresPorOrdinal.get(ordinal)[indice];
+                if (valor != null) quantidades.merge(valor, 1, Integer::sum);
+            });
+        } else {
+            porValor.forEach((valor, bitmap) -> quantidades.put(valor, base.contarIntersecao(bitmap)));
+        }
+
+        List<Map.Entry<String, Integer>> contagens = new ArrayList<>();
+        porValor.keySet().forEach(valor -> {
+            int quantidade = quantidades.getOrDefault(valor, 0);
+            if (quantidade > 0 || (selecionados != null && selecionados.contains(valor))) {
+                contagens.add(Map.entry(valor, quantidade));
+            }
+        });
+
+        contagens.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> contagem : contagens) {
+            boolean selecionado = selecionados != null && selecionados.contains(contagem.getKey());
+            if (resultado.size() < MAX_VALORES_POR_FACETA || selecionado) {
+                resultado.put(contagem.getKey(), contagem.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    private void marcar(int ordinal, String[] valores) {
+        for (Faceta faceta : Faceta.values()) {
+            String valor = valores[faceta.ordinal()];
+            if (valor != null) {
+                bitmaps.get(faceta).computeIfAbsent(valor, v -> new Bitmap()).set(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Renumera os livros ativos (mesma ordem relativa, então a paginação não muda) e refaz os bitmaps
+     * em ordinais crescentes, que só acrescentam no fim de cada container
+     */
+    private void compactarSeNecessario() {
+        if (totalRemovidos < COMPACTAR_MINIMO || totalRemovidos < idPorOrdinal.size() / COMPACTAR_FRACAO) return;
+
+        long inicio = System.currentTimeMillis();
+        int antes = idPorOrdinal.size();
+
+        List<UUID> ids = new ArrayList<>(ordinalPorId.size());
+        List<String[]> valores = new ArrayList<>(ordinalPorId.size());
+        for (int ordinal = 0; ordinal < antes; ordinal++) {
+            if (valoresPorOrdinal.get(ordinal) == null) continue;
+            ids.add(idPorOrdinal.get(ordinal));
+            valores.add(valoresPorOrdinal.get(ordinal));
+        }
+
+        idPorOrdinal.clear();
+        valoresPorOrdinal.clear();
+        bitmaps.values().forEach(Map::clear);
+        ativos = new Bitmap();
+        for (int novo = 0; novo < ids.size(); novo++) {
+            idPorOrdinal.add(ids.get(novo));
+            valoresPorOrdinal.add(valores.get(novo));
+            ordinalPorId.put(ids.get(novo), novo);
+            ativos.set(novo);
+            marcar(novo, valores.get(novo));
+        }
+        totalRemovidos = 0;
+
+        log.info("Índice de facetas compactado: {} -> {} ordinais em {} ms",
+                antes, ids.size(), System.currentTimeMillis() - inicio);
+    }
+
+    private void desmarcar(int ordinal) {
+        String[] valores = valoresPorOrdinal.get(ordinal);
+        if (valores == null) return;
+
+        for (Faceta faceta : Faceta.values()) {
+            String valor = valores[faceta.ordinal()];
+            if (valor == null) continue;
+
+            Map<String, Bitmap> porValor = bitmaps.get(faceta);
+            Bitmap bitmap = porValor.get(valor);
+            bitmap.clear(ordinal);
+            if (bitmap.vazio()) porValor.remove(valor);
+        }
+    }
+
+    private static String limpar(String valor) {
+        if (valor == null || valor.isBlank()) return null;
+        return valor.trim();
+    }
+
+    /**
+     * Bitmap de ordinais comprimido no estilo Roaring: blocos de 2^16 ordinais (16 bits altos), cada um
+     * com o container mais barato para a sua densidade
+     *
+     * - Até LIMITE_ARRAY ordinais no bloco: array ordenado de char (2 bytes por livro)
+     * - Acima disso: bits (8 KB fixos por bloco), AND/OR/contagem palavra a palavra
+     * - Bloco sem nenhum ordinal não existe: editora com 3 livros custa 3 chars, não o catálogo inteiro
+     *
+     * e/ou devolvem bitmaps NOVOS sem alterar os operandos, mas o resultado pode compartilhar containers
+     * com eles: set/clear só nos bitmaps do próprio índice, nunca em resultados de e/ou
+     */
+    static final class Bitmap {
+        private static final int LIMITE_ARRAY = 4096;
+
+        private char[] chaves = new char[4];
+        private Container[] containers = new Container[4];
+        private int tamanho;
+
+        void set(int i) {
+            int pos = buscar((char) (i >>> 16));
+            if (pos < 0) {
+                pos = -pos - 1;
+                inserir(pos, (char) (i >>> 16), new ContainerArray());
+            }
+            containers[pos] = containers[pos].adicionar((char) i);
+        }
+
+        void clear(int i) {
+            int pos = buscar((char) (i >>> 16));
+            if (pos < 0) return;
+
+            Container container = containers[pos].remover((char) i);
+            if (container.cardinalidade() > 0) {
+                containers[pos] = container;
+                return;
+            }
+            System.arraycopy(chaves, pos + 1, chaves, pos, tamanho - pos - 1);
+            System.arraycopy(containers, pos + 1, containers, pos, tamanho - pos - 1);
+            containers[--tamanho] = null;
+        }
+
+        Bitmap e(Bitmap outro) {
+            Bitmap resultado = new Bitmap();
+            int a = 0, b = 0;
+            while (a < tamanho && b < outro.tamanho) {
+                if (chaves[a] < outro.chaves[b]) {
+                    a++;
+                } else if (chaves[a] > outro.chaves[b]) {
+                    b++;
+                } else {
+                    Container intersecao = containers[a].e(outro.containers[b]);
+                    if (intersecao.cardinalidade() > 0) resultado.inserir(resultado.tamanho, chaves[a], intersecao);
+                    a++;
+                    b++;
+                }
+            }
+            return resultado;
+        }
+
+        Bitmap ou(Bitmap outro) {
+            Bitmap resultado = new Bitmap();
+            int a = 0, b = 0;
+            while (a < tamanho || b < outro.tamanho) {
+                if (b == outro.tamanho || (a < tamanho && chaves[a] < outro.chaves[b])) {
+                    resultado.inserir(resultado.tamanho, chaves[a], containers[a++]);
+                } else if (a == tamanho || chaves[a] > outro.chaves[b]) {
+                    resultado.inserir(resultado.tamanho, outro.chaves[b], outro.containers[b++]);
+                } else {
+                    resultado.inserir(resultado.tamanho, chaves[a], containers[a++].ou(outro.containers[b++]));
+                }
+            }
+            return resultado;
+        }
+
+        int contarIntersecao(Bitmap outro) {
+            int total = 0;
+            int a = 0, b = 0;
+            while (a < tamanho && b < outro.tamanho) {
+                if (chaves[a] < outro.chaves[b]) {
+                    a++;
+                } else if (chaves[a] > outro.chaves[b]) {
+                    b++;
+                } else {
+                    total += containers[a++].contarIntersecao(outro.containers[b++]);
+                }
+            }
+            return total;
+        }
+
+        int cardinalidade() {
+            int total = 0;
+            for (int c = 0; c < tamanho; c++) total += containers[c].cardinalidade();
+            return total;
+        }
+
+        boolean vazio() {
+            return tamanho == 0;
+        }
+
+        /**
+         * Maior ordinal marcado <= i, ou -1
+         */
+        int anterior(int i) {
+            if (i < 0) return -1;
+            int pos = buscar((char) (i >>> 16));
+            if (pos >= 0) {
+                int baixo = containers[pos].anterior((char) i);
+                if (baixo >= 0) return (chaves[pos] << 16) | baixo;
+                pos--;
+            } else {
+                pos = -pos - 2;
+            }
+            return pos >= 0 ? (chaves[pos] << 16) | containers[pos].ultimo() : -1;
+        }
+
+        /**
+         * Cada ordinal marcado, em ordem crescente
+         */
+        void paraCada(IntConsumer acao) {
+            for (int c = 0; c < tamanho; c++) containers[c].paraCada(chaves[c] << 16, acao);
+        }
+
+        private int buscar(char chave) {
+            return Arrays.binarySearch(chaves, 0, tamanho, chave);
+        }
+
+        private void inserir(int pos, char chave, Container container) {
+            if (tamanho == chaves.length) {
+                chaves = Arrays.copyOf(chaves, tamanho * 2);
+                containers = Arrays.copyOf(containers, tamanho * 2);
+            }
+            System.arraycopy(chaves, pos, chaves, pos + 1, tamanho - pos);
+            System.arraycopy(containers, pos, containers, pos + 1, tamanho - pos);
+            chaves[pos] = chave;
+            containers[pos] = container;
+            tamanho++;
+        }
+
+        /**
+         * Os 16 bits baixos dos ordinais de um bloco
+         * adicionar/remover alteram o próprio container e devolvem o que deve ficar no lugar dele
+         * (troca de representação ao cruzar LIMITE_ARRAY); e/ou nunca alteram os operandos
+         */
+        private abstract static sealed class Container permits ContainerArray, ContainerBits {
+            abstract int cardinalidade();
+
+            abstract boolean contem(char v);
+
+            abstract Container adicionar(char v);
+
+            abstract Container remover(char v);
+
+            abstract Container e(Container outro);
+
+            abstract Container ou(Container outro);
+
+            abstract int contarIntersecao(Container outro);
+
+            abstract int anterior(char v);
+
+            abstract int ultimo();
+
+            abstract void paraCada(int base, IntConsumer acao);
+        }
+
+        private static final class ContainerArray extends Container {
+            private char[] valores;
+            private int n;
+
+            ContainerArray() {
+                this(new char[4], 0);
+            }
+
+            ContainerArray(char[] valores, int n) {
+                this.valores = valores;
+                this.n = n;
+            }
+
+            @Override
+            int cardinalidade() {
+                return n;
+            }
+
+            @Override
+            boolean contem(char v) {
+                return Arrays.binarySearch(valores, 0, n, v) >= 0;
+            }
+
+            @Override
+            Container adicionar(char v) {
+                int pos = Arrays.binarySearch(valores, 0, n, v);
+                if (pos >= 0) return this;
+                if (n == LIMITE_ARRAY) return paraBits().adicionar(v);
+
+                pos = -pos - 1;
+                if (n == valores.length) valores = Arrays.copyOf(valores, Math.min(Math.max(n * 2, 4), LIMITE_ARRAY));
+                System.arraycopy(valores, pos, valores, pos + 1, n - pos);
+                valores[pos] = v;
+                n++;
+                return this;
+            }
+
+            @Override
+            Container remover(char v) {
+                int pos = Arrays.binarySearch(valores, 0, n, v);
+                if (pos < 0) return this;
+                System.arraycopy(valores, pos + 1, valores, pos, n - pos - 1);
+                n--;
+                return this;
+            }
+
+            @Override
+            Container e(Container outro) {
+                char[] resultado = new char[Math.min(n, outro.cardinalidade())];
+                int k = 0;
+                if (outro instanceof ContainerArray array) {
+                    int a = 0, b = 0;
+                    while (a < n && b < array.n) {
+                        if (valores[a] < array.valores[b]) a++;
+                        else if (valores[a] > array.valores[b]) b++;
+                        else {
+                            resultado[k++] = valores[a++];
+                            b++;
+                        }
+                    }
+                } else {
+                    for (int a = 0; a < n; a++) {
+                        if (outro.contem(valores[a])) resultado[k++] = valores[a];
+                    }
+                }
+                return new ContainerArray(resultado, k);
+            }
+
+            @Override
+            Container ou(Container outro) {
+                if (outro instanceof ContainerBits) return outro.ou(this);
+
+                ContainerArray array = (ContainerArray) outro;
+                if (n + array.n > LIMITE_ARRAY) {
+                    ContainerBits bits = paraBits();
+                    for (int b = 0; b < array.n; b++) bits.marcar(array.valores[b]);
+                    return bits;
+                }
+
+                char[] resultado = new char[n + array.n];
+                int a = 0, b = 0, k = 0;
+                while (a < n || b < array.n) {
+                    if (b == array.n || (a < n && valores[a] < array.valores[b])) resultado[k++] = valores[a++];
+                    else if (a == n || valores[a] > array.valores[b]) resultado[k++] = array.valores[b++];
+                    else {
+                        resultado[k++] = valores[a++];
+                        b++;
+                    }
+                }
+                return new ContainerArray(resultado, k);
+            }
+
+            @Override
+            int contarIntersecao(Container outro) {
+                int total = 0;
+                if (outro instanceof ContainerArray array) {
+                    int a = 0, b = 0;
+                    while (a < n && b < array.n) {
+                        if (valores[a] < array.valores[b]) a++;
+                        else if (valores[a] > array.valores[b]) b++;
+                        else {
+                            total++;
+                            a++;
+                            b++;
+                        }
+                    }
+                } else {
+                    for (int a = 0; a < n; a++) {
+                        if (outro.contem(valores[a])) total++;
+                    }
+                }
+                return total;
+            }
+
+            @Override
+            int anterior(char v) {
+                int pos = Arrays.binarySearch(valores, 0, n, v);
+                if (pos >= 0) return valores[pos];
+                int insercao = -pos - 1;
+                return insercao > 0 ? valores[insercao - 1] : -1;
+            }
+
+            @Override
+            int ultimo() {
+                return valores[n - 1];
+            }
+
+            @Override
+            void paraCada(int base, IntConsumer acao) {
+                for (int a = 0; a < n; a++) acao.accept(base | valores[a]);
+            }
+
+            private ContainerBits paraBits() {
+                ContainerBits bits = new ContainerBits(new long[1024]);
+                for (int a = 0; a < n; a++) bits.marcar(valores[a]);
+                return bits;
+            }
+        }
+
+        private static final class ContainerBits extends Container {
+            private final long[] palavras;
+            private int cardinalidade;
+
+            ContainerBits(long[] palavras) {
+                this.palavras = palavras;
+                for (long palavra : palavras) cardinalidade += Long.bitCount(palavra);
+            }
+
+            @Override
+            int cardinalidade() {
+                return cardinalidade;
+            }
+
+            @Override
+            boolean contem(char v) {
+                return (palavras[v >>> 6] & (1L << v)) != 0;
+            }
+
+            void marcar(char v) {
+                long antes = palavras[v >>> 6];
+                palavras[v >>> 6] = antes | (1L << v);
+                if (palavras[v >>> 6] != antes) cardinalidade++;
+            }
+
+            @Override
+            Container adicionar(char v) {
+                marcar(v);
+                return this;
+            }
+
+            @Override
+            Container remover(char v) {
+                long antes = palavras[v >>> 6];
+                palavras[v >>> 6] = antes & ~(1L << v);
+                if (palavras[v >>> 6] != antes) cardinalidade--;
+                return cardinalidade <= LIMITE_ARRAY ? paraArray() : this;
+            }
+
+            @Override
+            Container e(Container outro) {
+                if (outro instanceof ContainerArray) return outro.e(this);
+
+                long[] outras = ((ContainerBits) outro).palavras;
+                long[] resultado = new long[1024];
+                for (int w = 0; w < 1024; w++) resultado[w] = palavras[w] & outras[w];
+                ContainerBits bits = new ContainerBits(resultado);
+                return bits.cardinalidade <= LIMITE_ARRAY ? bits.paraArray() : bits;
+            }
+
+            @Override
+            Container ou(Container outro) {
+                if (outro instanceof ContainerArray array) {
+                    ContainerBits resultado = new ContainerBits(palavras.clone());
+                    for (int b = 0; b < array.n; b++) resultado.marcar(array.valores[b]);
+                    return resultado;
+                }
+
+                long[] outras = ((ContainerBits) outro).palavras;
+                long[] resultado = palavras.clone();
+                for (int w = 0; w < 1024; w++) resultado[w] |= outras[w];
+                return new ContainerBits(resultado);
+            }
+
+            @Override
+            int contarIntersecao(Container outro) {
+                if (outro instanceof ContainerArray) return outro.contarIntersecao(this);
+
+                long[] outras = ((ContainerBits) outro).palavras;
+                int total = 0;
+                for (int w = 0; w < 1024; w++) total += Long.bitCount(palavras[w] & outras[w]);
+                return total;
+            }
+
+            @Override
+            int anterior(char v) {
+                int w = v >>> 6;
+                long palavra = palavras[w] & (-1L >>> (63 - (v & 63)));
+                while (true) {
+                    if (palavra != 0) return (w << 6) + 63 - Long.numberOfLeadingZeros(palavra);
+                    if (--w < 0) return -1;
+                    palavra = palavras[w];
+                }
+            }
+
+            @Override
+            int ultimo() {
+                return anterior((char) 0xFFFF);
+            }
+
+            @Override
+            void paraCada(int base, IntConsumer acao) {
+                for (int w = 0; w < 1024; w++) {
+                    long palavra = palavras[w];
+                    while (palavra != 0) {
+                        acao.accept(base | (w << 6) | Long.numberOfTrailingZeros(palavra));
+                        palavra &= palavra - 1;
+                    }
+                }
+            }
+
+            private ContainerArray paraArray() {
+                char[] valores = new char[cardinalidade];
+                int k = 0;
+                for (int w = 0; w < 1024; w++) {
+                    long palavra = palavras[w];
+                    while (palavra != 0) {
+                        valores[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(palavra));
+                        palavra &= palavra - 1;
+                    }
+                }
+                return new ContainerArray(valores, k);
+            }
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.BibliotecaPessoalRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.PopularidadeLivro;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Autocomplete (typeahead) de títulos de livros e nomes de autores
+ *
+ * - Trie compacta (radix): cada aresta guarda um trecho do texto, nós só existem onde há bifurcação
+ * - Chaves = texto normalizado inteiro + sufixos que começam em cada palavra ("dom casmurro", "casmurro")
+ * - Cada nó guarda o top-K da sua subárvore por popularidade: a consulta só desce o prefixo e copia o top
+ *
+ * Popularidade: livro = quantas bibliotecas pessoais o têm; autor = quantos livros publicou.
+ * A dos livros é relida do banco a cada biblioteca.sugestoes.popularidade-intervalo (padrão 10m).
+ *
+ * Chaves são cortadas em MAX_TAMANHO_CHAVE caracteres: o prefixo digitado também é cortado nesse
+ * tamanho, então depois de 40 caracteres a sugestão não fica mais específica (mas não some).
+ */
+@Component
+@Slf4j
+public class IndiceSugestoes {
+
+    public static final int TOP_K = 10;
+
+    // Limites para manter a trie pequena com catálogos grandes
+    private static final int MAX_CHAVES_POR_ENTRADA = 4;
+    // Títulos longos só se distinguem pelos primeiros 40 caracteres (normalizados) de cada chave
+    private static final int MAX_TAMANHO_CHAVE = 40;
+    // Mudanças de popularidade aplicadas por vez com o write lock (entre lotes as sugestões respondem)
+    private static final int LOTE_POPULARIDADE = 500;
+
+    private static final No[] SEM_FILHOS = new No[0];
+    private static final Entrada[] SEM_TOP = new Entrada[0];
+
+    private final LivroRepository livroRepository;
+    private final BibliotecaPessoalRepository bibliotecaPessoalRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final No raiz = new No("");
+    private final Map<UUID, Entrada> livros = new HashMap<>();
+    private final Map<UUID, Entrada> autores = new HashMap<>();
+    private final Map<UUID, UUID> autorPorLivro = new HashMap<>();
+
+    // Durante a carga inicial o top-K é recalculado uma única vez no final
+    private boolean carregando;
+
+    public IndiceSugestoes(LivroRepository livroRepository,
+                           BibliotecaPessoalRepository bibliotecaPessoalRepository) {
+        this.livroRepository = livroRepository;
+        this.bibliotecaPessoalRepository = bibliotecaPessoalRepository;
+    }
+
+    /**
+     * Sugestão devolvida para o cliente
+     */
+    public record Sugestao(String texto, Tipo tipo, UUID id) {
+        public enum Tipo { LIVRO, AUTOR }
+    }
+
+    /**
+     * Carrega títulos e autores do catálogo e a popularidade dos livros
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void carregar() {
+        long inicio = System.currentTimeMillis();
+
+        lock.writeLock().lock();
+        try {
+            carregando = true;
+
+            try (Stream<LivroResumo> catalogo = livroRepository.streamCatalogo()) {
+                catalogo.forEach(l -> adicionarLivroSemLock(l.id(), l.titulo(), l.autorId(), l.autorNome()));
+            }
+
+            bibliotecaPessoalRepository.contarLeitoresPorLivro().forEach(p -> {
+                Entrada livro = livros.get(p.livroId());
+                if (livro != null) livro.popularidade = p.leitores();
+            });
+
+            carregando = false;
+            recalcularSubarvore(raiz);
+        } finally {
+            carregando = false;
+            lock.writeLock().unlock();
+        }
+
+        log.info("Índice de sugestões carregado: {} livros, {} autores em {} ms",
+                livros.size(), autores.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Relê quantas bibliotecas pessoais têm cada livro e reordena o top-K onde algo mudou
+     *
+     * - Consulta fora do lock e diferenças com read lock: sugestões continuam respondendo
+     * - Write lock só para aplicar cada lote e recalcular os nós acima das chaves alteradas
+     *   (cada nó uma vez por lote), não a árvore inteira
+     * - Livro que sumiu de todas as bibliotecas volta para popularidade 0
+     */
+    @Scheduled(initialDelayString = "${biblioteca.sugestoes.popularidade-intervalo:10m}",
+            fixedDelayString = "${biblioteca.sugestoes.popularidade-intervalo:10m}")
+    public void atualizarPopularidade() {
+        Map<UUID, Long> leitores = new HashMap<>();
+        for (PopularidadeLivro p : bibliotecaPessoalRepository.contarLeitoresPorLivro()) {
+            leitores.put(p.livroId(), p.leitores());
+        }
+
+        List<Map.Entry<Entrada, Long>> mudancas = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Entrada livro : livros.values()) {
+                long atual = leitores.getOrDefault(livro.sugestao.id(), 0L);
+                if (livro.popularidade != atual) mudancas.add(Map.entry(livro, atual));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (int inicio = 0; inicio < mudancas.size(); inicio += LOTE_POPULARIDADE) {
+            List<Map.Entry<Entrada, Long>> lote =
+                    mudancas.subList(inicio, Math.min(inicio + LOTE_POPULARIDADE, mudancas.size()));
+
+            lock.writeLock().lock();
+            try {
+                List<List<No>> caminhos = new ArrayList<>();
+                for (Map.Entry<Entrada, Long> mudanca : lote) {
+                    Entrada livro = mudanca.getKey();
+                    // Removido ou reinserido (título editado) desde a leitura: a entrada já não está na trie
+                    if (livros.get(livro.sugestao.id()) != livro) continue;
+
+                    livro.popularidade = mudanca.getValue();
+                    for (String chave : livro.chaves) {
+                        List<No> caminho = caminhoExato(chave);
+                        if (caminho != null) caminhos.add(caminho);
+                    }
+                }
+                recalcularCaminhos(caminhos);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Adiciona o título do livro e conta mais um livro para o autor
+     */
+    public void adicionarLivro(UUID livroId, String titulo, UUID autorId, String autorNome) {
+        lock.writeLock().lock();
+        try {
+            adicionarLivroSemLock(livroId, titulo, autorId, autorNome);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove o título do livro e desconta o livro do autor (autor sem livros sai das sugestões)
+     */
+    public void removerLivro(UUID livroId) {
+        lock.writeLock().lock();
+        try {
+            Entrada livro = livros.remove(livroId);
+            if (livro != null) remover(livro);
+
+            UUID autorId = autorPorLivro.remove(livroId);
+            Entrada autor = autorId != null ? autores.get(autorId) : null;
+            if (autor != null) {
+                autor.popularidade--;
+                if (autor.popularidade <= 0) {
+                    autores.remove(autorId);
+                    remover(autor);
+                } else {
+                    recalcularCaminhos(autor);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top sugestões cujo texto (ou alguma palavra dele) começa com o prefixo digitado
+     */
+    public List<Sugestao> sugerir(String prefixo, int limite) {
+        String chave = NormalizadorTexto.normalizar(prefixo);
+        if (chave.isEmpty() || limite <= 0) return List.of();
+        // Chaves na trie têm no máximo MAX_TAMANHO_CHAVE caracteres: o resto do prefixo não teria onde casar
+        if (chave.length() > MAX_TAMANHO_CHAVE) chave = chave.substring(0, MAX_TAMANHO_CHAVE);
+
+        lock.readLock().lock();
+        try {
+            No no = raiz;
+            int i = 0;
+            while (i < chave.length()) {
+                No filho = no.filho(chave.charAt(i));
+                if (filho == null) return List.of();
+
+                int comum = prefixoComum(filho.rotulo, chave, i);
+                if (i + comum == chave.length()) {
+                    // Prefixo termina no meio (ou no fim) desta aresta
+                    no = filho;
+                    break;
+                }
+                if (comum < filho.rotulo.length()) return List.of();
+
+                i += comum;
+                no = filho;
+            }
+
+            int total = Math.min(limite, no.top.length);
+            List<Sugestao> resultado = new ArrayList<>(total);
+            for (int k = 0; k < total; k++) {
+                resultado.add(no.top[k].sugestao);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Quantidade de nós da trie (sem a raiz); não cresce com livros adicionados e removidos
+     */
+    public int quantidadeNos() {
+        lock.readLock().lock();
+        try {
+            return contarNos(raiz) - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int contarNos(No no) {
+        int total = 1;
+        for (No filho : no.filhos) {
+            total += contarNos(filho);
+        }
+        return total;
+    }
+
+    // ====== ESCRITA (sempre com write lock) ======
+
+    private void adicionarLivroSemLock(UUID livroId, String titulo, UUID autorId, String autorNome) {
+        Entrada antigo = livros.remove(livroId);
+        if (antigo != null) remover(antigo);
+
+        Entrada livro = new Entrada(new Sugestao(titulo, Sugestao.Tipo.LIVRO, livroId), 0);
+        livros.put(livroId, livro);
+        inserir(livro);
+
+        if (autorId == null || autorPorLivro.put(livroId, autorId) != null) return;
+
+        Entrada autor = autores.get(autorId);
+        if (autor == null) {
+            autor = new Entrada(new Sugestao(autorNome, Sugestao.Tipo.AUTOR, autorId), 1);
+            autores.put(autorId, autor);
+            inserir(autor);
+        } else {
+            autor.popularidade++;
+            recalcularCaminhos(autor);
+        }
+    }
+
+    private void inserir(Entrada entrada) {
+        for (String chave : entrada.chaves) {
+            List<No> caminho = new ArrayList<>();
+            caminho.add(raiz);
+
+            No no = raiz;
+            int i = 0;
+            while (i < chave.length()) {
+                No filho = no.filho(chave.charAt(i));
+                if (filho == null) {
+                    filho = new No(chave.substring(i));
+                    no.adicionarFilho(filho);
+                    caminho.add(filho);
+                    no = filho;
+                    break;
+                }
+
+                int comum = prefixoComum(filho.rotulo, chave, i);
+                if (comum < filho.rotulo.length()) {
+                    // Divide a aresta: no → meio → filho
+                    No meio = new No(filho.rotulo.substring(0, comum));
+                    filho.rotulo = filho.rotulo.substring(comum);
+                    meio.filhos = new No[]{filho};
+                    meio.top = filho.top;
+                    no.substituirFilho(filho, meio);
+                    filho = meio;
+                }
+
+                caminho.add(filho);
+                no = filho;
+                i += comum;
+            }
+
+            if (no.terminais == null) no.terminais = new ArrayList<>(1);
+            no.terminais.add(entrada);
+            recalcularCaminho(caminho);
+        }
+    }
+
+    private void remover(Entrada entrada) {
+        for (String chave : entrada.chaves) {
+            List<No> caminho = caminhoExato(chave);
+            if (caminho == null) continue;
+
+            No fim = caminho.getLast();
+            if (fim.terminais != null) {
+                fim.terminais.remove(entrada);
+                if (fim.terminais.isEmpty()) fim.terminais = null;
+            }
+            podar(caminho);
+            recalcularCaminho(caminho);
+        }
+    }
+
+    /**
+     * Desfaz o que a remoção deixou sobrando no fim do caminho, mantendo a trie compacta:
+     * - nós sem entradas e sem filhos saem do pai (subindo enquanto houver)
+     * - nó que ficou sem entradas e com um único filho é fundido com ele (desfaz a divisão da aresta)
+     */
+    private void podar(List<No> caminho) {
+        while (caminho.size() > 1) {
+            No no = caminho.getLast();
+            if (no.terminais != null || no.filhos.length > 0) break;
+            caminho.removeLast();
+            caminho.getLast().removerFilho(no);
+        }
+
+        if (caminho.size() > 1) {
+            No no = caminho.getLast();
+            if (no.terminais == null && no.filhos.length == 1) {
+                No filho = no.filhos[0];
+                filho.rotulo = no.rotulo + filho.rotulo;
+                caminho.get(caminho.size() - 2).substituirFilho(no, filho);
+                caminho.set(caminho.size() - 1, filho);
+            }
+        }
+    }
+
+    private void recalcularCaminhos(Entrada entrada) {
+        for (String chave : entrada.chaves) {
+            List<No> caminho = caminhoExato(chave);
+            if (caminho != null) recalcularCaminho(caminho);
+        }
+    }
+
+    private List<No> caminhoExato(String chave) {
+        List<No> caminho = new ArrayList<>();
+        caminho.add(raiz);
+
+        No no = raiz;
+        int i = 0;
+        while (i < chave.length()) {
+            No filho = no.filho(chave.charAt(i));
+            if (filho == null || !chave.startsWith(filho.rotulo, i)) return null;
+
+            caminho.add(filho);
+            no = filho;
+            i += filho.rotulo.length();
+        }
+        return caminho;
+    }
+
+    /**
+     * Recalcula o top-K de baixo para cima ao longo do caminho alterado
+     */
+    private void recalcularCaminho(List<No> caminho) {
+        if (carregando) return;
+        for (int i = caminho.size() - 1; i >= 0; i--) {
+            caminho.get(i).recalcularTop();
+        }
+    }
+
+    /**
+     * Recalcula o top-K da união de vários caminhos, cada nó uma vez e dos mais fundos para a raiz
+     * (caminhos começam na raiz: a posição no caminho é a profundidade do nó)
+     */
+    private void recalcularCaminhos(List<List<No>> caminhos) {
+        Map<No, Integer> profundidades = new IdentityHashMap<>();
+        for (List<No> caminho : caminhos) {
+            for (int i = 0; i < caminho.size(); i++) {
+                profundidades.put(caminho.get(i), i);
+            }
+        }
+
+        List<Map.Entry<No, Integer>> nos = new ArrayList<>(profundidades.entrySet());
+        nos.sort(Map.Entry.<No, Integer>comparingByValue().reversed());
+        for (Map.Entry<No, Integer> no : nos) {
+            no.getKey().recalcularTop();
+        }
+    }
+
+    /**
+     * Recalcula o top-K da árvore inteira (pós-ordem), usado ao fim da carga
+     */
+    private void recalcularSubarvore(No no) {
+        for (No filho : no.filhos) {
+            recalcularSubarvore(filho);
+        }
+        no.recalcularTop();
+    }
+
+    private static int prefixoComum(String rotulo, String chave, int inicio) {
+        int max = Math.min(rotulo.length(), chave.length() - inicio);
+        int i = 0;
+        while (i < max && rotulo.charAt(i) == chave.charAt(inicio + i)) i++;
+        return i;
+    }
+
+    // ====== ESTRUTURAS ======
+
+    /**
+     * Texto sugerido + popularidade + chaves sob as quais foi inserido na trie
+     */
+    private static final class Entrada {
+        final Sugestao sugestao;
+        final List<String> chaves;
+        long popularidade;
+
+        Entrada(Sugestao sugestao, long popularidade) {
+            this.sugestao = sugestao;
+            this.popularidade = popularidade;
+            this.chaves = gerarChaves(sugestao.texto());
+        }
+
+        /**
+         * Texto inteiro + sufixos a partir de cada palavra relevante ("memorias postumas de bras cubas",
+         * "postumas de bras cubas", "bras cubas", ...), limitados em quantidade e tamanho
+         */
+        private static List<String> gerarChaves(String texto) {
+            String normalizado = NormalizadorTexto.normalizar(texto);
+            List<String> chaves = new ArrayList<>(MAX_CHAVES_POR_ENTRADA);
+            if (normalizado.isEmpty()) return chaves;
+
+            int inicio = 0;
+            while (inicio >= 0 && chaves.size() < MAX_CHAVES_POR_ENTRADA) {
+                int fimPalavra = normalizado.indexOf(' ', inicio);
+                String palavra = fimPalavra < 0 ? normalizado.substring(inicio) : normalizado.substring(inicio, fimPalavra);
+
+                if (inicio == 0 || !NormalizadorTexto.isStopword(palavra)) {
+                    String chave = normalizado.substring(inicio);
+                    chaves.add(chave.length() > MAX_TAMANHO_CHAVE ? chave.substring(0, MAX_TAMANHO_CHAVE) : chave);
+                }
+                inicio = fimPalavra < 0 ? -1 : fimPalavra + 1;
+            }
+            return chaves;
+        }
+    }
+
+    private static final Comparator<Entrada> MAIS_POPULAR = Comparator
+            .comparingLong((Entrada e) -> e.popularidade).reversed()
+            .thenComparing(e -> e.sugestao.texto(), Comparator.nullsLast(String::compareTo));
+
+    /**
+     * Nó da trie: rótulo da aresta de entrada, filhos ordenados pelo primeiro caractere e top-K da subárvore
+     */
+    private static final class No {
+        String rotulo;
+        No[] filhos = SEM_FILHOS;
+        List<Entrada> terminais;
+        Entrada[] top = SEM_TOP;
+
+        No(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        No filho(char c) {
+            int baixo = 0, alto = filhos.length - 1;
+            while (baixo <= alto) {
+                int meio = (baixo + alto) >>> 1;
+                char atual = filhos[meio].rotulo.charAt(0);
+                if (atual < c) baixo = meio + 1;
+                else if (atual > c) alto = meio - 1;
+                else return filhos[meio];
+            }
+            return null;
+        }
+
+        void adicionarFilho(No novo) {
+            char c = novo.rotulo.charAt(0);
+            int pos = 0;
+            while (pos < filhos.length && filhos[pos].rotulo.charAt(0) < c) pos++;
+
+            No[] novos = new No[filhos.length + 1];
+            System.arraycopy(filhos, 0, novos, 0, pos);
+            novos[pos] = novo;
+            System.arraycopy(filhos, pos, novos, pos + 1, filhos.length - pos);
+            filhos = novos;
+        }
+
+        void removerFilho(No antigo) {
+            for (int i = 0; i < filhos.length; i++) {
+                if (filhos[i] == antigo) {
+                    No[] novos = new No[filhos.length - 1];
+                    System.arraycopy(filhos, 0, novos, 0, i);
+                    System.arraycopy(filhos, i + 1, novos, i, filhos.length - i - 1);
+                    filhos = novos.length == 0 ? SEM_FILHOS : novos;
+                    return;
+                }
+            }
+        }
+
+        void substituirFilho(No antigo, No novo) {
+            for (int i = 0; i < filhos.length; i++) {
+                if (filhos[i] == antigo) {
+                    filhos[i] = novo;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * top-K = melhores entre as entradas que terminam aqui e os top-K dos filhos (sem repetir entrada)
+         */
+        void recalcularTop() {
+            List<Entrada> candidatos = new ArrayList<>();
+            if (terminais != null) candidatos.addAll(terminais);
+            for (No filho : filhos) {
+                Collections.addAll(candidatos, filho.top);
+            }
+
+            Set<Entrada> vistos = Collections.newSetFromMap(new IdentityHashMap<>());
+            top = candidatos.stream()
+                    .sorted(MAIS_POPULAR)
+                    .filter(vistos::add)
+                    .limit(TOP_K)
+                    .toArray(Entrada[]::new);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.busca;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalização de texto para busca em português
+ * - minúsculas
+ * - remove acentos (ação → acao, çé → ce)
+ * - quebra em termos alfanuméricos e descarta stopwords curtas
+ */
+public final class NormalizadorTexto {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos",
+            "em", "no", "na", "nos", "nas", "um", "uma", "para", "por", "com"
+    );
+
+    private NormalizadorTexto() {}
+
+    /**
+     * Minúsculas + sem acentos, mantendo apenas letras, dígitos e um espaço entre palavras
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) return "";
+
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "");
+
+        StringBuilder sb = new StringBuilder(semAcento.length());
+        for (int i = 0; i < semAcento.length(); i++) {
+            char c = semAcento.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT).trim();
+    }
+
+    public static boolean isStopword(String termo) {
+        return STOPWORDS.contains(termo);
+    }
+
+    /**
+     * Texto normalizado quebrado em termos, sem stopwords
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> termos = new ArrayList<>();
+        for (String termo : normalizar(texto).split("\\s+")) {
+            if (!termo.isEmpty() && !STOPWORDS.contains(termo)) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
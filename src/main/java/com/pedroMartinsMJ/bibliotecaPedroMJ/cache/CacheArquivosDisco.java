@@ -0,0 +1,217 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.GetObjectResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Cache em DISCO LOCAL dos arquivos de livros, na frente do MinIO
+ *
+ * - Chave = objeto + versão do upload: arquivo trocado no mesmo objeto nunca serve o conteúdo antigo
+ * - Limite em bytes (biblioteca.cache.disco.tamanho-maximo); despejo do Caffeine (frequência +
+ *   recência, pesado pelo tamanho) apaga o arquivo do disco
+ * - Falta: a requisição é servida direto do MinIO (sem esperar) e o arquivo inteiro é baixado
+ *   em segundo plano, uma vez só por chave, mesmo com várias requisições ao mesmo tempo
+ * - Integridade: MD5 do download comparado com a ETag do objeto (upload simples) ou, em objetos
+ *   multipart (ETag "...-N"), o tamanho comparado com o Content-Length; divergência não entra no cache
+ * - Acerto: FileChannel.transferTo do trecho pedido, lendo do page cache do sistema operacional
+ * - O índice vive só em memória: arquivos de execuções anteriores são apagados no startup
+ * - Exclusão do livro ou troca do arquivo apagam as cópias locais na hora (invalidar)
+ */
+@Component
+@Slf4j
+public class CacheArquivosDisco {
+
+    private static final String EXTENSAO = ".livro";
+
+    private final MinioService minioService;
+    private final Path diretorio;
+    private final AsyncCache<String, ArquivoLocal> cache;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("cache-disco-", 0).factory());
+
+    public CacheArquivosDisco(MinioService minioService,
+                              MeterRegistry meterRegistry,
+                              @Value("${biblioteca.cache.disco.diretorio:${java.io.tmpdir}/biblioteca-cache}") Path diretorio,
+                              @Value("${biblioteca.cache.disco.tamanho-maximo:2GB}") DataSize tamanhoMaximo) throws IOException {
+        this.minioService = minioService;
+        this.diretorio = diretorio;
+
+        Files.createDirectories(diretorio);
+        limparDiretorio();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximo.toBytes())
+                .weigher((String chave, ArquivoLocal arquivo) -> (int) Math.min(arquivo.tamanho(), Integer.MAX_VALUE))
+                .removalListener((String chave, ArquivoLocal arquivo, RemovalCause causa) -> {
+                    if (arquivo != null) apagar(arquivo.caminho());
+                })
+                .executor(executor)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "arquivos-disco");
+    }
+
+    /**
+     * Arquivo completo já verificado no disco
+     */
+    private record ArquivoLocal(Path caminho, long tamanho) {}
+
+    /**
+     * Escreve o trecho [inicio, inicio + tamanho) do objeto na saída: do disco se já estiver local,
+     * senão do MinIO (e agenda o download para o disco)
+     */
+    public void copiar(String objeto, String versao, long inicio, long tamanho, OutputStream saida) throws IOException {
+        String chave = objeto + "@" + versao;
+        CompletableFuture<ArquivoLocal> futuro = cache.get(chave, (c, exec) ->
+                CompletableFuture.supplyAsync(() -> baixar(objeto), exec));
+
+        ArquivoLocal local = futuro.isDone() && !futuro.isCompletedExceptionally() ? futuro.join() : null;
+        if (local != null) {
+            try (FileChannel canal = FileChannel.open(local.caminho(), StandardOpenOption.READ)) {
+                transferir(canal, inicio, tamanho, saida);
+                return;
+            } catch (NoSuchFileException e) {
+                // Despejado entre a consulta e a abertura: segue pelo MinIO
+                cache.synchronous().invalidate(chave);
+            }
+        }
+
+        try (InputStream entrada = minioService.downloadTrecho(objeto, inicio, tamanho)) {
+            entrada.transferTo(saida);
+        }
+    }
+
+    /**
+     * Tira todas as versões do objeto do cache e apaga os arquivos locais (livro excluído ou arquivo trocado)
+     * Percorre as chaves: o cache tem poucos milhares de arquivos (limite em bytes)
+     */
+    public void invalidar(String objeto) {
+        if (objeto == null) return;
+
+        String prefixo = objeto + "@";
+        // removeIf pelo asMap dispara o removalListener (apaga o arquivo do disco)
+        cache.synchronous().asMap().keySet().removeIf(chave -> chave.startsWith(prefixo));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // ====== DOWNLOAD PARA O DISCO ======
+
+    /**
+     * Baixa o objeto inteiro para um arquivo temporário, confere com a ETag e só então publica
+     * Qualquer falha devolve null: o Caffeine descarta a entrada e a próxima leitura tenta de novo
+     */
+    private ArquivoLocal baixar(String objeto) {
+        Path temporario = null;
+        try {
+            temporario = Files.createTempFile(diretorio, "baixando-", ".tmp");
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+            String etag;
+            long esperado;
+            try (GetObjectResponse resposta = minioService.downloadObjeto(objeto);
+                 InputStream entrada = new DigestInputStream(resposta, md5)) {
+                etag = resposta.headers().get("ETag");
+                String contentLength = resposta.headers().get("Content-Length");
+                esperado = contentLength == null ? -1 : Long.parseLong(contentLength);
+                Files.copy(entrada, temporario, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            long tamanho = Files.size(temporario);
+            verificar(objeto, etag, HexFormat.of().formatHex(md5.digest()), esperado, tamanho);
+
+            Path destino = diretorio.resolve(UUID.randomUUID() + EXTENSAO);
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Arquivo '{}' no cache em disco ({} bytes)", objeto, tamanho);
+            return new ArquivoLocal(destino, tamanho);
+
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            apagar(temporario);
+            log.warn("Arquivo '{}' não entrou no cache em disco: {}", objeto, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void verificar(String objeto, String etag, String md5, long esperado, long tamanho) {
+        if (esperado >= 0 && esperado != tamanho) {
+            throw new IllegalStateException("Tamanho divergente de '" + objeto + "': " + tamanho + " de " + esperado);
+        }
+
+        String valor = etag == null ? "" : etag.replace("\"", "");
+        // ETag de upload simples é o MD5 do conteúdo; a de multipart ("md5-N") não dá para recalcular
+        if (valor.length() == 32 && !valor.contains("-") && !valor.equalsIgnoreCase(md5)) {
+            throw new IllegalStateException("MD5 divergente da ETag de '" + objeto + "'");
+        }
+    }
+
+    // ====== DISCO ======
+
+    /**
+     * Copia o trecho do arquivo para a saída; o while cobre transferências parciais
+     */
+    private static void transferir(FileChannel canal, long inicio, long tamanho, OutputStream saida) throws IOException {
+        WritableByteChannel destino = Channels.newChannel(saida);
+        long posicao = inicio;
+        long fim = inicio + tamanho;
+        while (posicao < fim) {
+            long enviados = canal.transferTo(posicao, fim - posicao, destino);
+            if (enviados <= 0) {
+                throw new IOException("Arquivo do cache menor que o esperado");
+            }
+            posicao += enviados;
+        }
+    }
+
+    private void limparDiretorio() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.filter(Files::isRegularFile)
+                    .filter(arquivo -> arquivo.toString().endsWith(EXTENSAO) || arquivo.toString().endsWith(".tmp"))
+                    .forEach(CacheArquivosDisco::apagar);
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        if (arquivo == null) return;
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar '{}' do cache em disco: {}", arquivo, e.getMessage());
+        }
+    }
+}
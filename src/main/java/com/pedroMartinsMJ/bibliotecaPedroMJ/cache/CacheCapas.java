@@ -0,0 +1,211 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache das CAPAS fora do heap (MemorySegment da API FFM), por id do livro + versão da capa + largura
+ *
+ * - Bytes da imagem numa Arena própria por capa: o GC não vê nem copia o conteúdo
+ * - Limite em bytes (biblioteca.cache.capas.tamanho-maximo); métricas cache.* com tag cache=capas
+ *   e biblioteca.cache.capas.bytes (memória nativa em uso)
+ * - Contagem de referências: capa despejada com leitura em andamento só libera a memória quando
+ *   a última leitura fechar o stream (a Arena nunca fecha no meio de uma resposta)
+ * - Largura 0 = capa original; as demais são as miniaturas (MiniaturasCapaService)
+ * - A versão (Livro.versaoCapa) entra na chave porque a capa nova reaproveita o mesmo objeto no MinIO:
+ *   uma requisição que leu a versão antiga do banco nunca grava bytes na entrada da versão nova
+ * - atualizarCapa/removerCapa/exclusão invalidam todas as versões e larguras na hora e de novo após o commit
+ */
+@Component
+public class CacheCapas {
+
+    private static final int ORIGINAL = 0;
+
+    private final MinioService minioService;
+    private final Cache<Chave, Capa> cache;
+
+    public CacheCapas(MinioService minioService,
+                      MeterRegistry meterRegistry,
+                      @Value("${biblioteca.cache.capas.tamanho-maximo:64MB}") DataSize tamanhoMaximo) {
+        this.minioService = minioService;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximo.toBytes())
+                .weigher((Chave chave, Capa capa) -> (int) capa.dados.byteSize())
+                .removalListener((Chave chave, Capa capa, RemovalCause causa) -> {
+                    if (capa != null) capa.liberar();
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "capas");
+        Gauge.builder("biblioteca.cache.capas.bytes", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Memória nativa (fora do heap) ocupada pelas capas em cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private record Chave(UUID livroId, String versao, int largura) {}
+
+    /**
+     * Stream da versão da capa original, da memória nativa ou do MinIO (guardando para as próximas)
+     * O chamador precisa fechar o stream: é o que devolve a referência da capa
+     */
+    public InputStream abrir(UUID livroId, String versao, String capaKey) {
+        return abrir(livroId, versao, ORIGINAL, capaKey);
+    }
+
+    /**
+     * Mesmo que abrir(livroId, versao, capaKey), para a miniatura da largura (objeto = chave dela no MinIO)
+     */
+    public InputStream abrir(UUID livroId, String versao, int largura, String objeto) {
+        Chave chave = new Chave(livroId, versao, largura);
+        while (true) {
+            Capa capa = cache.get(chave, c -> carregar(objeto));
+            if (capa.adquirir()) {
+                return new LeituraCapa(capa);
+            }
+            // Despejada entre o get e o adquirir: remove a entrada morta (se ainda estiver lá) e tenta de novo
+            cache.asMap().remove(chave, capa);
+        }
+    }
+
+    /**
+     * Tira a capa e as miniaturas do cache (agora e, se houver transação ativa, de novo quando ela terminar)
+     * Percorre as chaves: o cache é limitado em bytes (poucas milhares de capas), e a versão nova nem
+     * depende disto para não servir a antiga, só devolve a memória mais cedo
+     */
+    public void invalidar(UUID livroId) {
+        remover(livroId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remover(livroId);
+                }
+            });
+        }
+    }
+
+    private void remover(UUID livroId) {
+        // removeIf pelo asMap dispara o removalListener (libera a memória nativa)
+        cache.asMap().keySet().removeIf(chave -> chave.livroId().equals(livroId));
+    }
+
+    /**
+     * Lê a capa do MinIO (até 5MB, validado no upload) e copia para um segmento nativo
+     */
+    private Capa carregar(String objeto) {
+        byte[] bytes;
+        try (InputStream entrada = minioService.downloadArquivo(objeto)) {
+            bytes = entrada.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Arena arena = Arena.ofShared();
+        MemorySegment dados = arena.allocate(Math.max(bytes.length, 1));
+        MemorySegment.copy(bytes, 0, dados, ValueLayout.JAVA_BYTE, 0, bytes.length);
+        return new Capa(arena, dados.asSlice(0, bytes.length).asReadOnly());
+    }
+
+    // ====== MEMÓRIA NATIVA ======
+
+    /**
+     * Capa em memória nativa; usos = 1 (referência do cache) + leituras abertas
+     * Chegou a zero = Arena fechada e memória devolvida; não dá para adquirir de novo
+     */
+    private static final class Capa {
+        final Arena arena;
+        final MemorySegment dados;
+        final AtomicInteger usos = new AtomicInteger(1);
+
+        Capa(Arena arena, MemorySegment dados) {
+            this.arena = arena;
+            this.dados = dados;
+        }
+
+        boolean adquirir() {
+            while (true) {
+                int atual = usos.get();
+                if (atual == 0) return false;
+                if (usos.compareAndSet(atual, atual + 1)) return true;
+            }
+        }
+
+        void liberar() {
+            if (usos.decrementAndGet() == 0) {
+                arena.close();
+            }
+        }
+    }
+
+    /**
+     * InputStream sobre o segmento; copia direto da memória nativa para o buffer de quem lê
+     */
+    private static final class LeituraCapa extends InputStream {
+        private final Capa capa;
+        private long posicao = 0;
+        private boolean fechado = false;
+
+        LeituraCapa(Capa capa) {
+            this.capa = capa;
+        }
+
+        @Override
+        public int read() throws IOException {
+            garantirAberto();
+            if (posicao >= capa.dados.byteSize()) return -1;
+            return capa.dados.get(ValueLayout.JAVA_BYTE, posicao++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int tamanho) throws IOException {
+            garantirAberto();
+            long restante = capa.dados.byteSize() - posicao;
+            if (restante <= 0) return tamanho == 0 ? 0 : -1;
+
+            int lidos = (int) Math.min(tamanho, restante);
+            MemorySegment.copy(capa.dados, ValueLayout.JAVA_BYTE, posicao, destino, inicio, lidos);
+            posicao += lidos;
+            return lidos;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, capa.dados.byteSize() - posicao));
+        }
+
+        @Override
+        public void close() {
+            if (!fechado) {
+                fechado = true;
+                capa.liberar();
+            }
+        }
+
+        private void garantirAberto() throws IOException {
+            if (fechado) throw new IOException("Stream da capa já foi fechado");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache read-through de livros por id (snapshot imutável LivroDetalhe)
+ *
+ * - Falta no cache = uma query de projeção (livro + autor + capa); livro inexistente não é guardado
+ * - Tamanho máximo e TTL configuráveis; métricas cache.* no actuator com tag cache=livros
+ * - Escritas invalidam na hora e de novo após o commit (evita que uma leitura concorrente
+ *   recoloque no cache o valor antigo antes da transação terminar)
+ */
+@Component
+public class CacheLivros {
+
+    private final LivroRepository livroRepository;
+    private final Cache<UUID, LivroDetalhe> cache;
+
+    public CacheLivros(LivroRepository livroRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${biblioteca.cache.livros.tamanho-maximo:10000}") long tamanhoMaximo,
+                       @Value("${biblioteca.cache.livros.ttl:10m}") Duration ttl) {
+        this.livroRepository = livroRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "livros");
+    }
+
+    /**
+     * Snapshot do livro, do cache ou do banco
+     */
+    public Optional<LivroDetalhe> buscar(UUID id) {
+        return Optional.ofNullable(cache.get(id, chave -> livroRepository.buscarDetalhePorId(chave).orElse(null)));
+    }
+
+    /**
+     * Tira o livro do cache (agora e, se houver transação ativa, de novo quando ela terminar)
+     */
+    public void invalidar(UUID id) {
+        cache.invalidate(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+}
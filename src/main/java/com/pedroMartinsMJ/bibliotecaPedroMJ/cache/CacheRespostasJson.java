@@ -0,0 +1,67 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache de respostas JSON já serializadas (bytes prontos + versão gzip)
+ *
+ * - Chave = valor da ETag (geração do catálogo ou versão do livro): escrita no catálogo muda a chave,
+ *   então a resposta antiga nunca mais é servida e sai por tamanho/TTL
+ * - Acerto no cache = zero mapeamento e zero serialização na requisição
+ * - Limite em bytes (soma de json + gzip), não em quantidade de entradas
+ */
+@Component
+public class CacheRespostasJson {
+
+    private final Cache<String, RespostaJson> cache;
+
+    public CacheRespostasJson(MeterRegistry meterRegistry,
+                              @Value("${biblioteca.cache.respostas-json.tamanho-maximo-bytes:33554432}") long tamanhoMaximoBytes,
+                              @Value("${biblioteca.cache.respostas-json.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximoBytes)
+                .weigher((String chave, RespostaJson resposta) -> resposta.json().length + resposta.gzip().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "respostas-json");
+    }
+
+    /**
+     * Corpo pronto para envio, com e sem compressão
+     */
+    public record RespostaJson(byte[] json, byte[] gzip) {}
+
+    /**
+     * Resposta da chave, serializando (e comprimindo) só na primeira vez
+     */
+    public RespostaJson obter(String chave, Supplier<byte[]> serializar) {
+        return cache.get(chave, c -> {
+            byte[] json = serializar.get();
+            return new RespostaJson(json, gzip(json));
+        });
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
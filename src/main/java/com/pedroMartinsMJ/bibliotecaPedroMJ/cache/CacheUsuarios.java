@@ -0,0 +1,81 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.UserDetails.Autoridades;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache read-through dos dados de login por username (snapshot imutável DadosLogin)
+ *
+ * - Falta no cache = findByUsername (usuário + roles); usuário inexistente não é guardado
+ * - Guarda o snapshot e não o UserDetails: o Spring Security apaga a senha do User depois da
+ *   autenticação (eraseCredentials), e um User compartilhado quebraria o próximo login
+ * - Authorities internadas (Autoridades): usuários com as mesmas roles dividem o mesmo Set
+ * - Invalidado por troca de senha, nova role e exclusão; agora e de novo após o commit
+ */
+@Component
+public class CacheUsuarios {
+
+    private final UsuarioRepository usuarioRepository;
+    private final Cache<String, DadosLogin> cache;
+
+    public CacheUsuarios(UsuarioRepository usuarioRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${biblioteca.cache.usuarios.tamanho-maximo:10000}") long tamanhoMaximo,
+                         @Value("${biblioteca.cache.usuarios.ttl:5m}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "usuarios");
+    }
+
+    /**
+     * O que o login precisa do usuário, sem a entidade
+     */
+    public record DadosLogin(String username, String senha, Set<GrantedAuthority> autoridades, boolean ativo) {}
+
+    /**
+     * Dados de login do usuário, do cache ou do banco
+     */
+    public Optional<DadosLogin> buscar(String username) {
+        return Optional.ofNullable(cache.get(username, chave -> usuarioRepository.findByUsername(chave)
+                .map(usuario -> new DadosLogin(
+                        usuario.getUsername(),
+                        usuario.getPassword(),
+                        Autoridades.de(usuario.getRoles()),
+                        usuario.isAtivo()))
+                .orElse(null)));
+    }
+
+    /**
+     * Tira o usuário do cache (agora e, se houver transação ativa, de novo quando ela terminar)
+     */
+    public void invalidar(String username) {
+        cache.invalidate(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de geração do catálogo: muda a cada escrita que altera alguma listagem
+ *
+ * - Base das ETags das páginas do catálogo (mesma geração + mesmos parâmetros = mesmo conteúdo)
+ * - Começa no horário do startup, para não repetir gerações de uma execução anterior
+ * - Avança na hora e de novo quando a transação termina (leitura concorrente não fica com
+ *   uma geração que já serviu o conteúdo antigo)
+ */
+@Component
+public class GeracaoCatalogo {
+
+    private final AtomicLong geracao = new AtomicLong(System.currentTimeMillis());
+
+    public long atual() {
+        return geracao.get();
+    }
+
+    public void avancar() {
+        geracao.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    geracao.incrementAndGet();
+                }
+            });
+        }
+    }
+}
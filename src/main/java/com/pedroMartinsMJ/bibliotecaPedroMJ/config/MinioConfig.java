@@ -1,5 +1,6 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.config;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -23,4 +24,15 @@ public class MinioConfig {
                 .credentials(accessKey, secretKey)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Cliente assíncrono com o multipart exposto (upload em streaming, partes em paralelo)
+     */
+    @Bean
+    public MinioMultipartClient minioMultipartClient() {
+        return new MinioMultipartClient(MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .build());
+    }
+}
@@ -0,0 +1,49 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.config;
+
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Expõe o upload multipart do S3 (protegido no SDK do MinIO) para o upload em streaming
+ *
+ * - iniciar / enviarParte / concluir / abortar: um objeto montado parte a parte,
+ *   com as partes enviadas em paralelo (enviarParte é assíncrono)
+ * - Mesmo endpoint e credenciais do MinioClient
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    public MinioMultipartClient(MinioAsyncClient cliente) {
+        super(cliente);
+    }
+
+    /**
+     * Abre o upload e devolve o uploadId
+     */
+    public String iniciar(String bucket, String objeto, String contentType) throws Exception {
+        // newMultimap: multimap de cabeçalhos do próprio SDK (sem depender da Guava aqui)
+        return createMultipartUploadAsync(bucket, null, objeto, newMultimap("Content-Type", contentType), null)
+                .get()
+                .result()
+                .uploadId();
+    }
+
+    /**
+     * Envia os primeiros `tamanho` bytes de `dados` como a parte `numero` (a partir de 1)
+     * O array não pode ser reutilizado antes do futuro terminar
+     */
+    public CompletableFuture<Part> enviarParte(String bucket, String objeto, String uploadId,
+                                               int numero, byte[] dados, int tamanho) throws Exception {
+        return uploadPartAsync(bucket, null, objeto, dados, tamanho, uploadId, numero, null, null)
+                .thenApply(resposta -> new Part(numero, resposta.etag()));
+    }
+
+    public void concluir(String bucket, String objeto, String uploadId, Part[] partes) throws Exception {
+        completeMultipartUploadAsync(bucket, null, objeto, uploadId, partes, null, null).get();
+    }
+
+    public void abortar(String bucket, String objeto, String uploadId) throws Exception {
+        abortMultipartUploadAsync(bucket, null, objeto, uploadId, null, null).get();
+    }
+}
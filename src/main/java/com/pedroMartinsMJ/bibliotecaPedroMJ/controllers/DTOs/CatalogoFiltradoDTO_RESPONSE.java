@@ -0,0 +1,14 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO de resposta do filtro facetado
+ * facetas: parâmetro da faceta → (valor → quantidade de livros), mais frequentes primeiro
+ */
+public record CatalogoFiltradoDTO_RESPONSE(
+        List<LivroDTO_RESPONSE> itens,
+        int total,
+        Map<String, Map<String, Integer>> facetas
+) {}
@@ -0,0 +1,36 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco da paginação do catálogo: posição (dataCadastro, id) do último livro entregue
+ * Trafega como Base64 URL-safe de "dataCadastro,id"
+ */
+public record CursorLivro(LocalDateTime dataCadastro, UUID id) {
+
+    public String codificar() {
+        String bruto = dataCadastro + "," + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorLivro decodificar(String token) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = bruto.indexOf(',');
+
+            return new CursorLivro(
+                    LocalDateTime.parse(bruto.substring(0, separador)),
+                    UUID.fromString(bruto.substring(separador + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new CursorInvalidoException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco da listagem de usuários: posição (dataCadastro, id) do último usuário entregue
+ * Trafega como Base64 URL-safe de "usuario:dataCadastro,id"; o prefixo faz um cursor do catálogo
+ * de livros (CursorLivro) ser recusado aqui em vez de pular para uma posição sem sentido
+ */
+public record CursorUsuario(LocalDateTime dataCadastro, UUID id) {
+
+    private static final String PREFIXO = "usuario:";
+
+    public String codificar() {
+        String bruto = PREFIXO + dataCadastro + "," + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorUsuario decodificar(String token) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!bruto.startsWith(PREFIXO)) {
+                throw new IllegalArgumentException("Cursor não é da listagem de usuários");
+            }
+            int separador = bruto.indexOf(',');
+
+            return new CursorUsuario(
+                    LocalDateTime.parse(bruto.substring(PREFIXO.length(), separador)),
+                    UUID.fromString(bruto.substring(separador + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new CursorInvalidoException(e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import jakarta.validation.constraints.AssertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO para pedir exclusão em lote: todos os livros de um autor OU uma lista de ids
+ */
+public record ExclusaoDTO_CREATE(
+        UUID autorId,
+        List<UUID> ids
+) {
+    @AssertTrue(message = "Informe autorId ou ids (apenas um dos dois)")
+    public boolean isCriterioUnico() {
+        return (autorId != null) != (ids != null && !ids.isEmpty());
+    }
+}
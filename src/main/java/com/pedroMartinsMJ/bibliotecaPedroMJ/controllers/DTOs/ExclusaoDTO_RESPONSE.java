@@ -0,0 +1,21 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO de andamento de um job de exclusão em lote
+ * status: PENDENTE, EXECUTANDO, CONCLUIDO ou FALHOU
+ */
+public record ExclusaoDTO_RESPONSE(
+        UUID id,
+        String status,
+        int total,
+        int processados,
+        int removidos,
+        int falhas,
+        int objetosOrfaos,
+        LocalDateTime inicio,
+        LocalDateTime fim,
+        String erro
+) {}
@@ -0,0 +1,26 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de resposta da importação em lote: totais e o resultado de cada linha do manifesto
+ */
+public record ImportacaoDTO_RESPONSE(
+        int total,
+        int importados,
+        int falhas,
+        List<LinhaDTO> linhas
+) {
+    /**
+     * status = IMPORTADO (com livroId) ou ERRO (com o motivo)
+     */
+    public record LinhaDTO(
+            int linha,
+            String titulo,
+            String isbn,
+            String status,
+            UUID livroId,
+            String erro
+    ) {}
+}
@@ -1,5 +1,6 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
 import jakarta.validation.constraints.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,7 +23,7 @@ public record LivroDTO_CREATE(
         String descricao,
 
         @Pattern(
-                regexp = "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$",
+                regexp = Livro.REGEX_ISBN,
                 message = "ISBN inválido"
         )
         String isbn,
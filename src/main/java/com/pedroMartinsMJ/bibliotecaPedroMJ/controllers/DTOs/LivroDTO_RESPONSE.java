@@ -26,6 +26,11 @@ public record LivroDTO_RESPONSE(
         boolean temArquivo,
         LocalDateTime dataUpload,
 
+        // Capa: URL versionada (muda a cada upload), cacheável como imutável; ?w= escolhe a miniatura
+        String capaUrl,
+        // BlurHash da capa, para pintar o card antes da imagem chegar (null = sem capa ou ainda gerando)
+        String capaPlaceholder,
+
         LocalDateTime dataCadastro
 ) {
     /**
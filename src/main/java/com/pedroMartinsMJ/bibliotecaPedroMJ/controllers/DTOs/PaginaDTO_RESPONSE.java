@@ -0,0 +1,13 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import java.util.List;
+
+/**
+ * DTO de resposta paginada por cursor (keyset)
+ * proximoCursor é null quando não há mais páginas
+ */
+public record PaginaDTO_RESPONSE<T>(
+        List<T> itens,
+        String proximoCursor,
+        boolean temMais
+) {}
@@ -0,0 +1,13 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs;
+
+import java.util.UUID;
+
+/**
+ * Sugestão do autocomplete
+ * tipo = LIVRO (id do livro) ou AUTOR (id do usuário autor)
+ */
+public record SugestaoDTO_RESPONSE(
+        String texto,
+        String tipo,
+        UUID id
+) {}
@@ -0,0 +1,188 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Download com suporte a Range (RFC 9110): só os bytes pedidos saem do MinIO
+ *
+ * - Sem Range (ou If-Range de outra versão): 200 com o arquivo inteiro e Accept-Ranges
+ * - Uma faixa: 206 + Content-Range; cada faixa é escrita pelo EscritorTrecho (disco local ou GetObject com offset/length)
+ * - Várias faixas: 206 multipart/byteranges (uma leitura no MinIO por faixa)
+ * - Nenhuma faixa satisfazível: 416 com o tamanho real
+ * - Range malformado ou faixas somando mais que o arquivo (sobrepostas): ignora e manda 200
+ * - If-None-Match / If-Modified-Since: 304; Content-Length sempre exato
+ */
+public final class DownloadParcial {
+
+    private DownloadParcial() {}
+
+    /**
+     * Escreve o trecho [inicio, inicio + tamanho) do arquivo na saída
+     * (quem implementa escolhe a origem: disco local ou MinIO)
+     */
+    @FunctionalInterface
+    public interface EscritorTrecho {
+        void escrever(long inicio, long tamanho, OutputStream saida) throws IOException;
+    }
+
+    private record Faixa(long inicio, long fim) {
+        long tamanho() {
+            return fim - inicio + 1;
+        }
+
+        String contentRange(long total) {
+            return "bytes " + inicio + "-" + fim + "/" + total;
+        }
+    }
+
+    /**
+     * @param ultimaModificacao epoch millis (ou -1 se desconhecida)
+     * @param cabecalhos Content-Disposition e afins, copiados em toda resposta com corpo
+     */
+    public static ResponseEntity<StreamingResponseBody> responder(WebRequest request, String etag, long ultimaModificacao,
+                                                                  long tamanho, MediaType tipo, HttpHeaders cabecalhos,
+                                                                  EscritorTrecho escritor) {
+        if (request.checkNotModified(etag, ultimaModificacao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !mesmaVersao(request.getHeader(HttpHeaders.IF_RANGE), etag, ultimaModificacao)) {
+            return inteiro(tamanho, tipo, cabecalhos, escritor);
+        }
+
+        List<HttpRange> pedidas;
+        try {
+            pedidas = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return inteiro(tamanho, tipo, cabecalhos, escritor);
+        }
+
+        // Faixas fora do arquivo são descartadas; 416 só se não sobrar nenhuma
+        List<Faixa> faixas = new ArrayList<>(pedidas.size());
+        long soma = 0;
+        for (HttpRange pedida : pedidas) {
+            try {
+                Faixa faixa = new Faixa(pedida.getRangeStart(tamanho), pedida.getRangeEnd(tamanho));
+                if (faixa.tamanho() > 0) {
+                    faixas.add(faixa);
+                    soma += faixa.tamanho();
+                }
+            } catch (IllegalArgumentException e) {
+                // início além do fim do arquivo
+            }
+        }
+
+        if (faixas.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho)
+                    .build();
+        }
+        if (soma > tamanho) {
+            return inteiro(tamanho, tipo, cabecalhos, escritor);
+        }
+
+        if (faixas.size() == 1) {
+            Faixa faixa = faixas.getFirst();
+            return parcial(cabecalhos)
+                    .contentType(tipo)
+                    .contentLength(faixa.tamanho())
+                    .header(HttpHeaders.CONTENT_RANGE, faixa.contentRange(tamanho))
+                    .body(saida -> escritor.escrever(faixa.inicio(), faixa.tamanho(), saida));
+        }
+
+        return multiplasFaixas(tamanho, tipo, cabecalhos, escritor, faixas);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> inteiro(long tamanho, MediaType tipo, HttpHeaders cabecalhos,
+                                                                 EscritorTrecho escritor) {
+        return validadores(ResponseEntity.ok(), cabecalhos)
+                .contentType(tipo)
+                .contentLength(tamanho)
+                .body(saida -> escritor.escrever(0, tamanho, saida));
+    }
+
+    /**
+     * multipart/byteranges: cabeçalho de cada parte montado antes, para o Content-Length ser exato
+     */
+    private static ResponseEntity<StreamingResponseBody> multiplasFaixas(long tamanho, MediaType tipo, HttpHeaders cabecalhos,
+                                                                         EscritorTrecho escritor, List<Faixa> faixas) {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+
+        List<byte[]> cabecalhosPartes = new ArrayList<>(faixas.size());
+        long total = 0;
+        for (Faixa faixa : faixas) {
+            byte[] cabecalho = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + tipo + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + faixa.contentRange(tamanho) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            cabecalhosPartes.add(cabecalho);
+            total += cabecalho.length + faixa.tamanho();
+        }
+        byte[] fechamento = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        total += fechamento.length;
+
+        return parcial(cabecalhos)
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .contentLength(total)
+                .body(saida -> {
+                    for (int i = 0; i < faixas.size(); i++) {
+                        saida.write(cabecalhosPartes.get(i));
+                        escritor.escrever(faixas.get(i).inicio(), faixas.get(i).tamanho(), saida);
+                    }
+                    saida.write(fechamento);
+                });
+    }
+
+    private static ResponseEntity.BodyBuilder parcial(HttpHeaders cabecalhos) {
+        return validadores(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT), cabecalhos);
+    }
+
+    /**
+     * ETag e Last-Modified já foram escritos na resposta pelo checkNotModified;
+     * repetir no ResponseEntity duplicaria os cabeçalhos no caminho de streaming
+     */
+    private static ResponseEntity.BodyBuilder validadores(ResponseEntity.BodyBuilder builder, HttpHeaders cabecalhos) {
+        return builder.headers(cabecalhos)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+    }
+
+    /**
+     * If-Range ausente, ETag forte igual ou data igual à última modificação = pode mandar só as faixas
+     * Qualquer outra coisa = o cliente tem outra versão, então recebe o arquivo inteiro
+     */
+    private static boolean mesmaVersao(String ifRange, String etag, long ultimaModificacao) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        if (ifRange.startsWith("W/") || ultimaModificacao < 0) {
+            return false;
+        }
+
+        try {
+            long data = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return data == ultimaModificacao / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -1,24 +1,64 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas.Faceta;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.CatalogoFiltradoDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.CursorLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ExclusaoDTO_CREATE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ExclusaoDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ImportacaoDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.LivroDTO_CREATE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.LivroDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.PaginaDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.SugestaoDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,7 +68,11 @@ import java.util.stream.Collectors;
 public class LivroController {
 
     private final LivroService livroService;
+    private final ImportacaoLivrosService importacaoLivrosService;
+    private final ExclusaoLivrosService exclusaoLivrosService;
     private final LivroMapper livroMapper;
+    private final JsonMapper jsonMapper;
+    private final CacheRespostasJson cacheRespostasJson;
 
     // ========================================
     // CRIAR LIVRO (com arquivo e capa opcional)
@@ -49,12 +93,80 @@ public class LivroController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    // ========================================
+    // IMPORTAÇÃO EM LOTE (manifesto CSV/JSON + ZIP)
+    // ========================================
+    @PostMapping(value = "/importacao", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportacaoDTO_RESPONSE> importarLivros(
+            @RequestParam("manifesto") MultipartFile manifesto,
+            @RequestParam("pacote") MultipartFile pacote
+    ) {
+        // Linhas com erro não impedem as outras: o resultado de cada uma vem na resposta
+        List<ImportacaoLivrosService.ResultadoLinha> resultado = importacaoLivrosService.importar(manifesto, pacote);
+
+        return ResponseEntity.ok(livroMapper.toResponse(resultado));
+    }
+
+    /**
+     * Importação com o pacote em STREAMING: o corpo é o ZIP, com manifesto.csv ou manifesto.json na raiz
+     * Fora do limite global de multipart (50MB): limite próprio em biblioteca.importacao.tamanho-maximo-pacote
+     */
+    @PostMapping(value = "/importacao", consumes = "application/zip")
+    public ResponseEntity<ImportacaoDTO_RESPONSE> importarPacote(HttpServletRequest request) throws IOException {
+        List<ImportacaoLivrosService.ResultadoLinha> resultado =
+                importacaoLivrosService.importar(request.getInputStream(), request.getContentLengthLong());
+
+        return ResponseEntity.ok(livroMapper.toResponse(resultado));
+    }
+
     // ========================================
     // LISTAR E BUSCAR
     // ========================================
     @GetMapping
-    public ResponseEntity<List<LivroDTO_RESPONSE>> listarTodos() {
-        List<LivroDTO_RESPONSE> livros = livroService.listarTodos()
+    public ResponseEntity<byte[]> listarPagina(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "24") int limit,
+            WebRequest request
+    ) {
+        CursorLivro cursor = after == null || after.isBlank() ? null : CursorLivro.decodificar(after);
+        // limit=100 e limit=5000 devolvem a mesma página: uma entrada só no cache
+        int limite = Math.clamp(limit, 1, LivroService.LIMITE_MAXIMO_PAGINA);
+
+        // Mesma geração do catálogo + mesmos parâmetros = mesma resposta
+        String chave = "catalogo-" + livroService.geracaoCatalogo() + "-" + limite + "-" +
+                (cursor != null ? cursor.codificar() : "inicio");
+
+        return respostaJson(chave, request, () -> montarPagina(cursor, limite));
+    }
+
+    private PaginaDTO_RESPONSE<LivroDTO_RESPONSE> montarPagina(CursorLivro cursor, int limit) {
+        Slice<LivroResumo> pagina = livroService.listarPagina(
+                cursor != null ? cursor.dataCadastro() : null,
+                cursor != null ? cursor.id() : null,
+                limit
+        );
+
+        List<LivroDTO_RESPONSE> livros = pagina.getContent()
+                .stream()
+                .map(livroMapper::toResponse)
+                .collect(Collectors.toList());
+
+        // Próximo cursor = posição do último livro entregue
+        String proximoCursor = null;
+        if (pagina.hasNext()) {
+            LivroResumo ultimo = pagina.getContent().getLast();
+            proximoCursor = new CursorLivro(ultimo.dataCadastro(), ultimo.id()).codificar();
+        }
+
+        return new PaginaDTO_RESPONSE<>(livros, proximoCursor, pagina.hasNext());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<LivroDTO_RESPONSE>> buscarPorTexto(
+            @RequestParam("q") String q,
+            @RequestParam(name = "limit", defaultValue = "24") int limit
+    ) {
+        List<LivroDTO_RESPONSE> livros = livroService.buscarPorTexto(q, limit)
                 .stream()
                 .map(livroMapper::toResponse)
                 .collect(Collectors.toList());
@@ -62,10 +174,78 @@ public class LivroController {
         return ResponseEntity.ok(livros);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SugestaoDTO_RESPONSE>> sugerir(
+            @RequestParam("q") String q,
+            @RequestParam(name = "limit", defaultValue = "8") int limit
+    ) {
+        List<SugestaoDTO_RESPONSE> sugestoes = livroService.sugerir(q, limit)
+                .stream()
+                .map(s -> new SugestaoDTO_RESPONSE(s.texto(), s.tipo().name(), s.id()))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(sugestoes);
+    }
+
+    @GetMapping("/facetas")
+    public ResponseEntity<CatalogoFiltradoDTO_RESPONSE> filtrarPorFacetas(
+            @RequestParam(name = "idioma", required = false) List<String> idioma,
+            @RequestParam(name = "tipoArquivo", required = false) List<String> tipoArquivo,
+            @RequestParam(name = "editora", required = false) List<String> editora,
+            @RequestParam(name = "ano", required = false) List<String> ano,
+            @RequestParam(name = "offset", defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "24") int limit
+    ) {
+        // Vários valores na mesma faceta = OU (?idioma=pt&idioma=en)
+        Map<Faceta, Set<String>> filtros = new EnumMap<>(Faceta.class);
+        filtros.put(Faceta.IDIOMA, valores(idioma));
+        filtros.put(Faceta.TIPO_ARQUIVO, valores(tipoArquivo));
+        filtros.put(Faceta.EDITORA, valores(editora));
+        filtros.put(Faceta.ANO, valores(ano));
+
+        LivroService.CatalogoFiltrado resultado = livroService.filtrarCatalogo(filtros, offset, limit);
+
+        List<LivroDTO_RESPONSE> livros = resultado.livros()
+                .stream()
+                .map(livroMapper::toResponse)
+                .collect(Collectors.toList());
+
+        Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+        resultado.contagens().forEach((faceta, contagem) -> facetas.put(faceta.getParametro(), contagem));
+
+        return ResponseEntity.ok(new CatalogoFiltradoDTO_RESPONSE(livros, resultado.total(), facetas));
+    }
+
+    // ========================================
+    // EXPORTAÇÃO DO CATÁLOGO (NDJSON, streaming)
+    // ========================================
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportarCatalogo() {
+        // Cada livro vira uma linha JSON escrita direto na resposta, sem montar lista em memória
+        StreamingResponseBody corpo = saida -> livroService.exportarCatalogo(resumo -> {
+            try {
+                saida.write(jsonMapper.writeValueAsBytes(livroMapper.toResponse(resumo)));
+                saida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalogo.ndjson\"")
+                .body(corpo);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<LivroDTO_RESPONSE> buscarPorId(@PathVariable UUID id) {
-        Livro livro = livroService.buscarPorId(id);
-        return ResponseEntity.ok(livroMapper.toResponse(livro));
+    public ResponseEntity<byte[]> buscarPorId(@PathVariable UUID id, WebRequest request) {
+        LivroDetalhe livro = livroService.buscarPorId(id);
+
+        // Versão do livro (@Version) muda a cada UPDATE; "-m" = miniaturas/placeholder da capa já registrados
+        // (gravados em segundo plano sem tocar na versão)
+        String miniaturas = MiniaturasCapaService.concluidas(livro.capaMiniaturas()) ? "-m" : "";
+        return respostaJson("livro-" + livro.id() + "-v" + livro.versao() + miniaturas, request,
+                () -> livroMapper.toResponse(livro));
     }
 
     @GetMapping("/autor/{autorId}")
@@ -81,20 +261,47 @@ public class LivroController {
     // ========================================
     // DOWNLOAD DO ARQUIVO (PDF/EPUB)
     // ========================================
+    /**
+     * Aceita Range/If-Range (DownloadParcial): o leitor de PDF busca só as páginas que vai mostrar
+     * ETag/Last-Modified vêm do upload do arquivo (não mudam com edição de metadados)
+     */
     @GetMapping("/{id}/download")
-    public ResponseEntity<InputStreamResource> downloadArquivo(
+    public ResponseEntity<StreamingResponseBody> downloadArquivo(
             @PathVariable UUID id,
-            @RequestParam(name = "inline", defaultValue = "false") boolean inline
+            @RequestParam(name = "inline", defaultValue = "false") boolean inline,
+            WebRequest request
     ) {
-        Livro livro = livroService.buscarPorId(id);
-        InputStream inputStream = livroService.downloadArquivo(id);
+        LivroDetalhe livro = livroService.buscarPorId(id);
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(livro.getTipoArquivo().getContentType()))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        (inline ? "inline" : "attachment") + "; filename=\"" + livro.getTitulo() + "." +
-                                livro.getTipoArquivo().name().toLowerCase() + "\"")
-                .body(new InputStreamResource(inputStream));
+        if (!livro.temArquivo()) {
+            throw new RuntimeException("Livro não possui arquivo disponível");
+        }
+
+        MediaType tipo = MediaType.parseMediaType(livro.tipoArquivo().getContentType());
+        HttpHeaders cabecalhos = new HttpHeaders();
+        cabecalhos.set(HttpHeaders.CONTENT_DISPOSITION,
+                (inline ? "inline" : "attachment") + "; filename=\"" + livro.titulo() + "." +
+                        livro.tipoArquivo().name().toLowerCase() + "\"");
+
+        // Livros antigos sem tamanho gravado: arquivo inteiro, sem Range
+        if (livro.tamanhoBytes() == null) {
+            InputStream inputStream = livroService.downloadArquivo(id);
+            return ResponseEntity.ok()
+                    .headers(cabecalhos)
+                    .contentType(tipo)
+                    .body(saida -> {
+                        try (inputStream) {
+                            inputStream.transferTo(saida);
+                        }
+                    });
+        }
+
+        long ultimaModificacao = livro.dataUpload() == null ? -1
+                : livro.dataUpload().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String etag = "\"arq-" + Long.toHexString(ultimaModificacao) + "-" + Long.toHexString(livro.tamanhoBytes()) + "\"";
+
+        return DownloadParcial.responder(request, etag, ultimaModificacao, livro.tamanhoBytes(), tipo, cabecalhos,
+                (inicio, tamanho, saida) -> livroService.copiarArquivo(id, inicio, tamanho, saida));
     }
 
     @GetMapping("/{id}/link")
@@ -106,30 +313,115 @@ public class LivroController {
     // ========================================
     // DOWNLOAD DA CAPA (IMAGEM)
     // ========================================
+    /**
+     * w = largura em que a capa vai ser exibida: serve a menor miniatura que cobre (ou a original)
+     * v = versão da capa (capaUrl do DTO): se for a atual e a resposta for definitiva, é imutável por 1 ano;
+     * sem v (ou versão antiga) continua 24h. Miniatura ainda não gerada: no-cache (a original sai agora,
+     * e a ETag muda quando a miniatura ficar pronta)
+     */
     @GetMapping("/{id}/capa")
     public ResponseEntity<InputStreamResource> downloadCapa(
             @PathVariable UUID id,
-            @RequestParam(name = "inline", defaultValue = "true") boolean inline
+            @RequestParam(name = "inline", defaultValue = "true") boolean inline,
+            @RequestParam(name = "w", required = false) @Min(1) @Max(4096) Integer largura,
+            @RequestParam(name = "v", required = false) String versao,
+            WebRequest request
     ) {
-        Livro livro = livroService.buscarPorId(id);
+        LivroDetalhe livro = livroService.buscarPorId(id);
 
         if (!livro.temCapa()) {
             return ResponseEntity.notFound().build();
         }
 
-        InputStream inputStream = livroService.downloadCapa(id);
+        Integer miniatura = MiniaturasCapaService.escolher(livro.capaMiniaturas(), largura);
+        String etag = "\"capa-" + livro.capaVersao() + "-" + (miniatura == null ? "o" : "w" + miniatura) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        LivroService.CapaServida capa = livroService.downloadCapa(id, largura);
+        CacheControl cacheControl;
+        if (!capa.definitiva()) {
+            // Miniatura falhou e saiu a original: nem guarda (a ETag enviada é a da miniatura)
+            cacheControl = miniatura != null ? CacheControl.noStore() : CacheControl.noCache();
+        } else if (livro.capaVersao().equals(versao)) {
+            cacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+        } else {
+            cacheControl = CacheControl.maxAge(Duration.ofDays(1)); // Cache de 24h
+        }
 
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(livro.getCapaContentType()))
+                .contentType(MediaType.parseMediaType(capa.contentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION,
-                        (inline ? "inline" : "attachment") + "; filename=\"capa_" + livro.getTitulo() + ".jpg\"")
-                .header(HttpHeaders.CACHE_CONTROL, "max-age=86400") // Cache de 24h
-                .body(new InputStreamResource(inputStream));
+                        (inline ? "inline" : "attachment") + "; filename=\"capa_" + livro.titulo() + ".jpg\"")
+                .cacheControl(cacheControl)
+                .body(new InputStreamResource(capa.conteudo()));
+    }
+
+    /**
+     * LOTE DE CAPAS: as capas de vários livros (ex.: uma página do catálogo) numa resposta multipart/mixed,
+     * em vez de uma requisição por card. Metadados em uma query; capas abertas em paralelo e cada parte
+     * escrita assim que fica pronta (a ordem das partes não é a dos ids)
+     *
+     * Cada parte traz X-Livro-Id e Content-Location (URL versionada da mesma capa, para o cache individual)
+     * Livros inexistentes ou sem capa ficam de fora
+     */
+    @GetMapping("/capas")
+    public ResponseEntity<StreamingResponseBody> downloadCapas(
+            @RequestParam(name = "ids") List<UUID> ids,
+            @RequestParam(name = "w", defaultValue = "320") @Min(1) @Max(4096) Integer largura,
+            WebRequest request
+    ) {
+        List<CapaLivro> capas = livroService.buscarCapas(new LinkedHashSet<>(ids));
+
+        // Mesmas capas nas mesmas versões e larguras = mesmo conteúdo (fraca: ordem e boundary mudam)
+        String versoes = capas.stream()
+                .sorted(Comparator.comparing(CapaLivro::id))
+                .map(capa -> capa.id() + ":" + capa.capaVersao() + ":" + MiniaturasCapaService.escolher(capa.capaMiniaturas(), largura))
+                .collect(Collectors.joining(","));
+        String etag = "W/\"capas-" + DigestUtils.md5DigestAsHex(versoes.getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        StreamingResponseBody corpo = saida -> {
+            livroService.lerCapas(capas, largura, capa -> escreverParte(saida, boundary, capa));
+            saida.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        };
+
+        // Alguma capa ainda sem miniaturas geradas: o lote muda em breve, então revalida (o ETag segura o 304)
+        boolean definitivo = capas.stream().allMatch(capa -> MiniaturasCapaService.concluidas(capa.capaMiniaturas()));
+        CacheControl cacheControl = definitivo ? CacheControl.maxAge(Duration.ofDays(1)) : CacheControl.noCache();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("multipart/mixed; boundary=" + boundary))
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(corpo);
+    }
+
+    private static void escreverParte(OutputStream saida, String boundary, LivroService.CapaDoLote capa) {
+        UUID id = capa.livro().id();
+        Integer largura = capa.capa().largura();
+        String url = "/api/livros/" + id + "/capa?v=" + capa.livro().capaVersao() + (largura != null ? "&w=" + largura : "");
+
+        String cabecalho = "--" + boundary + "\r\n" +
+                "Content-Type: " + capa.capa().contentType() + "\r\n" +
+                "Content-Location: " + url + "\r\n" +
+                "X-Livro-Id: " + id + "\r\n\r\n";
+        try {
+            saida.write(cabecalho.getBytes(StandardCharsets.US_ASCII));
+            capa.capa().conteudo().transferTo(saida);
+            saida.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @GetMapping("/{id}/capa/url")
     public ResponseEntity<String> gerarUrlCapa(@PathVariable UUID id) {
-        Livro livro = livroService.buscarPorId(id);
+        LivroDetalhe livro = livroService.buscarPorId(id);
 
         if (!livro.temCapa()) {
             return ResponseEntity.notFound().build();
@@ -149,7 +441,7 @@ public class LivroController {
             @RequestParam("capa") MultipartFile capa
     ) {
         livroService.atualizarCapa(id, capa);
-        Livro livroAtualizado = livroService.buscarPorId(id);
+        LivroDetalhe livroAtualizado = livroService.buscarPorId(id);
         return ResponseEntity.ok(livroMapper.toResponse(livroAtualizado));
     }
 
@@ -169,7 +461,23 @@ public class LivroController {
             @RequestParam("arquivo") MultipartFile arquivo
     ) {
         livroService.atualizarArquivo(id, arquivo);
-        Livro livroAtualizado = livroService.buscarPorId(id);
+        LivroDetalhe livroAtualizado = livroService.buscarPorId(id);
+        return ResponseEntity.ok(livroMapper.toResponse(livroAtualizado));
+    }
+
+    /**
+     * Upload do arquivo em STREAMING: o corpo da requisição são os bytes do PDF/EPUB (sem multipart)
+     * Vai direto para o MinIO em partes, sem o Spring guardar o arquivo inteiro em memória ou disco
+     */
+    @PutMapping(value = "/{id}/arquivo/stream", consumes = {"application/pdf", "application/epub+zip"})
+    public ResponseEntity<LivroDTO_RESPONSE> atualizarArquivoStreaming(
+            @PathVariable UUID id,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            HttpServletRequest request
+    ) throws IOException {
+        livroService.atualizarArquivoStreaming(id, request.getInputStream(),
+                contentType.getType() + "/" + contentType.getSubtype(), request.getContentLengthLong());
+        LivroDetalhe livroAtualizado = livroService.buscarPorId(id);
         return ResponseEntity.ok(livroMapper.toResponse(livroAtualizado));
     }
 
@@ -178,4 +486,101 @@ public class LivroController {
         livroService.deletarLivro(id);
         return ResponseEntity.noContent().build();
     }
+
+    // ========================================
+    // EXCLUSÃO EM LOTE (job em segundo plano)
+    // ========================================
+    @PostMapping("/exclusoes")
+    public ResponseEntity<ExclusaoDTO_RESPONSE> excluirEmLote(@Valid @RequestBody ExclusaoDTO_CREATE dto,
+                                                             Authentication authentication) {
+        // ADMIN exclui de qualquer autor; os demais, só os próprios livros (403 caso contrário)
+        ExclusaoLivrosService.Progresso progresso = dto.autorId() != null
+                ? exclusaoLivrosService.excluirPorAutor(dto.autorId(), authentication)
+                : exclusaoLivrosService.excluirPorIds(dto.ids(), authentication);
+
+        // 202 + Location: o cliente acompanha o andamento em GET /exclusoes/{id}
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/livros/exclusoes/" + progresso.id()))
+                .body(livroMapper.toResponse(progresso));
+    }
+
+    @GetMapping("/exclusoes/{jobId}")
+    public ResponseEntity<ExclusaoDTO_RESPONSE> progressoExclusao(@PathVariable UUID jobId) {
+        return exclusaoLivrosService.progresso(jobId)
+                .map(livroMapper::toResponse)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static Set<String> valores(List<String> parametros) {
+        Set<String> valores = new LinkedHashSet<>();
+        if (parametros != null) {
+            parametros.stream()
+                    .filter(v -> v != null && !v.isBlank())
+                    .map(String::trim)
+                    .forEach(valores::add);
+        }
+        return valores;
+    }
+
+    /**
+     * Resposta JSON condicional e pré-serializada
+     * - If-None-Match igual à ETag: 304 sem montar nada
+     * - Senão: bytes do cache (serializa só na primeira vez), gzip se o cliente aceitar
+     * A ETag é forte e diferente para cada codificação (identity/gzip), como pede o HTTP
+     */
+    private ResponseEntity<byte[]> respostaJson(String chave, WebRequest request, Supplier<Object> montar) {
+        boolean gzip = aceitaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        String etag = "\"" + chave + (gzip ? "-gz" : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        CacheRespostasJson.RespostaJson resposta = cacheRespostasJson.obter(chave,
+                () -> jsonMapper.writeValueAsBytes(montar.get()));
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? resposta.gzip() : resposta.json());
+    }
+
+    /**
+     * Accept-Encoding com q-values: "gzip;q=0" recusa gzip; sem "gzip" listado vale o "*"
+     * q malformado conta como 0 (na dúvida, manda sem compressão)
+     */
+    private static boolean aceitaGzip(String aceita) {
+        if (aceita == null || aceita.isBlank()) return false;
+
+        double gzip = -1, curinga = -1;
+        for (String item : aceita.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim().toLowerCase(Locale.ROOT);
+            if (!codificacao.equals("gzip") && !codificacao.equals("x-gzip") && !codificacao.equals("*")) continue;
+
+            double q = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+
+            if (codificacao.equals("*")) curinga = Math.max(curinga, q);
+            else gzip = Math.max(gzip, q);
+        }
+        return (gzip >= 0 ? gzip : curinga) > 0;
+    }
 }
\ No newline at end of file
@@ -1,13 +1,18 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.CursorUsuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.PaginaDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.UsuarioDTO_CREATE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.UsuarioDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.UsuarioMapper;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
-import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.services.UsuarioService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -17,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -24,8 +30,8 @@ import java.util.UUID;
 @AllArgsConstructor
 public class UsuarioController {
 
-    private final UsuarioRepository usuarioRepository;
     private final UsuarioService usuarioService;
+    private final LivroService livroService;
     private final UsuarioMapper usuarioMapper;
 
     // ==================== ENDPOINTS WEB (para páginas HTML) ====================
@@ -73,16 +79,38 @@ public class UsuarioController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    /**
+     * Listagem administrativa paginada: 2 queries por página (usuários + livros de todos eles)
+     */
     @GetMapping("/usuario/tudo")
     @ResponseBody
-    public ResponseEntity<List<UsuarioDTO_RESPONSE>> listartudo (){
-        List<UsuarioDTO_RESPONSE> listaDeUsusariosDTOs = usuarioRepository
-                .findAll()
+    public ResponseEntity<PaginaDTO_RESPONSE<UsuarioDTO_RESPONSE>> listartudo(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "50") int limit
+    ){
+        CursorUsuario cursor = after == null || after.isBlank() ? null : CursorUsuario.decodificar(after);
+
+        Slice<UsuarioResumo> pagina = usuarioService.listarPagina(
+                cursor != null ? cursor.dataCadastro() : null,
+                cursor != null ? cursor.id() : null,
+                limit
+        );
+
+        Map<UUID, List<LivroResumo>> livrosPorAutor = livroService.buscarPorAutores(
+                pagina.getContent().stream().map(UsuarioResumo::id).toList());
+
+        List<UsuarioDTO_RESPONSE> listaDeUsusariosDTOs = pagina.getContent()
                 .stream()
-                .map(usuarioMapper::toResponse)
+                .map(u -> usuarioMapper.toResponse(u, livrosPorAutor.getOrDefault(u.id(), List.of())))
                 .toList();
 
-        return ResponseEntity.ok(listaDeUsusariosDTOs);
+        String proximoCursor = null;
+        if (pagina.hasNext()) {
+            UsuarioResumo ultimo = pagina.getContent().getLast();
+            proximoCursor = new CursorUsuario(ultimo.dataCadastro(), ultimo.id()).codificar();
+        }
+
+        return ResponseEntity.ok(new PaginaDTO_RESPONSE<>(listaDeUsusariosDTOs, proximoCursor, pagina.hasNext()));
     }
 
     @DeleteMapping("/usuario/delete/{id}")
@@ -1,14 +1,24 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ExclusaoDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ImportacaoDTO_RESPONSE;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.ImportacaoDTO_RESPONSE.LinhaDTO;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.LivroDTO_CREATE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.LivroDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.LivroDTO_RESPONSE.AutorDTO;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.services.UsuarioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.UUID;
+
 @Component
 @RequiredArgsConstructor
 public class LivroMapper {
@@ -72,7 +82,119 @@ public class LivroMapper {
                 livro.getTamanhoFormatado(),
                 livro.temArquivo(),
                 livro.getDataUpload(),
+                urlCapa(livro.getId(), Livro.versaoCapa(livro.getCapaDataUpload())),
+                livro.getCapaPlaceholder(),
                 livro.getDataCadastro()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Converte a projeção das listagens para DTO de resposta
+     * Mesmo formato de toResponse(Livro), sem tocar em entidade gerenciada
+     */
+    public LivroDTO_RESPONSE toResponse(LivroResumo resumo) {
+        AutorDTO autorDTO = new AutorDTO(
+                resumo.autorId(),
+                resumo.autorNome(),
+                resumo.autorUsername(),
+                resumo.autorEmail()
+        );
+
+        return new LivroDTO_RESPONSE(
+                resumo.id(),
+                resumo.titulo(),
+                resumo.descricao(),
+                resumo.isbn(),
+                resumo.editora(),
+                resumo.dataPublicacao(),
+                resumo.numeroPaginas(),
+                resumo.idioma(),
+                autorDTO,
+                resumo.tipoArquivo(),
+                resumo.tamanhoBytes(),
+                Livro.formatarTamanho(resumo.tamanhoBytes()),
+                resumo.temArquivo(),
+                resumo.dataUpload(),
+                urlCapa(resumo.id(), resumo.capaVersao()),
+                resumo.capaPlaceholder(),
+                resumo.dataCadastro()
+        );
+    }
+
+    /**
+     * Converte o snapshot do cache de leitura para DTO de resposta
+     */
+    public LivroDTO_RESPONSE toResponse(LivroDetalhe detalhe) {
+        AutorDTO autorDTO = new AutorDTO(
+                detalhe.autorId(),
+                detalhe.autorNome(),
+                detalhe.autorUsername(),
+                detalhe.autorEmail()
+        );
+
+        return new LivroDTO_RESPONSE(
+                detalhe.id(),
+                detalhe.titulo(),
+                detalhe.descricao(),
+                detalhe.isbn(),
+                detalhe.editora(),
+                detalhe.dataPublicacao(),
+                detalhe.numeroPaginas(),
+                detalhe.idioma(),
+                autorDTO,
+                detalhe.tipoArquivo(),
+                detalhe.tamanhoBytes(),
+                Livro.formatarTamanho(detalhe.tamanhoBytes()),
+                detalhe.temArquivo(),
+                detalhe.dataUpload(),
+                urlCapa(detalhe.id(), detalhe.capaVersao()),
+                detalhe.capaPlaceholder(),
+                detalhe.dataCadastro()
+        );
+    }
+
+    /**
+     * URL da capa com a versão do upload (null = livro sem capa)
+     */
+    private static String urlCapa(UUID id, String versaoCapa) {
+        return versaoCapa == null ? null : "/api/livros/" + id + "/capa?v=" + versaoCapa;
+    }
+
+    /**
+     * Converte o resultado da importação em lote (uma entrada por linha do manifesto)
+     */
+    public ImportacaoDTO_RESPONSE toResponse(List<ImportacaoLivrosService.ResultadoLinha> resultado) {
+        List<LinhaDTO> linhas = resultado.stream()
+                .map(linha -> new LinhaDTO(
+                        linha.linha(),
+                        linha.titulo(),
+                        linha.isbn(),
+                        linha.importado() ? "IMPORTADO" : "ERRO",
+                        linha.livroId(),
+                        linha.erro()
+                ))
+                .toList();
+
+        int importados = (int) resultado.stream().filter(ImportacaoLivrosService.ResultadoLinha::importado).count();
+
+        return new ImportacaoDTO_RESPONSE(linhas.size(), importados, linhas.size() - importados, linhas);
+    }
+
+    /**
+     * Converte o andamento de um job de exclusão em lote
+     */
+    public ExclusaoDTO_RESPONSE toResponse(ExclusaoLivrosService.Progresso progresso) {
+        return new ExclusaoDTO_RESPONSE(
+                progresso.id(),
+                progresso.status().name(),
+                progresso.total(),
+                progresso.processados(),
+                progresso.removidos(),
+                progresso.falhas(),
+                progresso.objetosOrfaos(),
+                progresso.inicio(),
+                progresso.fim(),
+                progresso.erro()
+        );
+    }
+}
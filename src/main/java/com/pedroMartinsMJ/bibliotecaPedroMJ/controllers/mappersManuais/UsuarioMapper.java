@@ -3,9 +3,13 @@ package com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.UsuarioDTO_CREATE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.UsuarioDTO_RESPONSE;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class UsuarioMapper {
 
@@ -46,4 +50,25 @@ public class UsuarioMapper {
                 usuario.isAtivo()
         );
     }
+
+    /**
+     * Converte a projeção da listagem + livros já carregados em lote para DTO de resposta
+     */
+    public UsuarioDTO_RESPONSE toResponse(UsuarioResumo usuario, List<LivroResumo> livros) {
+        return new UsuarioDTO_RESPONSE(
+                usuario.id(),
+                usuario.username(),
+                usuario.nome(),
+                usuario.email(),
+                usuario.cpf(),
+                usuario.telefone(),
+
+                livros.stream()
+                        .map(livroMapper::toResponse)
+                        .toList(),
+
+                usuario.dataCadastro(),
+                Boolean.TRUE.equals(usuario.ativo())
+        );
+    }
 }
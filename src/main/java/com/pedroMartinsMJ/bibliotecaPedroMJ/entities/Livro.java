@@ -6,20 +6,41 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "livros")
+@Table(name = "livros", indexes = {
+        // Ordenação do catálogo paginado por cursor (dataCadastro, id)
+        @Index(name = "idx_livros_cadastro_id", columnList = "data_cadastro DESC, id DESC"),
+        // Listagem por autor (projeção com JOIN)
+        @Index(name = "idx_livros_autor", columnList = "autor_id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "livros")
+// UPDATE só das colunas alteradas: uma edição carregada antes do registro das miniaturas (feito em segundo
+// plano sem @Version) não sobrescreve capaMiniaturas/capaPlaceholder com null
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Livro {
 
+    /**
+     * Formato aceito de ISBN (10 ou 13 dígitos, com ou sem hífens/prefixo), usado no cadastro e na importação
+     */
+    public static final String REGEX_ISBN =
+            "^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -75,6 +96,15 @@ public class Livro {
     @Column(name = "capa_data_upload")
     private LocalDateTime capaDataUpload;
 
+    // Larguras das miniaturas JPEG geradas para esta versão da capa ("160,320,640"); "" = geração terminou
+    // sem miniaturas; null = ainda não gerou (só a original, sem cache imutável para ?w=)
+    @Column(name = "capa_miniaturas", length = 50)
+    private String capaMiniaturas;
+
+    // BlurHash da capa (~30 caracteres): pintado pelo cliente enquanto a imagem real carrega
+    @Column(name = "capa_placeholder", length = 100)
+    private String capaPlaceholder;
+
     // ====== RELACIONAMENTO COM BIBLIOTECA PESSOAL ======
     @OneToMany(mappedBy = "livro", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
@@ -83,9 +113,16 @@ public class Livro {
     @Column(name = "data_cadastro")
     private LocalDateTime dataCadastro;
 
+    // Incrementada pelo Hibernate a cada UPDATE: base da ETag do livro (e lock otimista)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long versao;
+
     @PrePersist
     protected void onCreate() {
-        dataCadastro = LocalDateTime.now();
+        // Precisão do banco (micros): o cursor da paginação compara exatamente este valor
+        dataCadastro = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // ====== MÉTODOS AUXILIARES ======
@@ -108,24 +145,32 @@ public class Livro {
      * Retorna tamanho do arquivo formatado (MB/KB)
      */
     public String getTamanhoFormatado() {
-        if (tamanhoBytes == null) return "N/A";
-
-        double kb = tamanhoBytes / 1024.0;
-        double mb = kb / 1024.0;
-
-        if (mb >= 1) {
-            return String.format("%.2f MB", mb);
-        }
-        return String.format("%.2f KB", kb);
+        return formatarTamanho(tamanhoBytes);
     }
 
     /**
      * Retorna tamanho da capa formatado (MB/KB)
      */
     public String getCapaTamanhoFormatado() {
-        if (capaTamanhoBytes == null) return "N/A";
+        return formatarTamanho(capaTamanhoBytes);
+    }
+
+    /**
+     * Versão da capa (hex da data do upload): entra nas URLs imutáveis e nas chaves das miniaturas
+     * Null quando o livro não tem capa
+     */
+    public static String versaoCapa(LocalDateTime capaDataUpload) {
+        if (capaDataUpload == null) return null;
+        return Long.toHexString(capaDataUpload.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * Formata bytes em MB/KB (usado também pelas projeções de listagem)
+     */
+    public static String formatarTamanho(Long bytes) {
+        if (bytes == null) return "N/A";
 
-        double kb = capaTamanhoBytes / 1024.0;
+        double kb = bytes / 1024.0;
         double mb = kb / 1024.0;
 
         if (mb >= 1) {
@@ -5,14 +5,25 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", indexes = {
+        // Listagem administrativa paginada por cursor (dataCadastro, id)
+        @Index(name = "idx_usuarios_cadastro_id", columnList = "data_cadastro DESC, id DESC"),
+        // Sondagem de unicidade do cadastro (username e email já têm índice pela constraint unique)
+        @Index(name = "idx_usuarios_nome", columnList = "nome"),
+        @Index(name = "idx_usuarios_cpf", columnList = "cpf"),
+        @Index(name = "idx_usuarios_telefone", columnList = "telefone")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 @Getter
 @Setter
 public class Usuario {
@@ -54,7 +65,9 @@ public class Usuario {
     @JsonManagedReference
     private Set<Livro> livros = new HashSet<>();
 
+    // Roles carregadas em todo login: coleção também fica no cache de segundo nível
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios-roles")
     @JoinTable(
             name = "usuario_roles",
             joinColumns = @JoinColumn(name = "usuario_id"),
@@ -104,7 +117,8 @@ public class Usuario {
 
     @PrePersist
     protected void onCreate() {
-        dataCadastro = LocalDateTime.now();
+        // Precisão do banco (micros): o cursor da listagem compara exatamente este valor
+        dataCadastro = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         if (ativo == null) {
             ativo = true;
         }
@@ -1,9 +1,32 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.BibliotecaPessoal;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.PopularidadeLivro;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface BibliotecaPessoalRepository extends JpaRepository<BibliotecaPessoal, UUID> {
+
+    /**
+     * Número de bibliotecas pessoais por livro (só livros que aparecem em alguma)
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.PopularidadeLivro(b.livro.id, COUNT(b))
+            FROM BibliotecaPessoal b
+            GROUP BY b.livro.id
+            """)
+    List<PopularidadeLivro> contarLeitoresPorLivro();
+
+    /**
+     * Tira um lote de livros de todas as bibliotecas pessoais (exclusão em lote de livros)
+     */
+    @Modifying
+    @Query("DELETE FROM BibliotecaPessoal b WHERE b.livro.id IN :livroIds")
+    int deletarPorLivros(@Param("livroIds") Collection<UUID> livroIds);
 }
@@ -1,33 +1,248 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface LivroRepository extends JpaRepository<Livro, UUID> {
 
+    /**
+     * Colunas da projeção LivroResumo (livro + autor em um único JOIN)
+     */
+    String SELECT_RESUMO = """
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo(
+                l.id, l.titulo, l.descricao, l.isbn, l.editora, l.dataPublicacao, l.numeroPaginas, l.idioma,
+                a.id, a.nome, a.username, a.email,
+                l.arquivoKey, l.tipoArquivo, l.tamanhoBytes, l.dataUpload,
+                l.capaKey, l.capaDataUpload, l.capaPlaceholder,
+                l.dataCadastro)
+            FROM Livro l JOIN l.autor a
+            """;
+
+    /**
+     * Primeira página do catálogo (mais recentes primeiro) como projeção
+     */
+    @Query(SELECT_RESUMO + """
+            ORDER BY l.dataCadastro DESC, l.id DESC
+            """)
+    Slice<LivroResumo> buscarPrimeiraPagina(Pageable pageable);
+
+    /**
+     * Próxima página do catálogo por seek (keyset): continua depois de (dataCadastro, id)
+     * Usa o índice de ordenação em vez de OFFSET, custo constante por página
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE l.dataCadastro < :dataCadastro
+               OR (l.dataCadastro = :dataCadastro AND l.id < :id)
+            ORDER BY l.dataCadastro DESC, l.id DESC
+            """)
+    Slice<LivroResumo> buscarPaginaApos(@Param("dataCadastro") LocalDateTime dataCadastro,
+                                        @Param("id") UUID id,
+                                        Pageable pageable);
+
+    /**
+     * Livros de um autor como projeção (uma query, sem N+1)
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE a.id = :autorId
+            ORDER BY l.dataCadastro DESC, l.id DESC
+            """)
+    List<LivroResumo> buscarResumoPorAutor(@Param("autorId") UUID autorId);
+
+    /**
+     * Livros de vários autores (uma página de usuários) em uma query, agrupáveis por autorId
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE a.id IN :autorIds
+            ORDER BY a.id, l.dataCadastro DESC, l.id DESC
+            """)
+    List<LivroResumo> buscarResumosPorAutores(@Param("autorIds") Collection<UUID> autorIds);
+
+    /**
+     * Projeções de um conjunto de livros (resultado da busca), em uma query
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE l.id IN :ids
+            """)
+    List<LivroResumo> buscarResumosPorIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Dados de capa de um conjunto de livros (lote de capas), em uma query; sem capa ficam de fora
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro(
+                l.id, l.capaKey, l.capaContentType, l.capaDataUpload, l.capaMiniaturas)
+            FROM Livro l
+            WHERE l.id IN :ids AND l.capaKey IS NOT NULL
+            """)
+    List<CapaLivro> buscarCapasPorIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Snapshot de um livro (livro + autor + capa) para o cache de leitura por id
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe(
+                l.id, l.titulo, l.descricao, l.isbn, l.editora, l.dataPublicacao, l.numeroPaginas, l.idioma,
+                a.id, a.nome, a.username, a.email,
+                l.arquivoKey, l.tipoArquivo, l.tamanhoBytes, l.dataUpload,
+                l.capaKey, l.capaContentType, l.capaTamanhoBytes, l.capaDataUpload, l.capaMiniaturas, l.capaPlaceholder,
+                l.dataCadastro, l.versao)
+            FROM Livro l JOIN l.autor a
+            WHERE l.id = :id
+            """)
+    Optional<LivroDetalhe> buscarDetalhePorId(@Param("id") UUID id);
+
+    /**
+     * Catálogo inteiro como Stream de projeções, lido do cursor JDBC em lotes (fetch size)
+     * Deve ser consumido dentro de transação e fechado ao final (try-with-resources)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMO + """
+            ORDER BY l.dataCadastro DESC, l.id DESC
+            """)
+    Stream<LivroResumo> streamCatalogo();
+
+    /**
+     * Catálogo inteiro do mais antigo para o mais novo (mesma leitura em lotes do streamCatalogo)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMO + """
+            ORDER BY l.dataCadastro ASC, l.id ASC
+            """)
+    Stream<LivroResumo> streamCatalogoPorCadastro();
+
     /**
      * Busca livros por autor
      */
     List<Livro> findByAutorId(UUID autorId);
 
+    /**
+     * Quantidade de livros do autor (total do job de exclusão em lote)
+     */
+    long countByAutorId(UUID autorId);
+
+    /**
+     * Algum dos livros da lista é de outro autor? (permissão da exclusão em lote)
+     */
+    boolean existsByIdInAndAutorIdNot(Collection<UUID> ids, UUID autorId);
+
     /**
      * Busca livros por título (case insensitive)
      */
     @Query("SELECT l FROM Livro l WHERE LOWER(l.titulo) LIKE LOWER(CONCAT('%', :titulo, '%'))")
     List<Livro> buscarPorTitulo(@Param("titulo") String titulo);
 
+    /**
+     * Próximo lote de livros de um autor para exclusão em lote, por seek no id
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro(
+                l.id, l.isbn, l.arquivoKey, l.capaKey, l.capaDataUpload, l.capaMiniaturas)
+            FROM Livro l
+            WHERE l.autor.id = :autorId AND l.id > :aposId
+            ORDER BY l.id
+            """)
+    List<ChavesLivro> buscarChavesPorAutor(@Param("autorId") UUID autorId,
+                                           @Param("aposId") UUID aposId,
+                                           Pageable pageable);
+
+    /**
+     * Chaves de um lote de livros por id (ids inexistentes são ignorados)
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro(
+                l.id, l.isbn, l.arquivoKey, l.capaKey, l.capaDataUpload, l.capaMiniaturas)
+            FROM Livro l
+            WHERE l.id IN :ids
+            """)
+    List<ChavesLivro> buscarChavesPorIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Exclusão em lote, um DELETE para o conjunto (dependentes antes: deletarArquivosExtras
+     * e BibliotecaPessoalRepository.deletarPorLivros)
+     */
+    @Modifying
+    @Query("DELETE FROM Livro l WHERE l.id IN :ids")
+    int deletarPorIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Registra as miniaturas e o placeholder gerados, só se a capa ainda for a mesma versão
+     * (não trocou nem saiu no meio) e ainda não tiver sido registrada
+     * Não mexe em @Version: uma edição concorrente do livro não pode falhar por causa do job em segundo plano
+     * (o JSON do detalhe muda de chave pela marca de miniaturas concluídas, ver LivroController.buscarPorId)
+     */
+    @Modifying
+    @Query("""
+            UPDATE Livro l SET l.capaMiniaturas = :miniaturas, l.capaPlaceholder = :placeholder
+            WHERE l.id = :id AND l.capaDataUpload = :capaDataUpload AND l.capaMiniaturas IS NULL
+            """)
+    int registrarMiniaturas(@Param("id") UUID id,
+                            @Param("capaDataUpload") LocalDateTime capaDataUpload,
+                            @Param("miniaturas") String miniaturas,
+                            @Param("placeholder") String placeholder);
+
+    /**
+     * Já existe geração concluída para esta versão da capa (outra execução registrou antes)
+     */
+    boolean existsByIdAndCapaDataUploadAndCapaMiniaturasIsNotNull(UUID id, LocalDateTime capaDataUpload);
+
+    /**
+     * Capas ainda sem geração de miniaturas concluída (anteriores às miniaturas ou com falha transitória)
+     */
+    @Query("""
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro(
+                l.id, l.capaKey, l.capaContentType, l.capaDataUpload, l.capaMiniaturas)
+            FROM Livro l
+            WHERE l.capaKey IS NOT NULL AND l.capaDataUpload IS NOT NULL AND l.capaMiniaturas IS NULL
+            ORDER BY l.id
+            """)
+    List<CapaLivro> buscarCapasSemMiniaturas(Pageable pageable);
+
+    /**
+     * Formatos extras (LivroArquivo) dos livros do lote
+     */
+    @Modifying
+    @Query("DELETE FROM LivroArquivo a WHERE a.livro.id IN :ids")
+    int deletarArquivosExtras(@Param("ids") Collection<UUID> ids);
+
     /**
      * Verifica se ISBN já existe
      */
     boolean existsByIsbn(String isbn);
 
+    /**
+     * Todos os ISBNs (só a coluna, em lotes): carga do filtro de ISBNs no startup
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT l.isbn FROM Livro l WHERE l.isbn IS NOT NULL")
+    Stream<String> streamIsbns();
+
+    /**
+     * Quais destes ISBNs já estão cadastrados (importação em lote: uma query para o manifesto inteiro)
+     */
+    @Query("SELECT l.isbn FROM Livro l WHERE l.isbn IN :isbns")
+    List<String> buscarIsbnsExistentes(@Param("isbns") Collection<String> isbns);
+
     /**
      * Busca livros com arquivo disponível
      */
@@ -1,30 +1,116 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ConflitosUsuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, UUID> {
 
-    Optional<Usuario> findByUsername(String username);
+    /**
+     * Colunas da projeção UsuarioResumo (sem roles nem livros)
+     */
+    String SELECT_RESUMO = """
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo(
+                u.id, u.username, u.nome, u.email, u.cpf, u.telefone, u.dataCadastro, u.ativo)
+            FROM Usuario u
+            """;
 
-    Optional<Usuario> findByEmail(String email);
+    /**
+     * Primeira página da listagem de usuários (mais recentes primeiro)
+     */
+    @Query(SELECT_RESUMO + """
+            ORDER BY u.dataCadastro DESC, u.id DESC
+            """)
+    Slice<UsuarioResumo> buscarPrimeiraPagina(Pageable pageable);
 
-    boolean existsByUsername(String username);
+    /**
+     * Próxima página por seek (keyset) depois de (dataCadastro, id)
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE u.dataCadastro < :dataCadastro
+               OR (u.dataCadastro = :dataCadastro AND u.id < :id)
+            ORDER BY u.dataCadastro DESC, u.id DESC
+            """)
+    Slice<UsuarioResumo> buscarPaginaApos(@Param("dataCadastro") LocalDateTime dataCadastro,
+                                          @Param("id") UUID id,
+                                          Pageable pageable);
 
-    boolean existsByEmail(String email);
+    /**
+     * Sondagem de unicidade: conta, em uma ida ao banco, quem já usa cada campo do cadastro
+     * Campo nulo nunca conflita (= NULL não é verdadeiro); o WHERE com OR usa os índices de cada coluna
+     */
+    String SELECT_CONFLITOS = """
+            SELECT new com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ConflitosUsuario(
+                COALESCE(SUM(CASE WHEN u.username = :username THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN u.email = :email THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN u.nome = :nome THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN u.cpf = :cpf THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN u.telefone = :telefone THEN 1 ELSE 0 END), 0))
+            FROM Usuario u
+            WHERE (u.username = :username OR u.email = :email OR u.nome = :nome
+                   OR u.cpf = :cpf OR u.telefone = :telefone)
+            """;
 
-    boolean existsByNome(String nome);
+    /**
+     * Conflitos de um cadastro novo (todos os usuários contam)
+     */
+    @Query(SELECT_CONFLITOS)
+    ConflitosUsuario buscarConflitos(@Param("username") String username,
+                                     @Param("email") String email,
+                                     @Param("nome") String nome,
+                                     @Param("cpf") String cpf,
+                                     @Param("telefone") String telefone);
 
-    boolean existsByCpf(String cpf);
+    /**
+     * Conflitos de uma atualização (o próprio usuário não conta)
+     */
+    @Query(SELECT_CONFLITOS + """
+              AND u.id <> :id
+            """)
+    ConflitosUsuario buscarConflitosExceto(@Param("username") String username,
+                                           @Param("email") String email,
+                                           @Param("nome") String nome,
+                                           @Param("cpf") String cpf,
+                                           @Param("telefone") String telefone,
+                                           @Param("id") UUID id);
 
-    boolean existsByTelefone(String telefone);
+    /**
+     * Resumos de vários usuários em uma query (ex.: autores de uma importação em lote)
+     */
+    @Query(SELECT_RESUMO + """
+            WHERE u.id IN :ids
+            """)
+    List<UsuarioResumo> buscarResumosPorIds(@Param("ids") Collection<UUID> ids);
 
-    boolean existsByEmailAndIdNot(String email, UUID id);
+    /**
+     * Usado em todo login: resultado no query cache (id) + entidade no cache de segundo nível
+     * O Hibernate invalida a query sozinho quando a tabela usuarios é alterada
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Usuario> findByUsername(String username);
 
-    boolean existsByUsernameAndIdNot(String username, UUID id);
+    /**
+     * Só o username (exclusão de usuário invalida o cache de login pela chave)
+     */
+    @Query("SELECT u.username FROM Usuario u WHERE u.id = :id")
+    Optional<String> buscarUsernamePorId(@Param("id") UUID id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<Usuario> findByEmail(String email);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Só o necessário para servir a capa de um livro (lote de capas, sem autor nem arquivo)
+ */
+public record CapaLivro(UUID id, String capaKey, String capaContentType,
+                        LocalDateTime capaDataUpload, String capaMiniaturas) {
+
+    public boolean temCapa() {
+        return capaKey != null && !capaKey.isEmpty();
+    }
+
+    public String capaVersao() {
+        return Livro.versaoCapa(capaDataUpload);
+    }
+}
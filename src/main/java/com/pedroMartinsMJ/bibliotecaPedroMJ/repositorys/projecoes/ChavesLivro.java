@@ -0,0 +1,27 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Id e ISBN do livro e chaves dos seus objetos no MinIO (exclusão em lote e exclusão do autor)
+ * capaDataUpload + capaMiniaturas identificam as miniaturas da capa
+ */
+public record ChavesLivro(UUID id, String isbn, String arquivoKey, String capaKey,
+                          LocalDateTime capaDataUpload, String capaMiniaturas) {
+
+    /**
+     * Todos os objetos do livro no MinIO: arquivo, capa e miniaturas
+     */
+    public List<String> objetos() {
+        List<String> objetos = new ArrayList<>(2);
+        if (arquivoKey != null) objetos.add(arquivoKey);
+        if (capaKey != null) objetos.add(capaKey);
+        objetos.addAll(MiniaturasCapaService.chaves(id, capaDataUpload, capaMiniaturas));
+        return objetos;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+/**
+ * Quantos usuários já usam cada campo único do cadastro (0 = livre)
+ * Resultado de uma única query para todos os campos (UsuarioRepository.buscarConflitos)
+ */
+public record ConflitosUsuario(
+        Long username,
+        Long email,
+        Long nome,
+        Long cpf,
+        Long telefone
+) {
+    public boolean usernameEmUso() {
+        return username > 0;
+    }
+
+    public boolean emailEmUso() {
+        return email > 0;
+    }
+
+    public boolean nomeEmUso() {
+        return nome > 0;
+    }
+
+    public boolean cpfEmUso() {
+        return cpf > 0;
+    }
+
+    public boolean telefoneEmUso() {
+        return telefone > 0;
+    }
+}
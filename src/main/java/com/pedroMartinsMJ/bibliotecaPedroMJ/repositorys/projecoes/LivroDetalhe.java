@@ -0,0 +1,59 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Snapshot imutável de um livro (mesmos campos de LivroResumo + capa)
+ * É o que fica no cache de leitura por id: pode ser compartilhado entre threads sem cópia
+ */
+public record LivroDetalhe(
+        UUID id,
+        String titulo,
+        String descricao,
+        String isbn,
+        String editora,
+        LocalDate dataPublicacao,
+        Integer numeroPaginas,
+        String idioma,
+
+        // Autor (JOIN na mesma query)
+        UUID autorId,
+        String autorNome,
+        String autorUsername,
+        String autorEmail,
+
+        // Arquivo
+        String arquivoKey,
+        TipoArquivo tipoArquivo,
+        Long tamanhoBytes,
+        LocalDateTime dataUpload,
+
+        // Capa
+        String capaKey,
+        String capaContentType,
+        Long capaTamanhoBytes,
+        LocalDateTime capaDataUpload,
+        String capaMiniaturas,
+        String capaPlaceholder,
+
+        LocalDateTime dataCadastro,
+        Long versao
+) {
+
+    public boolean temArquivo() {
+        return arquivoKey != null && !arquivoKey.isEmpty();
+    }
+
+    public boolean temCapa() {
+        return capaKey != null && !capaKey.isEmpty();
+    }
+
+    public String capaVersao() {
+        return Livro.versaoCapa(capaDataUpload);
+    }
+}
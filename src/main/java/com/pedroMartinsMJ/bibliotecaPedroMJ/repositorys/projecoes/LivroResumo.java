@@ -0,0 +1,55 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção "achatada" de Livro + autor para as listagens
+ * Montada direto pelo JPQL (SELECT new ...): sem entidade gerenciada, sem lazy load do autor
+ */
+public record LivroResumo(
+        UUID id,
+        String titulo,
+        String descricao,
+        String isbn,
+        String editora,
+        LocalDate dataPublicacao,
+        Integer numeroPaginas,
+        String idioma,
+
+        // Autor (JOIN na mesma query)
+        UUID autorId,
+        String autorNome,
+        String autorUsername,
+        String autorEmail,
+
+        // Arquivo
+        String arquivoKey,
+        TipoArquivo tipoArquivo,
+        Long tamanhoBytes,
+        LocalDateTime dataUpload,
+
+        // Capa (só o necessário para a URL versionada e o placeholder)
+        String capaKey,
+        LocalDateTime capaDataUpload,
+        String capaPlaceholder,
+
+        LocalDateTime dataCadastro
+) {
+
+    public boolean temArquivo() {
+        return arquivoKey != null && !arquivoKey.isEmpty();
+    }
+
+    public boolean temCapa() {
+        return capaKey != null && !capaKey.isEmpty();
+    }
+
+    public String capaVersao() {
+        return Livro.versaoCapa(capaDataUpload);
+    }
+}
@@ -0,0 +1,8 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import java.util.UUID;
+
+/**
+ * Quantas bibliotecas pessoais contêm cada livro (popularidade para sugestões)
+ */
+public record PopularidadeLivro(UUID livroId, Long leitores) {}
@@ -0,0 +1,19 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção de Usuario para a listagem administrativa
+ * Sem roles (EAGER na entidade) e sem coleções: uma linha por usuário
+ */
+public record UsuarioResumo(
+        UUID id,
+        String username,
+        String nome,
+        String email,
+        String cpf,
+        String telefone,
+        LocalDateTime dataCadastro,
+        Boolean ativo
+) {}
@@ -0,0 +1,136 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Chaves e algoritmo dos tokens JWT (encoder e decoder), iguais em todos os profiles
+ *
+ * biblioteca.jwt.algoritmo:
+ * - RS256 (padrão): par RSA de jwt.private.key / jwt.public.key
+ * - ES256: par EC P-256 de jwt.ec.private.key / jwt.ec.public.key (PEM PKCS#8 / X.509);
+ *   assinatura (login) ~3x mais barata e token ~45% menor, mas a verificação é mais cara que a
+ *   do RSA; compensa com o cache de tokens verificados (JwtDecoderComCache). Gerar com:
+ *     openssl ecparam -name prime256v1 -genkey -noout | openssl pkcs8 -topk8 -nocrypt -out ec.key
+ *     openssl ec -in ec.key -pubout -out ec.pub
+ *
+ * Trocar o algoritmo invalida os tokens já emitidos (expiram em 1h de qualquer forma).
+ */
+@Configuration
+public class JwtChavesConfig {
+
+    @Value("${biblioteca.jwt.algoritmo:RS256}")
+    private SignatureAlgorithm algoritmo;
+
+    @Value("${biblioteca.jwt.cache.tamanho-maximo:10000}")
+    private long tamanhoCache;
+
+    @Value("${jwt.public.key}")
+    private RSAPublicKey publicKey;
+
+    @Value("${jwt.private.key}")
+    private RSAPrivateKey privateKey;
+
+    @Value("${jwt.ec.public.key:#{null}}")
+    private Resource ecPublicKey;
+
+    @Value("${jwt.ec.private.key:#{null}}")
+    private Resource ecPrivateKey;
+
+    @Bean
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
+        NimbusJwtDecoder decoder = switch (algoritmo) {
+            case RS256 -> NimbusJwtDecoder.withPublicKey(publicKey).build();
+            case ES256 -> NimbusJwtDecoder
+                    .withJwkSource(new ImmutableJWKSet<>(new JWKSet(jwkPublicaEc())))
+                    .jwsAlgorithm(SignatureAlgorithm.ES256)
+                    .build();
+            default -> throw new IllegalStateException("Algoritmo JWT não suportado: " + algoritmo);
+        };
+
+        // Token já verificado não passa de novo pela assinatura a cada requisição
+        return new JwtDecoderComCache(decoder, meterRegistry, tamanhoCache);
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder() {
+        return switch (algoritmo) {
+            case RS256 -> NimbusJwtEncoder.withKeyPair(publicKey, privateKey).build();
+            case ES256 -> NimbusJwtEncoder.withKeyPair(chavePublicaEc(), chavePrivadaEc()).build();
+            default -> throw new IllegalStateException("Algoritmo JWT não suportado: " + algoritmo);
+        };
+    }
+
+    // ====== CHAVES EC (PEM) ======
+
+    /**
+     * Mesmo kid (thumbprint) que o NimbusJwtEncoder coloca no header do token
+     */
+    private ECKey jwkPublicaEc() {
+        try {
+            return new ECKey.Builder(Curve.P_256, chavePublicaEc())
+                    .keyIDFromThumbprint()
+                    .build();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Chave pública EC inválida em jwt.ec.public.key", e);
+        }
+    }
+
+    private ECPublicKey chavePublicaEc() {
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(lerPem(ecPublicKey, "jwt.ec.public.key")));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chave pública EC inválida em jwt.ec.public.key", e);
+        }
+    }
+
+    private ECPrivateKey chavePrivadaEc() {
+        try {
+            return (ECPrivateKey) KeyFactory.getInstance("EC")
+                    .generatePrivate(new PKCS8EncodedKeySpec(lerPem(ecPrivateKey, "jwt.ec.private.key")));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chave privada EC inválida em jwt.ec.private.key (esperado PKCS#8)", e);
+        }
+    }
+
+    private static byte[] lerPem(Resource recurso, String propriedade) {
+        if (recurso == null || !recurso.exists()) {
+            throw new IllegalStateException("biblioteca.jwt.algoritmo=ES256 exige " + propriedade);
+        }
+
+        try {
+            String pem = recurso.getContentAsString(StandardCharsets.US_ASCII)
+                    .replaceAll("-----[A-Z ]+-----", "")
+                    .replaceAll("\\s", "");
+            return Base64.getDecoder().decode(pem);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível ler " + propriedade, e);
+        }
+    }
+}
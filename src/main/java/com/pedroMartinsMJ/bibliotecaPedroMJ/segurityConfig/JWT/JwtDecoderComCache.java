@@ -0,0 +1,69 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * JwtDecoder com cache dos tokens JÁ VERIFICADOS (assinatura + validadores do decoder original)
+ *
+ * - Chave = SHA-256 do token (32 bytes, hash e comparação baratos); o valor é o Jwt decodificado, que
+ *   guarda o próprio token (tokenValue) e as claims: cada entrada custa o token inteiro mais as claims
+ * - Cada entrada expira no exp do próprio token; token sem exp não é guardado
+ * - Token rejeitado (assinatura, expirado, malformado) nunca entra no cache: a exceção sobe
+ *   e a próxima tentativa passa de novo pela verificação completa
+ * - Acerto = um SHA-256 em vez de parse + verificação de assinatura por requisição
+ */
+public class JwtDecoderComCache implements JwtDecoder {
+
+    private final JwtDecoder decoder;
+    private final Cache<ByteBuffer, Jwt> cache;
+
+    public JwtDecoderComCache(JwtDecoder decoder, MeterRegistry meterRegistry, long tamanhoMaximo) {
+        this.decoder = decoder;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(Expiry.creating((ByteBuffer chave, Jwt jwt) ->
+                        Duration.between(Instant.now(), jwt.getExpiresAt())))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        ByteBuffer chave = sha256(token);
+
+        Jwt jwt = cache.getIfPresent(chave);
+        if (jwt != null) {
+            return jwt;
+        }
+
+        jwt = decoder.decode(token);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(Instant.now())) {
+            cache.put(chave, jwt);
+        }
+        return jwt;
+    }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -14,20 +10,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.util.List;
 
 /**
@@ -43,12 +32,6 @@ import java.util.List;
 @Profile("!test") // Ativa em TODOS os profiles EXCETO 'test'
 public class SecurityConfig {
 
-    @Value("${jwt.public.key}")
-    private RSAPublicKey publicKey;
-
-    @Value("${jwt.private.key}")
-    private RSAPrivateKey privateKey;
-
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -126,6 +109,9 @@ public class SecurityConfig {
                 .defaultSuccessUrl("/dashboard", true)
         );
 
+        // Login em rajada: fila do hash de senhas cheia vira 503 rápido, não 500
+        http.addFilterBefore(new SobrecargaHashSenhaFilter(), UsernamePasswordAuthenticationFilter.class);
+
         http.logout(logout -> logout
                 .logoutUrl("/logout")          // define o endpoint
                 .logoutSuccessUrl("/")         // redireciona após logout
@@ -153,22 +139,6 @@ public class SecurityConfig {
         return source;
     }
 
-    @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(publicKey).build();
-    }
-
-    @Bean
-    public JwtEncoder jwtEncoder() {
-        RSAKey jwk = new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .build();
-        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    // JwtDecoder/JwtEncoder: JWT.JwtChavesConfig (algoritmo configurável + cache de tokens verificados)
+    // PasswordEncoder: SenhaEncoderLimitado (BCrypt em executor próprio, igual em todos os profiles)
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.SobrecargaHashSenhaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder da aplicação: BCrypt fora da thread da requisição, com controle de admissão
+ *
+ * - encode/matches rodam em um pool fixo e pequeno (padrão: metade dos núcleos), com fila limitada:
+ *   uma rajada de logins não ocupa todos os núcleos e as leituras do catálogo continuam respondendo
+ * - Fila cheia ou espera acima do limite = SobrecargaHashSenhaException (503 + Retry-After)
+ * - Espera estourada: o hash que ainda está na fila é cancelado e sai dela; o que já começou vai até o fim
+ *   (BCrypt não olha interrupção), então cada thread do pool segura no máximo um hash "abandonado"
+ * - Custo do BCrypt configurável; hashes com custo menor (ou sem prefixo {bcrypt}, os antigos)
+ *   são refeitos no próximo login (upgradeEncoding + CustomUserDetailsService.updatePassword)
+ * - Métricas: biblioteca.senha.hash (duração do hash na thread do pool, por operação),
+ *   biblioteca.senha.espera (tempo na fila até uma thread pegar), biblioteca.senha.rejeitadas
+ *   e biblioteca.senha.fila
+ */
+@Component
+@Slf4j
+public class SenhaEncoderLimitado implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration esperaMaxima;
+    private final Timer tempoEncode;
+    private final Timer tempoMatches;
+    private final Timer tempoEspera;
+    private final Counter rejeitadas;
+
+    public SenhaEncoderLimitado(MeterRegistry meterRegistry,
+                                @Value("${biblioteca.senha.bcrypt-custo:10}") int custo,
+                                @Value("${biblioteca.senha.threads:0}") int threads,
+                                @Value("${biblioteca.senha.fila:64}") int fila,
+                                @Value("${biblioteca.senha.espera-maxima:5s}") Duration esperaMaxima) {
+        // {bcrypt} nos hashes novos; hashes antigos (sem prefixo) continuam aceitos como BCrypt
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(custo);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        this.delegate = delegating;
+
+        int tamanhoPool = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanhoPool, tamanhoPool, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(fila, 1)),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "hash-senha-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaxima = esperaMaxima;
+
+        this.tempoEncode = Timer.builder("biblioteca.senha.hash")
+                .tag("operacao", "encode")
+                .description("Duração (relógio) de cada hash de senha na thread do pool, sem a espera na fila")
+                .register(meterRegistry);
+        this.tempoMatches = Timer.builder("biblioteca.senha.hash")
+                .tag("operacao", "matches")
+                .description("Duração (relógio) de cada verificação de senha na thread do pool, sem a espera na fila")
+                .register(meterRegistry);
+        this.tempoEspera = Timer.builder("biblioteca.senha.espera")
+                .description("Tempo de cada hash de senha na fila até uma thread do pool pegar")
+                .register(meterRegistry);
+        this.rejeitadas = Counter.builder("biblioteca.senha.rejeitadas")
+                .description("Hashes recusados por fila cheia ou espera estourada (503)")
+                .register(meterRegistry);
+        Gauge.builder("biblioteca.senha.fila", executor, e -> e.getQueue().size())
+                .description("Hashes de senha aguardando thread")
+                .register(meterRegistry);
+
+        log.info("Hash de senhas: BCrypt custo {}, {} threads, fila de {}", custo, tamanhoPool, fila);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executar(tempoEncode, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executar(tempoMatches, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Só lê o prefixo/custo do hash: barato, roda na própria thread
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private <T> T executar(Timer tempo, Callable<T> hash) {
+        long enfileirado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(() -> {
+                tempoEspera.record(System.nanoTime() - enfileirado, TimeUnit.NANOSECONDS);
+                return tempo.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw new SobrecargaHashSenhaException();
+        }
+
+        try {
+            return futuro.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            desistir(futuro);
+            rejeitadas.increment();
+            throw new SobrecargaHashSenhaException();
+        } catch (InterruptedException e) {
+            desistir(futuro);
+            Thread.currentThread().interrupt();
+            throw new SobrecargaHashSenhaException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) throw causa;
+            throw new IllegalStateException("Falha ao processar senha", e.getCause());
+        }
+    }
+
+    /**
+     * Ainda na fila: cancela e libera a vaga na hora (senão ocuparia a fila até uma thread descartá-lo)
+     * Já rodando: interromper não adianta (BCrypt não checa), o hash termina e o resultado é descartado
+     */
+    private void desistir(Future<?> futuro) {
+        if (futuro.cancel(false)) {
+            executor.remove((Runnable) futuro);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.SobrecargaHashSenhaException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Converte SobrecargaHashSenhaException lançada dentro da cadeia de segurança (login por formulário,
+ * que verifica a senha antes de chegar em qualquer controller) em 503 + Retry-After
+ * Nos controllers quem responde é o GlobalExceptionHandler
+ */
+public class SobrecargaHashSenhaFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } catch (SobrecargaHashSenhaException e) {
+            responderOcupado(response, e);
+        } catch (ServletException | RuntimeException e) {
+            if (!(causaRaiz(e) instanceof SobrecargaHashSenhaException sobrecarga)) throw e;
+            responderOcupado(response, sobrecarga);
+        }
+    }
+
+    private static void responderOcupado(HttpServletResponse response, SobrecargaHashSenhaException e) throws IOException {
+        if (response.isCommitted()) throw e;
+
+        response.resetBuffer();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(e.getMessage());
+    }
+
+    private static Throwable causaRaiz(Throwable e) {
+        Throwable atual = e;
+        while (atual.getCause() != null && atual.getCause() != atual) {
+            if (atual instanceof SobrecargaHashSenhaException) return atual;
+            atual = atual.getCause();
+        }
+        return atual;
+    }
+}
@@ -0,0 +1,34 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.UserDetails;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Conjuntos de authorities INTERNADOS: uma instância imutável por combinação de roles
+ *
+ * - Poucas combinações na prática (ROLE_USER, ROLE_USER + ROLE_AUTOR, ...): todos os usuários
+ *   com as mesmas roles compartilham o mesmo Set, sem criar SimpleGrantedAuthority a cada login
+ * - Set.copyOf: imutável, seguro para compartilhar entre threads e guardar em cache
+ */
+public final class Autoridades {
+
+    private static final ConcurrentHashMap<Set<String>, Set<GrantedAuthority>> INTERNADAS = new ConcurrentHashMap<>();
+
+    private Autoridades() {}
+
+    public static Set<GrantedAuthority> de(Collection<Role> roles) {
+        Set<String> nomes = roles.stream()
+                .map(Role::getName)
+                .collect(Collectors.toUnmodifiableSet());
+
+        return INTERNADAS.computeIfAbsent(nomes, chave -> chave.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+}
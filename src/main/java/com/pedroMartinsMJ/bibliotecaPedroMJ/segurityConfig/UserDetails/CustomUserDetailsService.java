@@ -1,49 +1,63 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.UserDetails;
 
 
-import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheUsuarios;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.Collection;
-import java.util.stream.Collectors;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
+    private final CacheUsuarios cacheUsuarios;
 
+    /**
+     * Dados do cache de login (sem query no acerto); o User é novo a cada chamada porque
+     * o Spring Security apaga a senha dele depois da autenticação
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByUsername(username)
+        CacheUsuarios.DadosLogin usuario = cacheUsuarios.buscar(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
 
-        if (!usuario.isAtivo()) {
+        if (!usuario.ativo()) {
             throw new UsernameNotFoundException("Usuário inativo: " + username);
         }
 
         return User.builder()
-                .username(usuario.getUsername())
-                .password(usuario.getPassword())
-                .authorities(getAuthorities(usuario))
+                .username(usuario.username())
+                .password(usuario.senha())
+                .authorities(usuario.autoridades())
                 .accountExpired(false)
                 .accountLocked(false)
                 .credentialsExpired(false)
-                .disabled(!usuario.isAtivo())
+                .disabled(!usuario.ativo())
                 .build();
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(Usuario usuario) {
-        return usuario.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+    /**
+     * Chamado pelo Spring Security após um login bem-sucedido quando o hash está desatualizado
+     * (sem prefixo {bcrypt} ou com custo menor que biblioteca.senha.bcrypt-custo)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.findByUsername(user.getUsername()).ifPresent(usuario -> {
+            usuario.setPassword(newPassword);
+            usuarioRepository.save(usuario);
+        });
+        cacheUsuarios.invalidar(user.getUsername());
+
+        return User.withUserDetails(user)
+                .password(newPassword)
+                .build();
     }
 }
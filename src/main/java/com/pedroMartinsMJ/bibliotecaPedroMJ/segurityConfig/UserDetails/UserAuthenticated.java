@@ -2,11 +2,9 @@ package com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.UserDetails;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 //✅ Padrão Adapter: UserAuthenticated adapta Usuario para UserDetails
 public class UserAuthenticated implements UserDetails {
@@ -19,10 +17,8 @@ public class UserAuthenticated implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return usuario.getRoles()
-                .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toList());
+        // Set internado e imutável: mesma instância para todos com as mesmas roles
+        return Autoridades.de(usuario.getRoles());
     }
 
     @Override
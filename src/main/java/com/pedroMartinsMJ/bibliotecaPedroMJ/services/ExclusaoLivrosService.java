@@ -0,0 +1,314 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.BibliotecaPessoalRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EXCLUSÃO em lote de livros (todos de um autor ou uma lista de ids), como job em segundo plano
+ *
+ * - Lotes de TAMANHO_LOTE livros: memória constante, mesmo para catálogos inteiros
+ * - Por lote: DELETEs set-based (dependentes + livros) em uma transação, depois um removeObjects
+ *   no MinIO para arquivos e capas do lote inteiro
+ * - Banco antes do MinIO: se a remoção dos objetos falhar sobram só objetos órfãos, nunca livros
+ *   apontando para arquivos que não existem mais
+ * - Jobs rodam um por vez, na ordem de chegada; o progresso fica disponível por 1h sem consulta
+ *   depois que o job termina (pendentes e em execução nunca expiram)
+ * - Só ADMIN exclui livros de qualquer autor; os demais, apenas os próprios livros
+ */
+@Service
+@Slf4j
+public class ExclusaoLivrosService {
+
+    private static final int TAMANHO_LOTE = 500;
+    private static final int MAX_IDS = 10_000;
+    private static final UUID MENOR_UUID = new UUID(0, 0);
+    private static final Duration RETENCAO_JOB = Duration.ofHours(1);
+
+    // ROLE_ADMIN no login por formulário; SCOPE_ROLE_ADMIN no JWT (claim "scope")
+    private static final Set<String> AUTORIDADES_ADMIN = Set.of("ROLE_ADMIN", "SCOPE_ROLE_ADMIN");
+
+    private final LivroRepository livroRepository;
+    private final BibliotecaPessoalRepository bibliotecaPessoalRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final LivroService livroService;
+    private final MinioService minioService;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("exclusao-livros").factory());
+
+    private final Cache<UUID, Job> jobs = Caffeine.newBuilder()
+            .expireAfter(new RetencaoJob())
+            .build();
+
+    public ExclusaoLivrosService(LivroRepository livroRepository,
+                                 BibliotecaPessoalRepository bibliotecaPessoalRepository,
+                                 UsuarioRepository usuarioRepository,
+                                 LivroService livroService,
+                                 MinioService minioService,
+                                 GeracaoCatalogo geracaoCatalogo,
+                                 TransactionTemplate transactionTemplate) {
+        this.livroRepository = livroRepository;
+        this.bibliotecaPessoalRepository = bibliotecaPessoalRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.livroService = livroService;
+        this.minioService = minioService;
+        this.geracaoCatalogo = geracaoCatalogo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public enum StatusExclusao { PENDENTE, EXECUTANDO, CONCLUIDO, FALHOU }
+
+    /**
+     * Foto do andamento de um job
+     * processados = removidos + falhas; objetosOrfaos = arquivos/capas que ficaram no MinIO
+     */
+    public record Progresso(
+            UUID id,
+            StatusExclusao status,
+            int total,
+            int processados,
+            int removidos,
+            int falhas,
+            int objetosOrfaos,
+            LocalDateTime inicio,
+            LocalDateTime fim,
+            String erro
+    ) {}
+
+    /**
+     * AGENDA a exclusão de todos os livros do autor (ADMIN ou o próprio autor)
+     */
+    public Progresso excluirPorAutor(UUID autorId, Authentication solicitante) {
+        UUID dono = donoExigido(solicitante);
+        if (dono != null && !dono.equals(autorId)) {
+            throw new AccessDeniedException("Apenas administradores excluem livros de outros autores");
+        }
+        if (!usuarioRepository.existsById(autorId)) {
+            throw new RuntimeException("Usuário não encontrado");
+        }
+
+        Job job = new Job((int) livroRepository.countByAutorId(autorId));
+        return agendar(job, () -> {
+            UUID aposId = MENOR_UUID;
+            List<ChavesLivro> lote;
+            while (!(lote = livroRepository.buscarChavesPorAutor(autorId, aposId, PageRequest.of(0, TAMANHO_LOTE))).isEmpty()) {
+                excluirLote(job, lote);
+                aposId = lote.getLast().id();
+            }
+        });
+    }
+
+    /**
+     * AGENDA a exclusão dos livros da lista (ids repetidos contam uma vez; inexistentes viram falha)
+     * Sem ADMIN, todos os livros existentes da lista precisam ser do solicitante
+     */
+    public Progresso excluirPorIds(List<UUID> ids, Authentication solicitante) {
+        List<UUID> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        if (unicos.isEmpty()) {
+            throw new RequisicaoInvalidaException("Informe ao menos um livro");
+        }
+        if (unicos.size() > MAX_IDS) {
+            throw new RequisicaoInvalidaException("Máximo de " + MAX_IDS + " livros por exclusão");
+        }
+
+        UUID dono = donoExigido(solicitante);
+        if (dono != null) {
+            for (int i = 0; i < unicos.size(); i += TAMANHO_LOTE) {
+                if (livroRepository.existsByIdInAndAutorIdNot(unicos.subList(i, Math.min(i + TAMANHO_LOTE, unicos.size())), dono)) {
+                    throw new AccessDeniedException("Apenas administradores excluem livros de outros autores");
+                }
+            }
+        }
+
+        Job job = new Job(unicos.size());
+        return agendar(job, () -> {
+            for (int i = 0; i < unicos.size(); i += TAMANHO_LOTE) {
+                List<UUID> pedaco = unicos.subList(i, Math.min(i + TAMANHO_LOTE, unicos.size()));
+                List<ChavesLivro> lote = livroRepository.buscarChavesPorIds(pedaco);
+
+                job.falhas.addAndGet(pedaco.size() - lote.size());
+                if (!lote.isEmpty()) {
+                    excluirLote(job, lote);
+                }
+            }
+        });
+    }
+
+    /**
+     * Andamento do job (vazio se não existe ou já expirou)
+     */
+    public Optional<Progresso> progresso(UUID jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(Job::progresso);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // ====== PERMISSÃO ======
+
+    /**
+     * null para ADMIN (sem restrição); senão, o id do solicitante, único autor que ele pode afetar
+     */
+    private UUID donoExigido(Authentication solicitante) {
+        if (solicitante == null) {
+            throw new AccessDeniedException("Autenticação obrigatória");
+        }
+        boolean admin = solicitante.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(AUTORIDADES_ADMIN::contains);
+        if (admin) {
+            return null;
+        }
+        return usuarioRepository.findByUsername(solicitante.getName())
+                .map(Usuario::getId)
+                .orElseThrow(() -> new AccessDeniedException("Usuário não encontrado"));
+    }
+
+    // ====== EXECUÇÃO ======
+
+    private Progresso agendar(Job job, Runnable tarefa) {
+        jobs.put(job.id, job);
+
+        executor.submit(() -> {
+            job.status = StatusExclusao.EXECUTANDO;
+            job.inicio = LocalDateTime.now();
+            try {
+                tarefa.run();
+                job.status = StatusExclusao.CONCLUIDO;
+            } catch (RuntimeException e) {
+                log.error("Exclusão em lote {} falhou: {}", job.id, e.getMessage());
+                job.erro = e.getMessage();
+                job.status = StatusExclusao.FALHOU;
+            } finally {
+                job.fim = LocalDateTime.now();
+                // Reinsere para a expiração passar a contar a partir do fim (ver RetencaoJob)
+                jobs.put(job.id, job);
+                log.info("Exclusão em lote {}: {} removidos, {} falhas, {} objetos órfãos",
+                        job.id, job.removidos.get(), job.falhas.get(), job.objetosOrfaos.get());
+            }
+        });
+
+        return job.progresso();
+    }
+
+    private void excluirLote(Job job, List<ChavesLivro> lote) {
+        List<UUID> ids = lote.stream().map(ChavesLivro::id).toList();
+
+        // 1. Banco: três DELETEs para o lote inteiro, em uma transação
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bibliotecaPessoalRepository.deletarPorLivros(ids);
+                livroRepository.deletarArquivosExtras(ids);
+                livroRepository.deletarPorIds(ids);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Lote de exclusão com {} livros falhou: {}", ids.size(), e.getMessage());
+            job.falhas.addAndGet(ids.size());
+            return;
+        }
+
+        // 2. Índices, cache de leitura e ETags do catálogo
+        lote.forEach(livro -> livroService.removerDosIndices(livro.id(), livro.isbn(), livro.arquivoKey()));
+        geracaoCatalogo.avancar();
+        job.removidos.addAndGet(ids.size());
+
+        // 3. MinIO: arquivos, capas e miniaturas do lote em uma chamada multi-objeto
+        List<String> chaves = new ArrayList<>(lote.size() * 2);
+        lote.forEach(livro -> chaves.addAll(livro.objetos()));
+
+        try {
+            job.objetosOrfaos.addAndGet(minioService.deletarArquivos(chaves).size());
+        } catch (RuntimeException e) {
+            job.objetosOrfaos.addAndGet(chaves.size());
+        }
+    }
+
+    /**
+     * Job PENDENTE ou EXECUTANDO nunca expira, por mais tempo que a exclusão leve;
+     * terminado, fica RETENCAO_JOB sem consulta (o fim reinsere o job, disparando expireAfterUpdate)
+     */
+    private static final class RetencaoJob implements Expiry<UUID, Job> {
+
+        private static long duracao(Job job) {
+            return job.terminado() ? RETENCAO_JOB.toNanos() : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterCreate(UUID id, Job job, long agora) {
+            return duracao(job);
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID id, Job job, long agora, long restante) {
+            return duracao(job);
+        }
+
+        @Override
+        public long expireAfterRead(UUID id, Job job, long agora, long restante) {
+            return duracao(job);
+        }
+    }
+
+    /**
+     * Estado de um job; escrito só pela thread de exclusão, lido pelas consultas de progresso
+     */
+    private static final class Job {
+        final UUID id = UUID.randomUUID();
+        final int total;
+        final AtomicInteger removidos = new AtomicInteger();
+        final AtomicInteger falhas = new AtomicInteger();
+        final AtomicInteger objetosOrfaos = new AtomicInteger();
+        volatile StatusExclusao status = StatusExclusao.PENDENTE;
+        volatile LocalDateTime inicio;
+        volatile LocalDateTime fim;
+        volatile String erro;
+
+        Job(int total) {
+            this.total = total;
+        }
+
+        boolean terminado() {
+            return status == StatusExclusao.CONCLUIDO || status == StatusExclusao.FALHOU;
+        }
+
+        Progresso progresso() {
+            int removidos = this.removidos.get();
+            int falhas = this.falhas.get();
+            return new Progresso(id, status, total, removidos + falhas, removidos, falhas,
+                    objetosOrfaos.get(), inicio, fim, erro);
+        }
+    }
+}
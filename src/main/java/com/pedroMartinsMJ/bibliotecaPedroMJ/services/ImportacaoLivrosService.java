@@ -0,0 +1,689 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * IMPORTAÇÃO em lote: manifesto (CSV ou JSON) + pacote ZIP com os arquivos e capas
+ *
+ * - Multipart (manifesto + pacote) fica no limite global de upload; pacotes maiores vêm em streaming,
+ *   com o manifesto dentro do ZIP e limite próprio (biblioteca.importacao.tamanho-maximo-pacote)
+ * - Validação por linha, com ISBNs e autores conferidos em uma query cada para o manifesto inteiro
+ * - Uploads para o MinIO em paralelo, limitados por um semáforo compartilhado entre importações
+ * - INSERTs em lotes JDBC (hibernate.jdbc.batch_size), uma transação por lote
+ * - Resultado por linha: uma linha ruim não derruba as outras
+ */
+@Service
+@Slf4j
+public class ImportacaoLivrosService {
+
+    private static final int MAX_LINHAS = 5000;
+    private static final int TAMANHO_LOTE = 500;
+    private static final long MAX_CAPA_BYTES = 5L * 1024 * 1024;
+    private static final long MAX_MANIFESTO_BYTES = 10L * 1024 * 1024;
+    private static final List<String> MANIFESTOS_NO_PACOTE = List.of("manifesto.csv", "manifesto.json");
+
+    private static final Map<String, String> TIPOS_ARQUIVO = Map.of(
+            "pdf", "application/pdf",
+            "epub", "application/epub+zip");
+
+    private static final Map<String, String> TIPOS_CAPA = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "webp", "image/webp");
+
+    private final LivroRepository livroRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final LivroService livroService;
+    private final FiltroIsbns filtroIsbns;
+    private final MinioService minioService;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final Semaphore permissoesUpload;
+    private final long tamanhoMaximoPacote;
+
+    public ImportacaoLivrosService(LivroRepository livroRepository,
+                                   UsuarioRepository usuarioRepository,
+                                   LivroService livroService,
+                                   FiltroIsbns filtroIsbns,
+                                   MinioService minioService,
+                                   GeracaoCatalogo geracaoCatalogo,
+                                   TransactionTemplate transactionTemplate,
+                                   JsonMapper jsonMapper,
+                                   Validator validator,
+                                   @Value("${biblioteca.importacao.uploads-paralelos:8}") int uploadsParalelos,
+                                   @Value("${biblioteca.importacao.tamanho-maximo-pacote:2GB}") DataSize tamanhoMaximoPacote) {
+        this.livroRepository = livroRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.livroService = livroService;
+        this.filtroIsbns = filtroIsbns;
+        this.minioService = minioService;
+        this.geracaoCatalogo = geracaoCatalogo;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.permissoesUpload = new Semaphore(Math.max(uploadsParalelos, 1));
+        this.tamanhoMaximoPacote = tamanhoMaximoPacote.toBytes();
+    }
+
+    /**
+     * Uma linha do manifesto; arquivo e capa são caminhos de entradas dentro do ZIP
+     */
+    public record ItemManifesto(
+            @NotBlank(message = "Título é obrigatório")
+            @Size(max = 255)
+            String titulo,
+
+            @NotNull(message = "Autor (ID do usuário) é obrigatório")
+            UUID autorId,
+
+            @Size(max = 2000)
+            String descricao,
+
+            @Pattern(regexp = Livro.REGEX_ISBN, message = "ISBN inválido")
+            String isbn,
+
+            @Size(max = 100)
+            String editora,
+
+            @PastOrPresent(message = "Data não pode ser futura")
+            LocalDate dataPublicacao,
+
+            @Min(value = 1, message = "Número de páginas deve ser maior que 0")
+            Integer numeroPaginas,
+
+            @Size(max = 50)
+            String idioma,
+
+            @NotBlank(message = "Arquivo é obrigatório")
+            String arquivo,
+
+            String capa
+    ) {}
+
+    /**
+     * Resultado de uma linha do manifesto (linha 1 = primeiro livro); erro nulo = importado
+     */
+    public record ResultadoLinha(int linha, String titulo, String isbn, UUID livroId, String erro) {
+        public boolean importado() {
+            return erro == null;
+        }
+    }
+
+    /**
+     * IMPORTA os livros do manifesto, lendo arquivos e capas do pacote ZIP
+     */
+    public List<ResultadoLinha> importar(MultipartFile manifesto, MultipartFile pacote) {
+        List<Linha> linhas;
+        try {
+            linhas = lerManifesto(manifesto.getBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return importar(pacote::transferTo, zip -> linhas);
+    }
+
+    /**
+     * IMPORTA um pacote recebido em streaming (corpo da requisição = ZIP), com o manifesto na raiz
+     * (manifesto.csv ou manifesto.json); o corpo vai direto para o arquivo temporário, sem multipart
+     */
+    public List<ResultadoLinha> importar(InputStream corpo, long tamanhoDeclarado) {
+        if (tamanhoDeclarado > tamanhoMaximoPacote) {
+            throw new RequisicaoInvalidaException("Pacote muito grande (máx " + DataSize.ofBytes(tamanhoMaximoPacote).toMegabytes() + "MB)");
+        }
+        return importar(destino -> copiarComLimite(corpo, destino), this::lerManifesto);
+    }
+
+    private List<ResultadoLinha> importar(GravacaoPacote gravarPacote, Function<ZipFile, List<Linha>> manifesto) {
+        long inicio = System.nanoTime();
+        List<Linha> linhas;
+
+        Path temporario = null;
+        try {
+            // ZipFile precisa de arquivo em disco: acesso direto a cada entrada, sem ler o pacote inteiro
+            temporario = Files.createTempFile("importacao-", ".zip");
+            gravarPacote.gravar(temporario);
+
+            try (ZipFile zip = new ZipFile(temporario.toFile())) {
+                linhas = manifesto.apply(zip);
+                validar(linhas, zip);
+                enviarArquivos(linhas, zip);
+            }
+        } catch (IOException e) {
+            throw new RequisicaoInvalidaException("Pacote ZIP inválido", e);
+        } finally {
+            apagarTemporario(temporario);
+        }
+
+        salvar(linhas);
+
+        int importados = 0;
+        for (Linha linha : linhas) {
+            if (linha.livro != null) {
+                livroService.indexarNovoLivro(linha.livro, linha.item.autorId(), linha.autorNome);
+                importados++;
+            }
+        }
+        if (importados > 0) {
+            geracaoCatalogo.avancar();
+        }
+
+        log.info("Importação concluída: {} de {} livros em {} ms",
+                importados, linhas.size(), (System.nanoTime() - inicio) / 1_000_000);
+
+        return linhas.stream().map(Linha::resultado).toList();
+    }
+
+    // ====== PACOTE ======
+
+    @FunctionalInterface
+    private interface GravacaoPacote {
+        void gravar(Path destino) throws IOException;
+    }
+
+    /**
+     * Copia o corpo para o arquivo temporário, parando assim que passar do limite
+     * (Content-Length ausente ou mentiroso não enche o disco)
+     */
+    private void copiarComLimite(InputStream corpo, Path destino) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream saida = Files.newOutputStream(destino)) {
+            for (int lidos; (lidos = corpo.read(buffer)) != -1; ) {
+                total += lidos;
+                if (total > tamanhoMaximoPacote) {
+                    throw new RequisicaoInvalidaException("Pacote muito grande (máx " + DataSize.ofBytes(tamanhoMaximoPacote).toMegabytes() + "MB)");
+                }
+                saida.write(buffer, 0, lidos);
+            }
+        }
+    }
+
+    /**
+     * Manifesto de dentro do pacote (importação em streaming)
+     */
+    private List<Linha> lerManifesto(ZipFile zip) {
+        ZipEntry entrada = MANIFESTOS_NO_PACOTE.stream()
+                .map(zip::getEntry)
+                .filter(e -> e != null && !e.isDirectory())
+                .findFirst()
+                .orElseThrow(() -> new RequisicaoInvalidaException("Pacote sem manifesto (manifesto.csv ou manifesto.json na raiz)"));
+
+        if (entrada.getSize() > MAX_MANIFESTO_BYTES) {
+            throw new RequisicaoInvalidaException("Manifesto muito grande (máx 10MB)");
+        }
+        try (InputStream stream = zip.getInputStream(entrada)) {
+            return lerManifesto(stream.readNBytes((int) MAX_MANIFESTO_BYTES + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ====== MANIFESTO ======
+
+    private List<Linha> lerManifesto(byte[] bytes) {
+        if (bytes.length > MAX_MANIFESTO_BYTES) {
+            throw new RequisicaoInvalidaException("Manifesto muito grande (máx 10MB)");
+        }
+        String conteudo = new String(bytes, StandardCharsets.UTF_8).strip();
+
+        if (conteudo.startsWith("\uFEFF")) {
+            conteudo = conteudo.substring(1);
+        }
+        if (conteudo.isEmpty()) {
+            throw new RequisicaoInvalidaException("Manifesto vazio");
+        }
+
+        List<Linha> linhas = conteudo.startsWith("[") ? lerJson(conteudo) : lerCsv(conteudo);
+
+        if (linhas.isEmpty()) {
+            throw new RequisicaoInvalidaException("Manifesto sem livros");
+        }
+        if (linhas.size() > MAX_LINHAS) {
+            throw new RequisicaoInvalidaException("Manifesto com mais de " + MAX_LINHAS + " livros");
+        }
+        return linhas;
+    }
+
+    private List<Linha> lerJson(String conteudo) {
+        List<ItemManifesto> itens;
+        try {
+            itens = jsonMapper.readValue(conteudo, new TypeReference<List<ItemManifesto>>() {});
+        } catch (JacksonException e) {
+            throw new RequisicaoInvalidaException("Manifesto JSON inválido: " + e.getOriginalMessage());
+        }
+
+        List<Linha> linhas = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            Linha linha = new Linha(i + 1);
+            if (itens.get(i) == null) {
+                linha.falhar("Linha vazia");
+            } else {
+                linha.item = itens.get(i);
+            }
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    /**
+     * CSV com cabeçalho (nomes dos campos de ItemManifesto, em qualquer ordem), separador vírgula
+     * e aspas duplas para valores com vírgula, aspas ou quebra de linha
+     */
+    private List<Linha> lerCsv(String conteudo) {
+        List<List<String>> registros = separarCsv(conteudo);
+
+        List<String> cabecalho = registros.getFirst().stream().map(String::strip).toList();
+        if (!cabecalho.contains("titulo") || !cabecalho.contains("arquivo")) {
+            throw new RequisicaoInvalidaException("Cabeçalho do CSV deve ter ao menos as colunas titulo e arquivo");
+        }
+
+        List<Linha> linhas = new ArrayList<>(registros.size() - 1);
+        for (int i = 1; i < registros.size(); i++) {
+            Map<String, String> campos = new HashMap<>();
+            List<String> valores = registros.get(i);
+            for (int c = 0; c < cabecalho.size() && c < valores.size(); c++) {
+                String valor = valores.get(c).strip();
+                campos.put(cabecalho.get(c), valor.isEmpty() ? null : valor);
+            }
+
+            Linha linha = new Linha(i);
+            try {
+                linha.item = new ItemManifesto(
+                        campos.get("titulo"),
+                        converter(campos.get("autorId"), UUID::fromString),
+                        campos.get("descricao"),
+                        campos.get("isbn"),
+                        campos.get("editora"),
+                        converter(campos.get("dataPublicacao"), LocalDate::parse),
+                        converter(campos.get("numeroPaginas"), Integer::valueOf),
+                        campos.get("idioma"),
+                        campos.get("arquivo"),
+                        campos.get("capa"));
+            } catch (RuntimeException e) {
+                linha.falhar("Valor inválido: " + e.getMessage());
+            }
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    private static List<List<String>> separarCsv(String conteudo) {
+        List<List<String>> registros = new ArrayList<>();
+        List<String> registro = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < conteudo.length(); i++) {
+            char c = conteudo.charAt(i);
+
+            if (entreAspas) {
+                if (c == '"' && i + 1 < conteudo.length() && conteudo.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                registro.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < conteudo.length() && conteudo.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                registro.add(campo.toString());
+                campo.setLength(0);
+                if (!(registro.size() == 1 && registro.getFirst().isBlank())) {
+                    registros.add(registro);
+                }
+                registro = new ArrayList<>();
+            } else {
+                campo.append(c);
+            }
+        }
+
+        if (entreAspas) {
+            throw new RequisicaoInvalidaException("Manifesto CSV inválido: aspas não fechadas");
+        }
+        registro.add(campo.toString());
+        if (!(registro.size() == 1 && registro.getFirst().isBlank())) {
+            registros.add(registro);
+        }
+        return registros;
+    }
+
+    private static <T> T converter(String valor, Function<String, T> conversor) {
+        return valor == null ? null : conversor.apply(valor);
+    }
+
+    // ====== VALIDAÇÃO ======
+
+    /**
+     * Anotações do item, ISBN repetido (no manifesto e no banco), autor existente e entradas no ZIP
+     */
+    private void validar(List<Linha> linhas, ZipFile zip) {
+        Map<String, Integer> primeiraLinhaPorIsbn = new HashMap<>();
+        Set<UUID> autorIds = new HashSet<>();
+
+        for (Linha linha : linhas) {
+            if (linha.erro != null) continue;
+
+            Set<ConstraintViolation<ItemManifesto>> violacoes = validator.validate(linha.item);
+            if (!violacoes.isEmpty()) {
+                linha.falhar(violacoes.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                continue;
+            }
+
+            String isbn = linha.item.isbn();
+            if (isbn != null) {
+                Integer anterior = primeiraLinhaPorIsbn.putIfAbsent(isbn, linha.numero);
+                if (anterior != null) {
+                    linha.falhar("ISBN repetido no manifesto (linha " + anterior + ")");
+                    continue;
+                }
+            }
+
+            autorIds.add(linha.item.autorId());
+            validarEntradas(linha, zip);
+        }
+
+        // Uma query para os ISBNs que o filtro não descartou e uma para todos os autores
+        List<String> isbnsSuspeitos = primeiraLinhaPorIsbn.keySet().stream()
+                .filter(filtroIsbns::talvezExista)
+                .toList();
+        Set<String> isbnsExistentes = isbnsSuspeitos.isEmpty()
+                ? Set.of()
+                : new HashSet<>(livroRepository.buscarIsbnsExistentes(isbnsSuspeitos));
+
+        Map<UUID, String> autores = autorIds.isEmpty()
+                ? Map.of()
+                : usuarioRepository.buscarResumosPorIds(autorIds).stream()
+                        .collect(Collectors.toMap(UsuarioResumo::id, UsuarioResumo::nome));
+
+        for (Linha linha : linhas) {
+            if (linha.erro != null) continue;
+
+            if (linha.item.isbn() != null && isbnsExistentes.contains(linha.item.isbn())) {
+                linha.falhar("ISBN já cadastrado");
+            } else if (!autores.containsKey(linha.item.autorId())) {
+                linha.falhar("Autor não encontrado: " + linha.item.autorId());
+            } else {
+                linha.autorNome = autores.get(linha.item.autorId());
+            }
+        }
+    }
+
+    private void validarEntradas(Linha linha, ZipFile zip) {
+        linha.entradaArquivo = zip.getEntry(linha.item.arquivo());
+        linha.contentTypeArquivo = TIPOS_ARQUIVO.get(extensao(linha.item.arquivo()));
+
+        if (linha.entradaArquivo == null || linha.entradaArquivo.isDirectory()) {
+            linha.falhar("Arquivo não encontrado no pacote: " + linha.item.arquivo());
+        } else if (linha.contentTypeArquivo == null) {
+            linha.falhar("Apenas PDF e EPUB são aceitos");
+        } else if (linha.entradaArquivo.getSize() <= 0) {
+            linha.falhar("Arquivo não pode ser vazio");
+        } else if (linha.entradaArquivo.getSize() > LivroService.TAMANHO_MAXIMO_ARQUIVO) {
+            linha.falhar("Arquivo muito grande (máx 50MB)");
+        }
+
+        String capa = linha.item.capa();
+        if (linha.erro != null || capa == null || capa.isBlank()) return;
+
+        linha.entradaCapa = zip.getEntry(capa);
+        linha.contentTypeCapa = TIPOS_CAPA.get(extensao(capa));
+
+        if (linha.entradaCapa == null || linha.entradaCapa.isDirectory()) {
+            linha.falhar("Capa não encontrada no pacote: " + capa);
+        } else if (linha.contentTypeCapa == null) {
+            linha.falhar("Apenas JPEG, PNG e WebP são aceitos para capas");
+        } else if (linha.entradaCapa.getSize() <= 0) {
+            linha.falhar("Capa não pode ser vazia");
+        } else if (linha.entradaCapa.getSize() > MAX_CAPA_BYTES) {
+            linha.falhar("Capa muito grande (máx 5MB)");
+        }
+    }
+
+    private static String extensao(String nome) {
+        int ponto = nome.lastIndexOf('.');
+        return ponto < 0 ? "" : nome.substring(ponto + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // ====== UPLOAD ======
+
+    /**
+     * Envia arquivo e capa de cada linha válida; uma virtual thread por linha, no máximo
+     * uploads-paralelos ao mesmo tempo (somando todas as importações em andamento)
+     */
+    private void enviarArquivos(List<Linha> linhas, ZipFile zip) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Linha linha : linhas) {
+                if (linha.erro == null) {
+                    executor.submit(() -> enviar(linha, zip));
+                }
+            }
+        }
+    }
+
+    private void enviar(Linha linha, ZipFile zip) {
+        try {
+            permissoesUpload.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            linha.falhar("Importação interrompida");
+            return;
+        }
+
+        try {
+            linha.arquivoKey = enviarEntrada(zip, linha.entradaArquivo, linha.contentTypeArquivo, "livros");
+            if (linha.entradaCapa != null) {
+                linha.capaKey = enviarEntrada(zip, linha.entradaCapa, linha.contentTypeCapa, "capas");
+            }
+        } catch (RuntimeException e) {
+            linha.falhar("Falha ao enviar arquivo para o MinIO");
+            removerObjetos(linha);
+        } finally {
+            permissoesUpload.release();
+        }
+    }
+
+    private String enviarEntrada(ZipFile zip, ZipEntry entrada, String contentType, String prefixo) {
+        // ZipFile aceita leituras concorrentes de entradas diferentes
+        try (InputStream stream = zip.getInputStream(entrada)) {
+            return minioService.uploadStream(stream, entrada.getSize(), contentType, entrada.getName(), prefixo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ====== PERSISTÊNCIA ======
+
+    /**
+     * Salva as linhas enviadas em lotes (INSERTs agrupados pelo driver, uma transação por lote)
+     * Se um lote falhar (ex.: ISBN cadastrado por outra requisição no meio tempo), o lote é
+     * refeito linha a linha para isolar a linha com problema
+     */
+    private void salvar(List<Linha> linhas) {
+        List<Linha> enviadas = linhas.stream().filter(l -> l.erro == null).toList();
+
+        for (int i = 0; i < enviadas.size(); i += TAMANHO_LOTE) {
+            List<Linha> lote = enviadas.subList(i, Math.min(i + TAMANHO_LOTE, enviadas.size()));
+            try {
+                List<Livro> livros = lote.stream().map(this::novoLivro).toList();
+                transactionTemplate.executeWithoutResult(status -> {
+                    // ISBNs no filtro antes do INSERT: cadastro concorrente do mesmo ISBN confere no banco
+                    livros.forEach(livro -> livroService.reservarIsbn(livro.getIsbn()));
+                    livroRepository.saveAll(livros);
+                });
+                for (int j = 0; j < lote.size(); j++) {
+                    lote.get(j).livro = livros.get(j);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Lote de importação falhou, salvando linha a linha: {}", e.getMessage());
+                lote.forEach(this::salvarLinha);
+            }
+        }
+    }
+
+    private void salvarLinha(Linha linha) {
+        try {
+            // Entidade nova: a do lote que falhou pode ter ficado com id/versão preenchidos
+            Livro livro = novoLivro(linha);
+            transactionTemplate.executeWithoutResult(status -> {
+                livroService.reservarIsbn(livro.getIsbn());
+                livroRepository.save(livro);
+            });
+            linha.livro = livro;
+        } catch (RuntimeException e) {
+            linha.falhar("Falha ao salvar livro (ISBN ou arquivo duplicado?)");
+            removerObjetos(linha);
+        }
+    }
+
+    private Livro novoLivro(Linha linha) {
+        ItemManifesto item = linha.item;
+        LocalDateTime agora = LivroService.agoraCapa();
+
+        Livro livro = new Livro();
+        livro.setTitulo(item.titulo());
+        livro.setDescricao(item.descricao());
+        livro.setIsbn(item.isbn());
+        livro.setEditora(item.editora());
+        livro.setDataPublicacao(item.dataPublicacao());
+        livro.setNumeroPaginas(item.numeroPaginas());
+        livro.setIdioma(item.idioma());
+        // Autor já conferido em validar(): referência sem SELECT
+        livro.setAutor(usuarioRepository.getReferenceById(item.autorId()));
+
+        livro.setArquivoKey(linha.arquivoKey);
+        livro.setTipoArquivo(TipoArquivo.fromContentType(linha.contentTypeArquivo));
+        livro.setTamanhoBytes(linha.entradaArquivo.getSize());
+        livro.setDataUpload(agora);
+
+        if (linha.capaKey != null) {
+            livro.setCapaKey(linha.capaKey);
+            livro.setCapaContentType(linha.contentTypeCapa);
+            livro.setCapaTamanhoBytes(linha.entradaCapa.getSize());
+            livro.setCapaDataUpload(agora);
+        }
+        return livro;
+    }
+
+    // ====== AUXILIARES ======
+
+    /**
+     * Desfaz os uploads de uma linha que não vai ser salva (falha aqui não muda o resultado da linha)
+     */
+    private void removerObjetos(Linha linha) {
+        for (String key : new String[]{linha.arquivoKey, linha.capaKey}) {
+            if (key == null) continue;
+            try {
+                minioService.deletarArquivo(key);
+            } catch (RuntimeException e) {
+                log.warn("Objeto órfão no MinIO após importação: {}", key);
+            }
+        }
+        linha.arquivoKey = null;
+        linha.capaKey = null;
+    }
+
+    private static void apagarTemporario(Path temporario) {
+        if (temporario == null) return;
+        try {
+            Files.deleteIfExists(temporario);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar o arquivo temporário {}", temporario);
+        }
+    }
+
+    /**
+     * Estado de uma linha ao longo da importação (cada linha é tocada por uma thread de upload por vez)
+     */
+    private static final class Linha {
+        final int numero;
+        ItemManifesto item;
+        String autorNome;
+        ZipEntry entradaArquivo;
+        ZipEntry entradaCapa;
+        String contentTypeArquivo;
+        String contentTypeCapa;
+        String arquivoKey;
+        String capaKey;
+        Livro livro;
+        String erro;
+
+        Linha(int numero) {
+            this.numero = numero;
+        }
+
+        void falhar(String motivo) {
+            if (erro == null) erro = motivo;
+        }
+
+        ResultadoLinha resultado() {
+            return new ResultadoLinha(numero,
+                    item == null ? null : item.titulo(),
+                    item == null ? null : item.isbn(),
+                    livro == null ? null : livro.getId(),
+                    erro);
+        }
+    }
+}
@@ -1,19 +1,59 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +62,24 @@ public class LivroService {
 
     private final LivroRepository livroRepository;
     private final MinioService minioService;
+    private final IndiceBuscaLivros indiceBusca;
+    private final IndiceSugestoes indiceSugestoes;
+    private final IndiceFacetas indiceFacetas;
+    private final FiltroIsbns filtroIsbns;
+    private final CacheLivros cacheLivros;
+    private final CacheArquivosDisco cacheArquivosDisco;
+    private final CacheCapas cacheCapas;
+    private final MiniaturasCapaService miniaturasCapa;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final TransactionTemplate transactionTemplate;
+
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+    // Também vale para os arquivos da importação em lote (ImportacaoLivrosService)
+    static final long TAMANHO_MAXIMO_ARQUIVO = 50L * 1024 * 1024;
+
+    // Capas abertas ao mesmo tempo por requisição de lote (só espera de fato quando vai ao MinIO)
+    @Value("${biblioteca.capas.lote.leituras-paralelas:8}")
+    private int leiturasParalelasCapas;
 
     @PostConstruct
     public void init() {
@@ -54,12 +112,17 @@ public class LivroService {
                 livro.setCapaKey(capaKey);
                 livro.setCapaContentType(capa.getContentType());
                 livro.setCapaTamanhoBytes(capa.getSize());
-                livro.setCapaDataUpload(LocalDateTime.now());
+                livro.setCapaDataUpload(agoraCapa());
             }
 
-            // 4. Salva no PostgreSQL
+            // 4. Salva no PostgreSQL (ISBN no filtro antes do INSERT, desfeito se a transação voltar)
+            reservarIsbn(livro.getIsbn());
             Livro livroSalvo = livroRepository.save(livro);
 
+            // 5. Atualiza os índices de busca, sugestões e facetas
+            indexarNovoLivro(livroSalvo, livroSalvo.getAutor().getId(), livroSalvo.getAutor().getNome());
+            geracaoCatalogo.avancar();
+
             log.info("Livro '{}' criado com sucesso! ID: {} | Autor: {} | Capa: {}",
                     livro.getTitulo(),
                     livroSalvo.getId(),
@@ -75,90 +138,271 @@ public class LivroService {
     }
 
     /**
-     * BUSCA livro por ID com autor carregado
+     * BUSCA livro por ID (snapshot imutável, servido pelo cache de leitura)
+     * Usado por detalhe, download, capa e links: a maioria das requisições não vai ao banco
      */
-    @Transactional(readOnly = true)
-    public Livro buscarPorId(UUID id) {
-        Livro livro = livroRepository.findById(id)
+    public LivroDetalhe buscarPorId(UUID id) {
+        return cacheLivros.buscar(id)
                 .orElseThrow(() -> new RuntimeException("Livro não encontrado: " + id));
+    }
+
+    /**
+     * Geração atual do catálogo (muda a cada criação, troca de arquivo ou remoção de livro)
+     * Usada nas ETags das páginas: mesma geração + mesmos parâmetros = mesma resposta
+     */
+    public long geracaoCatalogo() {
+        return geracaoCatalogo.atual();
+    }
+
+    /**
+     * LISTA uma página do catálogo por cursor (keyset) como projeção (livro + autor em uma query)
+     * aposData/aposId nulos = primeira página
+     */
+    @Transactional(readOnly = true)
+    public Slice<LivroResumo> listarPagina(LocalDateTime aposData, UUID aposId, int limite) {
+        Pageable pagina = PageRequest.of(0, Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA));
+
+        if (aposData == null || aposId == null) {
+            return livroRepository.buscarPrimeiraPagina(pagina);
+        }
+
+        return livroRepository.buscarPaginaApos(aposData, aposId, pagina);
+    }
 
-        // Força carregamento do autor (evita LazyInitializationException)
-        livro.getAutor().getNome();
+    /**
+     * EXPORTA o catálogo inteiro, entregando uma projeção por vez ao consumidor
+     * Memória constante: nada é acumulado em lista nem no contexto de persistência
+     */
+    @Transactional(readOnly = true)
+    public void exportarCatalogo(Consumer<LivroResumo> consumidor) {
+        try (Stream<LivroResumo> livros = livroRepository.streamCatalogo()) {
+            livros.forEach(consumidor);
+        }
+    }
 
-        return livro;
+    /**
+     * BUSCA textual no índice em memória (título, descrição, editora, autor), em ordem de relevância
+     */
+    @Transactional(readOnly = true)
+    public List<LivroResumo> buscarPorTexto(String consulta, int limite) {
+        return resumosNaOrdem(indiceBusca.buscar(consulta, Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA)));
     }
 
     /**
-     * LISTA todos os livros com autores
+     * Resultado do filtro facetado: página de livros, total filtrado e contagem por valor de cada faceta
+     */
+    public record CatalogoFiltrado(
+            List<LivroResumo> livros,
+            int total,
+            Map<IndiceFacetas.Faceta, Map<String, Integer>> contagens
+    ) {}
+
+    /**
+     * FILTRA o catálogo por facetas (idioma, tipo de arquivo, editora, ano) nos bitmaps em memória
+     * Só a página final vai ao banco; total e contagens saem das interseções dos bitmaps
      */
     @Transactional(readOnly = true)
-    public List<Livro> listarTodos() {
-        List<Livro> livros = livroRepository.findAll();
+    public CatalogoFiltrado filtrarCatalogo(Map<IndiceFacetas.Faceta, Set<String>> filtros, int offset, int limite) {
+        IndiceFacetas.Resultado resultado = indiceFacetas.filtrar(filtros,
+                Math.max(offset, 0), Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA));
+
+        return new CatalogoFiltrado(resumosNaOrdem(resultado.ids()), resultado.total(), resultado.contagens());
+    }
 
-        // Força carregamento dos autores
-        livros.forEach(livro -> livro.getAutor().getNome());
+    /**
+     * SUGESTÕES de títulos e autores para o texto digitado (autocomplete)
+     */
+    public List<IndiceSugestoes.Sugestao> sugerir(String prefixo, int limite) {
+        return indiceSugestoes.sugerir(prefixo, Math.clamp(limite, 1, IndiceSugestoes.TOP_K));
+    }
 
-        return livros;
+    /**
+     * BUSCA livros por autor (projeção, sem carregar entidades)
+     */
+    @Transactional(readOnly = true)
+    public List<LivroResumo> buscarPorAutor(UUID autorId) {
+        return livroRepository.buscarResumoPorAutor(autorId);
     }
 
     /**
-     * BUSCA livros por autor
+     * BUSCA os livros de vários autores em uma query, agrupados por autor
+     * Usado na listagem de usuários: uma query por página, não uma por usuário
      */
     @Transactional(readOnly = true)
-    public List<Livro> buscarPorAutor(UUID autorId) {
-        return livroRepository.findByAutorId(autorId);
+    public Map<UUID, List<LivroResumo>> buscarPorAutores(Collection<UUID> autorIds) {
+        if (autorIds.isEmpty()) return Map.of();
+
+        return livroRepository.buscarResumosPorAutores(autorIds)
+                .stream()
+                .collect(Collectors.groupingBy(LivroResumo::autorId));
     }
 
     /**
      * FAZ DOWNLOAD do arquivo do livro (PDF/EPUB)
      */
     public InputStream downloadArquivo(UUID livroId) {
-        Livro livro = buscarPorId(livroId);
+        LivroDetalhe livro = buscarPorId(livroId);
 
         if (!livro.temArquivo()) {
             throw new RuntimeException("Livro não possui arquivo disponível");
         }
 
-        return minioService.downloadArquivo(livro.getArquivoKey());
+        return minioService.downloadArquivo(livro.arquivoKey());
     }
 
     /**
-     * FAZ DOWNLOAD da capa do livro
+     * ESCREVE um trecho do arquivo na saída (requisições com Range, ex.: leitor de PDF)
+     * Passa pelo cache em disco; a versão (data do upload + tamanho) separa arquivos substituídos
      */
-    public InputStream downloadCapa(UUID livroId) {
-        Livro livro = buscarPorId(livroId);
+    public void copiarArquivo(UUID livroId, long inicio, long tamanho, OutputStream saida) throws IOException {
+        LivroDetalhe livro = buscarPorId(livroId);
+
+        if (!livro.temArquivo()) {
+            throw new RuntimeException("Livro não possui arquivo disponível");
+        }
+
+        String versao = livro.dataUpload() + "-" + livro.tamanhoBytes();
+        cacheArquivosDisco.copiar(livro.arquivoKey(), versao, inicio, tamanho, saida);
+    }
+
+    /**
+     * Capa aberta para envio; largura null = original (contentType do upload), senão miniatura JPEG
+     * definitiva = é a resposta final para a largura pedida nesta versão da capa (pode ir com cache imutável);
+     * false quando a original foi servida porque a miniatura ainda não foi gerada ou falhou
+     */
+    public record CapaServida(InputStream conteudo, String contentType, Integer largura, boolean definitiva) {}
+
+    /**
+     * FAZ DOWNLOAD da capa do livro (servida da memória nativa do CacheCapas depois da primeira vez)
+     * Com larguraPedida: a menor miniatura pronta que cobre a largura; sem miniatura, a original
+     */
+    public CapaServida downloadCapa(UUID livroId, Integer larguraPedida) {
+        LivroDetalhe livro = buscarPorId(livroId);
 
         if (!livro.temCapa()) {
             throw new RuntimeException("Livro não possui capa disponível");
         }
 
-        return minioService.downloadArquivo(livro.getCapaKey());
+        return abrirCapa(livroId, livro.capaKey(), livro.capaContentType(),
+                livro.capaVersao(), livro.capaMiniaturas(), larguraPedida);
+    }
+
+    /**
+     * Dados de capa de um lote de livros, em uma query (ids inexistentes ou sem capa ficam de fora)
+     */
+    public List<CapaLivro> buscarCapas(Collection<UUID> ids) {
+        if (ids.isEmpty() || ids.size() > LIMITE_MAXIMO_PAGINA) {
+            throw new RequisicaoInvalidaException("Informe de 1 a " + LIMITE_MAXIMO_PAGINA + " livros");
+        }
+        return livroRepository.buscarCapasPorIds(ids);
+    }
+
+    public record CapaDoLote(CapaLivro livro, CapaServida capa) {}
+
+    /**
+     * ABRE as capas do lote em paralelo (virtual threads, até biblioteca.capas.lote.leituras-paralelas por requisição)
+     * e entrega cada uma ao consumidor assim que fica pronta, na ordem em que ficam prontas
+     * O stream da capa é fechado depois do consumidor; capa que falhou ao abrir fica de fora
+     */
+    public void lerCapas(List<CapaLivro> capas, Integer larguraPedida, Consumer<CapaDoLote> consumidor) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(leiturasParalelasCapas, 1), Thread.ofVirtual().name("capas-lote-", 0).factory())) {
+            CompletionService<CapaDoLote> prontas = new ExecutorCompletionService<>(executor);
+            capas.forEach(livro -> prontas.submit(() -> new CapaDoLote(livro, abrirCapa(livro.id(), livro.capaKey(),
+                    livro.capaContentType(), livro.capaVersao(), livro.capaMiniaturas(), larguraPedida))));
+
+            int restantes = capas.size();
+            try {
+                for (; restantes > 0; restantes--) {
+                    CapaDoLote capa = resultado(prontas.take());
+                    if (capa == null) continue;
+
+                    try (InputStream conteudo = capa.capa().conteudo()) {
+                        consumidor.accept(capa);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Leitura das capas interrompida", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                // Cliente desconectou no meio: espera as leituras em andamento e fecha as capas que não saíram
+                // (senão a memória nativa delas nunca é devolvida)
+                if (restantes > 0) {
+                    executor.shutdownNow();
+                    executor.close();
+                    for (Future<CapaDoLote> pronta; (pronta = prontas.poll()) != null; ) {
+                        fecharSemErro(pronta);
+                    }
+                }
+            }
+        }
+    }
+
+    private CapaDoLote resultado(Future<CapaDoLote> pronta) throws InterruptedException {
+        try {
+            return pronta.get();
+        } catch (ExecutionException | CancellationException e) {
+            log.warn("Capa do lote indisponível: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        }
+    }
+
+    private static void fecharSemErro(Future<CapaDoLote> pronta) {
+        if (pronta.state() != Future.State.SUCCESS) return;
+        try {
+            pronta.resultNow().capa().conteudo().close();
+        } catch (IOException ignorada) {
+            // stream em memória; fechar só devolve a referência da capa
+        }
+    }
+
+    /**
+     * Com larguraPedida: a menor miniatura pronta que cobre a largura; sem miniatura (ou se ela falhar), a original
+     * A original só é definitiva para ?w= depois que a geração terminou (senão a miniatura ainda vai existir)
+     */
+    private CapaServida abrirCapa(UUID livroId, String capaKey, String contentType,
+                                  String versao, String miniaturas, Integer larguraPedida) {
+        Integer largura = MiniaturasCapaService.escolher(miniaturas, larguraPedida);
+        if (largura != null) {
+            String chave = MiniaturasCapaService.chave(livroId, versao, largura);
+            try {
+                return new CapaServida(cacheCapas.abrir(livroId, versao, largura, chave), MiniaturasCapaService.CONTENT_TYPE, largura, true);
+            } catch (RuntimeException e) {
+                log.warn("Miniatura '{}' indisponível, servindo a capa original: {}", chave, e.getMessage());
+                return new CapaServida(cacheCapas.abrir(livroId, versao, capaKey), contentType, null, false);
+            }
+        }
+
+        boolean definitiva = larguraPedida == null || MiniaturasCapaService.concluidas(miniaturas);
+        return new CapaServida(cacheCapas.abrir(livroId, versao, capaKey), contentType, null, definitiva);
     }
 
     /**
      * GERA URL temporária para download do arquivo
      */
     public String gerarLinkDownload(UUID livroId) {
-        Livro livro = buscarPorId(livroId);
+        LivroDetalhe livro = buscarPorId(livroId);
 
         if (!livro.temArquivo()) {
             throw new RuntimeException("Livro não possui arquivo disponível");
         }
 
-        return minioService.gerarUrlDownload(livro.getArquivoKey());
+        return minioService.gerarUrlDownload(livro.arquivoKey());
     }
 
     /**
      * GERA URL temporária para visualização da capa
      */
     public String gerarLinkCapa(UUID livroId) {
-        Livro livro = buscarPorId(livroId);
+        LivroDetalhe livro = buscarPorId(livroId);
 
         if (!livro.temCapa()) {
             throw new RuntimeException("Livro não possui capa disponível");
         }
 
-        return minioService.gerarUrlDownload(livro.getCapaKey());
+        return minioService.gerarUrlDownload(livro.capaKey());
     }
 
     /**
@@ -166,7 +410,7 @@ public class LivroService {
      */
     @Transactional
     public void atualizarArquivo(UUID livroId, MultipartFile arquivo) {
-        Livro livro = buscarPorId(livroId);
+        Livro livro = buscarParaAlterar(livroId);
 
         if (!livro.temArquivo()) {
             throw new RuntimeException("Não existe arquivo no post desse livro");
@@ -174,24 +418,80 @@ public class LivroService {
 
         validarArquivo(arquivo);
 
-        // Atualiza o arquivo no MinIO
+        // Atualiza o arquivo no MinIO (mesmo objeto: as cópias locais da versão anterior saem do disco)
         livro.setArquivoKey(minioService.atualizarArquivo(livro.getArquivoKey(), arquivo));
+        cacheArquivosDisco.invalidar(livro.getArquivoKey());
         livro.setTipoArquivo(TipoArquivo.fromContentType(arquivo.getContentType()));
         livro.setTamanhoBytes(arquivo.getSize());
         livro.setDataUpload(LocalDateTime.now());
 
         livroRepository.save(livro);
+        depoisDoCommit(() -> indexarFacetas(livro));
+        cacheLivros.invalidar(livroId);
+        geracaoCatalogo.avancar();
         log.info("Arquivo do livro '{}' atualizado com sucesso!", livro.getTitulo());
     }
 
+    /**
+     * ATUALIZA o arquivo do livro em STREAMING: o corpo vai direto para o MinIO em partes
+     *
+     * - Tipo e tamanho declarado validados antes de ler o corpo
+     * - Upload fora de transação (não prende conexão do banco enquanto o arquivo chega)
+     * - Grava em uma chave nova e só então troca no banco; o arquivo antigo sai depois do commit,
+     *   então uma falha no meio do upload deixa o livro intacto
+     */
+    public void atualizarArquivoStreaming(UUID livroId, InputStream corpo, String contentType, long tamanhoDeclarado) {
+        Livro livro = buscarParaAlterar(livroId);
+
+        if (!livro.temArquivo()) {
+            throw new RuntimeException("Não existe arquivo no post desse livro");
+        }
+
+        validarTipoArquivo(contentType);
+        if (tamanhoDeclarado > TAMANHO_MAXIMO_ARQUIVO) {
+            throw new RequisicaoInvalidaException("Arquivo muito grande (máx 50MB)");
+        }
+
+        TipoArquivo tipo = TipoArquivo.fromContentType(contentType);
+        MinioService.UploadStreaming upload = minioService.uploadStreaming(corpo, contentType,
+                "arquivo." + tipo.name().toLowerCase(), "livros", TAMANHO_MAXIMO_ARQUIVO);
+
+        String chaveAntiga;
+        try {
+            chaveAntiga = transactionTemplate.execute(status -> {
+                Livro atual = buscarParaAlterar(livroId);
+                String anterior = atual.getArquivoKey();
+
+                atual.setArquivoKey(upload.chave());
+                atual.setTipoArquivo(tipo);
+                atual.setTamanhoBytes(upload.tamanho());
+                atual.setDataUpload(LocalDateTime.now());
+                livroRepository.save(atual);
+
+                depoisDoCommit(() -> indexarFacetas(atual));
+                cacheLivros.invalidar(livroId);
+                geracaoCatalogo.avancar();
+                return anterior;
+            });
+        } catch (RuntimeException e) {
+            minioService.deletarArquivo(upload.chave());
+            throw e;
+        }
+
+        minioService.deletarArquivo(chaveAntiga);
+        cacheArquivosDisco.invalidar(chaveAntiga);
+        log.info("Arquivo do livro '{}' atualizado em streaming ({} bytes)", livro.getTitulo(), upload.tamanho());
+    }
+
     /**
      * ATUALIZA a capa do livro
      */
     @Transactional
     public void atualizarCapa(UUID livroId, MultipartFile capa) {
-        Livro livro = buscarPorId(livroId);
+        Livro livro = buscarParaAlterar(livroId);
 
         validarCapa(capa);
+        List<String> miniaturasAntigas = MiniaturasCapaService.chaves(livroId, livro.getCapaDataUpload(), livro.getCapaMiniaturas());
 
         // Se já existe capa, atualiza. Se não existe, faz upload novo
         if (livro.temCapa()) {
@@ -203,9 +503,18 @@ public class LivroService {
 
         livro.setCapaContentType(capa.getContentType());
         livro.setCapaTamanhoBytes(capa.getSize());
-        livro.setCapaDataUpload(LocalDateTime.now());
+        livro.setCapaDataUpload(agoraCapa());
+        livro.setCapaMiniaturas(null);
+        livro.setCapaPlaceholder(null);
 
         livroRepository.save(livro);
+        cacheLivros.invalidar(livroId);
+        cacheCapas.invalidar(livroId);
+        geracaoCatalogo.avancar();
+
+        // Nova versão da capa = novas miniaturas (chaves novas); as da versão anterior saem do MinIO
+        deletarMiniaturas(miniaturasAntigas);
+        miniaturasCapa.agendar(livroId, livro.getCapaKey(), livro.getCapaDataUpload());
         log.info("Capa do livro '{}' atualizada com sucesso!", livro.getTitulo());
     }
 
@@ -214,22 +523,28 @@ public class LivroService {
      */
     @Transactional
     public void removerCapa(UUID livroId) {
-        Livro livro = buscarPorId(livroId);
+        Livro livro = buscarParaAlterar(livroId);
 
         if (!livro.temCapa()) {
             throw new RuntimeException("Livro não possui capa para remover");
         }
 
-        // Remove do MinIO
+        // Remove do MinIO (capa + miniaturas)
         minioService.deletarArquivo(livro.getCapaKey());
+        deletarMiniaturas(MiniaturasCapaService.chaves(livroId, livro.getCapaDataUpload(), livro.getCapaMiniaturas()));
 
         // Remove referências do banco
         livro.setCapaKey(null);
         livro.setCapaContentType(null);
         livro.setCapaTamanhoBytes(null);
         livro.setCapaDataUpload(null);
+        livro.setCapaMiniaturas(null);
+        livro.setCapaPlaceholder(null);
 
         livroRepository.save(livro);
+        cacheLivros.invalidar(livroId);
+        cacheCapas.invalidar(livroId);
+        geracaoCatalogo.avancar();
         log.info("Capa do livro '{}' removida com sucesso!", livro.getTitulo());
     }
 
@@ -238,46 +553,222 @@ public class LivroService {
      */
     @Transactional
     public void deletarLivro(UUID id) {
-        Livro livro = buscarPorId(id);
+        Livro livro = buscarParaAlterar(id);
 
         // 1. Deleta arquivo do MinIO
         if (livro.temArquivo()) {
             minioService.deletarArquivo(livro.getArquivoKey());
         }
 
-        // 2. Deleta capa do MinIO
+        // 2. Deleta capa e miniaturas do MinIO
         if (livro.temCapa()) {
             minioService.deletarArquivo(livro.getCapaKey());
+            deletarMiniaturas(MiniaturasCapaService.chaves(id, livro.getCapaDataUpload(), livro.getCapaMiniaturas()));
         }
 
         // 3. Deleta do PostgreSQL
         livroRepository.delete(livro);
 
+        // 4. Remove dos índices de busca, sugestões e facetas e do cache de leitura
+        removerDosIndices(id, livro.getIsbn(), livro.getArquivoKey());
+        geracaoCatalogo.avancar();
+
         log.info("Livro '{}' deletado completamente (arquivo + capa)!", livro.getTitulo());
     }
 
+    /**
+     * Chaves de todos os livros do autor, em páginas por id (chamado antes de excluir o autor)
+     */
+    @Transactional(readOnly = true)
+    public List<ChavesLivro> buscarChavesDoAutor(UUID autorId) {
+        List<ChavesLivro> chaves = new ArrayList<>();
+        UUID aposId = new UUID(0, 0);
+        List<ChavesLivro> pagina;
+        while (!(pagina = livroRepository.buscarChavesPorAutor(autorId, aposId, PageRequest.of(0, 500))).isEmpty()) {
+            chaves.addAll(pagina);
+            aposId = pagina.getLast().id();
+        }
+        return chaves;
+    }
+
+    /**
+     * Livros apagados no banco sem passar por deletarLivro (cascade de Usuario.livros na exclusão do autor)
+     * Índices, filtro e caches pelo mesmo caminho; arquivos, capas e miniaturas saem do MinIO só depois
+     * do commit (se a exclusão voltar, os livros continuam com os objetos)
+     */
+    public void removerLivrosExcluidos(List<ChavesLivro> livros) {
+        if (livros.isEmpty()) return;
+
+        List<String> objetos = new ArrayList<>(livros.size() * 2);
+        for (ChavesLivro livro : livros) {
+            removerDosIndices(livro.id(), livro.isbn(), livro.arquivoKey());
+            objetos.addAll(livro.objetos());
+        }
+        geracaoCatalogo.avancar();
+
+        depoisDoCommit(() -> {
+            try {
+                List<String> falhas = minioService.deletarArquivos(objetos);
+                if (!falhas.isEmpty()) {
+                    log.warn("{} objetos de livros excluídos ficaram órfãos no MinIO", falhas.size());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Objetos de {} livros excluídos não foram removidos do MinIO: {}", livros.size(), e.getMessage());
+            }
+        });
+    }
+
+    // ====== AUXILIARES ======
+
+    /**
+     * Entidade gerenciada para os fluxos de escrita (nunca vem do cache de leitura)
+     */
+    private Livro buscarParaAlterar(UUID id) {
+        return livroRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Livro não encontrado: " + id));
+    }
+
+    /**
+     * Projeções dos ids em uma query; o IN não preserva ordem, então reordena pela lista recebida
+     */
+    private List<LivroResumo> resumosNaOrdem(List<UUID> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<UUID, LivroResumo> porId = livroRepository.buscarResumosPorIds(ids)
+                .stream()
+                .collect(Collectors.toMap(LivroResumo::id, Function.identity()));
+
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Coloca o ISBN no filtro já, dentro da transação que vai gravar o livro (desfeito se ela voltar)
+     * Antes do commit: um ISBN a mais só custa uma ida ao banco; um a menos vira 500 no lugar do 409
+     * Também usado pela importação em lote, dentro da transação de cada lote
+     */
+    void reservarIsbn(String isbn) {
+        filtroIsbns.adicionar(isbn);
+        seVoltar(() -> filtroIsbns.remover(isbn));
+    }
+
+    /**
+     * Coloca um livro recém-salvo nos índices de busca, sugestões e facetas (depois do commit)
+     * e agenda as miniaturas da capa; o ISBN já entrou no filtro por reservarIsbn
+     * Também usado pela importação em lote (autor vem da projeção, a entidade só tem a referência)
+     */
+    void indexarNovoLivro(Livro livro, UUID autorId, String autorNome) {
+        depoisDoCommit(() -> {
+            indiceBusca.indexar(livro.getId(), livro.getTitulo(), livro.getDescricao(), livro.getEditora(), autorNome);
+            indiceSugestoes.adicionarLivro(livro.getId(), livro.getTitulo(), autorId, autorNome);
+            indexarFacetas(livro);
+        });
+
+        if (livro.temCapa()) {
+            miniaturasCapa.agendar(livro.getId(), livro.getCapaKey(), livro.getCapaDataUpload());
+        }
+    }
+
+    /**
+     * Data do upload da capa na precisão do banco (micros): o registro das miniaturas compara exatamente este valor
+     */
+    static LocalDateTime agoraCapa() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Miniaturas que não saírem do MinIO viram só objetos órfãos: não impedem a operação
+     */
+    private void deletarMiniaturas(List<String> chaves) {
+        try {
+            minioService.deletarArquivos(chaves);
+        } catch (RuntimeException e) {
+            log.warn("Miniaturas {} não foram removidas do MinIO: {}", chaves, e.getMessage());
+        }
+    }
+
+    /**
+     * Tira um livro excluído dos índices, do filtro de ISBNs, do cache de leitura, das capas e do disco
+     * (também usado pela exclusão em lote)
+     * Índices e filtro só depois do commit: uma exclusão que volta não pode sumir com o livro da busca
+     * nem deixar o filtro negar um ISBN que continua no banco
+     */
+    void removerDosIndices(UUID id, String isbn, String arquivoKey) {
+        depoisDoCommit(() -> {
+            indiceBusca.remover(id);
+            filtroIsbns.remover(isbn);
+            indiceSugestoes.removerLivro(id);
+            indiceFacetas.remover(id);
+        });
+        cacheLivros.invalidar(id);
+        cacheCapas.invalidar(id);
+        cacheArquivosDisco.invalidar(arquivoKey);
+    }
+
+    private void indexarFacetas(Livro livro) {
+        indiceFacetas.indexar(livro.getId(), livro.getIdioma(), livro.getTipoArquivo(),
+                livro.getEditora(), livro.getDataPublicacao());
+    }
+
+    /**
+     * Roda depois do commit, se houver transação ativa; sem transação, na hora (o banco já está gravado)
+     */
+    private static void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    /**
+     * Desfaz uma alteração feita em memória antes do commit, se a transação ativa voltar
+     */
+    private static void seVoltar(Runnable desfazer) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        desfazer.run();
+                    }
+                }
+            });
+        }
+    }
+
     // ====== VALIDAÇÕES ======
 
     private void validarArquivo(MultipartFile arquivo) {
         if (arquivo.isEmpty()) {
-            throw new IllegalArgumentException("Arquivo não pode ser vazio");
+            throw new RequisicaoInvalidaException("Arquivo não pode ser vazio");
         }
 
-        String contentType = arquivo.getContentType();
-        if (!contentType.equals("application/pdf") &&
-                !contentType.equals("application/epub+zip")) {
-            throw new IllegalArgumentException("Apenas PDF e EPUB são aceitos");
-        }
+        validarTipoArquivo(arquivo.getContentType());
 
         // Limite de 50MB
-        if (arquivo.getSize() > 50 * 1024 * 1024) {
-            throw new IllegalArgumentException("Arquivo muito grande (máx 50MB)");
+        if (arquivo.getSize() > TAMANHO_MAXIMO_ARQUIVO) {
+            throw new RequisicaoInvalidaException("Arquivo muito grande (máx 50MB)");
+        }
+    }
+
+    private void validarTipoArquivo(String contentType) {
+        if (!"application/pdf".equals(contentType) &&
+                !"application/epub+zip".equals(contentType)) {
+            throw new RequisicaoInvalidaException("Apenas PDF e EPUB são aceitos");
         }
     }
 
     private void validarCapa(MultipartFile capa) {
         if (capa.isEmpty()) {
-            throw new IllegalArgumentException("Capa não pode ser vazia");
+            throw new RequisicaoInvalidaException("Capa não pode ser vazia");
         }
 
         String contentType = capa.getContentType();
@@ -285,23 +776,25 @@ public class LivroService {
                 (!contentType.equals("image/jpeg") &&
                         !contentType.equals("image/png") &&
                         !contentType.equals("image/webp"))) {
-            throw new IllegalArgumentException("Apenas JPEG, PNG e WebP são aceitos para capas");
+            throw new RequisicaoInvalidaException("Apenas JPEG, PNG e WebP são aceitos para capas");
         }
 
         // Limite de 5MB para imagens
         if (capa.getSize() > 5 * 1024 * 1024) {
-            throw new IllegalArgumentException("Capa muito grande (máx 5MB)");
+            throw new RequisicaoInvalidaException("Capa muito grande (máx 5MB)");
         }
     }
 
     private void validarLivro(Livro livro) {
         if (livro.getAutor() == null) {
-            throw new IllegalArgumentException("Livro deve ter um autor");
+            throw new RequisicaoInvalidaException("Livro deve ter um autor");
         }
 
+        // Filtro em memória descarta a maioria dos ISBNs novos sem ir ao banco
         if (livro.getIsbn() != null &&
+                filtroIsbns.talvezExista(livro.getIsbn()) &&
                 livroRepository.existsByIsbn(livro.getIsbn())) {
-            throw new IllegalArgumentException("ISBN já cadastrado");
+            throw new RequisicaoInvalidaException("ISBN já cadastrado");
         }
     }
 }
\ No newline at end of file
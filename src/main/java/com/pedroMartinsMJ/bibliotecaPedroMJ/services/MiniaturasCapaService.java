@@ -0,0 +1,461 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MINIATURAS das capas (JPEG em larguras fixas), geradas em segundo plano depois do upload
+ *
+ * - Larguras em biblioteca.capas.miniaturas.larguras; só as menores que a original são geradas
+ * - Chave no MinIO inclui a versão da capa (capas/miniaturas/{livro}/{versao}-w{largura}.jpg):
+ *   objeto nunca muda depois de escrito, então pode ser servido com cache imutável
+ * - Livro.capaMiniaturas só é gravado se a capa ainda for a mesma versão; senão as miniaturas
+ *   recém-geradas são apagadas (capa trocada ou removida enquanto gerava)
+ * - capaMiniaturas null = geração ainda não terminou; "" = terminou sem miniaturas (capa pequena, sem
+ *   leitor, ilegível ou acima de maximo-pixels): só depois disso a resposta de ?w= é definitiva e pode
+ *   ir com cache imutável
+ * - Falha transitória (MinIO ou banco): fica null e o reprocessamento tenta de novo; depois de
+ *   MAX_TENTATIVAS falhas seguidas desiste e grava ""
+ * - Reprocessamento periódico (biblioteca.capas.miniaturas.reprocessar-intervalo, e logo após o startup):
+ *   livros com capa e capaMiniaturas null, ou seja, anteriores às miniaturas ou com falha transitória
+ * - Pool pequeno de threads de plataforma: decodificar/redimensionar é CPU pura
+ * - Placeholder (BlurHash, ~30 caracteres) calculado na mesma passada e gravado junto:
+ *   vai no JSON do catálogo para o card ser pintado antes da capa chegar
+ * - WebP: o ImageIO do JDK não lê nem escreve; capas WebP ficam só com a original
+ */
+@Service
+@Slf4j
+public class MiniaturasCapaService {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    // Falhas transitórias seguidas da mesma versão da capa antes de desistir (e gravar "")
+    private static final int MAX_TENTATIVAS = 5;
+
+    private final MinioService minioService;
+    private final LivroRepository livroRepository;
+    private final CacheLivros cacheLivros;
+    private final GeracaoCatalogo geracaoCatalogo;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Integer> larguras;
+    private final float qualidade;
+    private final long maximoPixels;
+    private final int loteReprocessamento;
+    private final ExecutorService executor;
+
+    // Versões de capa (livro:versão) na fila ou gerando: upload e reprocessamento não geram a mesma duas vezes
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> falhasTransitorias = new ConcurrentHashMap<>();
+
+    public MiniaturasCapaService(MinioService minioService,
+                                 LivroRepository livroRepository,
+                                 CacheLivros cacheLivros,
+                                 GeracaoCatalogo geracaoCatalogo,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${biblioteca.capas.miniaturas.larguras:160,320,640}") List<Integer> larguras,
+                                 @Value("${biblioteca.capas.miniaturas.qualidade:0.8}") float qualidade,
+                                 @Value("${biblioteca.capas.miniaturas.maximo-pixels:40000000}") long maximoPixels,
+                                 @Value("${biblioteca.capas.miniaturas.threads:2}") int threads,
+                                 @Value("${biblioteca.capas.miniaturas.reprocessar-lote:200}") int loteReprocessamento) {
+        this.minioService = minioService;
+        this.livroRepository = livroRepository;
+        this.cacheLivros = cacheLivros;
+        this.geracaoCatalogo = geracaoCatalogo;
+        this.transactionTemplate = transactionTemplate;
+        this.larguras = larguras.stream().sorted().distinct().toList();
+        this.qualidade = qualidade;
+        this.maximoPixels = maximoPixels;
+        this.loteReprocessamento = Math.max(1, loteReprocessamento);
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("miniaturas-capa-", 0).factory());
+    }
+
+    /**
+     * AGENDA a geração das miniaturas da capa (depois do commit, se houver transação ativa)
+     */
+    public void agendar(UUID livroId, String capaKey, LocalDateTime capaDataUpload) {
+        Runnable tarefa = () -> submeter(livroId, capaKey, capaDataUpload);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tarefa.run();
+                }
+            });
+        } else {
+            tarefa.run();
+        }
+    }
+
+    /**
+     * REPROCESSA capas sem geração concluída: livros de antes das miniaturas e falhas transitórias
+     * Um lote por execução (reprocessar-lote), na mesma fila dos uploads; o que já está gerando é pulado
+     */
+    @Scheduled(initialDelayString = "${biblioteca.capas.miniaturas.reprocessar-atraso:1m}",
+            fixedDelayString = "${biblioteca.capas.miniaturas.reprocessar-intervalo:15m}")
+    public void reprocessarPendentes() {
+        List<CapaLivro> pendentes = livroRepository.buscarCapasSemMiniaturas(PageRequest.of(0, loteReprocessamento));
+
+        int agendadas = 0;
+        for (CapaLivro capa : pendentes) {
+            if (submeter(capa.id(), capa.capaKey(), capa.capaDataUpload())) agendadas++;
+        }
+        if (agendadas > 0) {
+            log.info("Reprocessamento de miniaturas: {} capas pendentes agendadas", agendadas);
+        }
+    }
+
+    /**
+     * Largura da miniatura que atende o pedido: a menor pronta com largura >= pedida
+     * Null = servir a original (sem miniaturas, sem largura pedida ou maior que todas)
+     */
+    public static Integer escolher(String miniaturas, Integer larguraPedida) {
+        if (miniaturas == null || miniaturas.isEmpty() || larguraPedida == null) return null;
+
+        for (int largura : larguras(miniaturas)) {
+            if (largura >= larguraPedida) return largura;
+        }
+        return null;
+    }
+
+    /**
+     * Geração das miniaturas desta versão da capa já terminou (com ou sem miniaturas)
+     */
+    public static boolean concluidas(String miniaturas) {
+        return miniaturas != null;
+    }
+
+    public static String chave(UUID livroId, String versaoCapa, int largura) {
+        return "capas/miniaturas/" + livroId + "/" + versaoCapa + "-w" + largura + ".jpg";
+    }
+
+    /**
+     * Chaves de todas as miniaturas registradas para a versão da capa (para apagar junto com ela)
+     */
+    public static List<String> chaves(UUID livroId, LocalDateTime capaDataUpload, String miniaturas) {
+        if (miniaturas == null || capaDataUpload == null) return List.of();
+
+        String versao = Livro.versaoCapa(capaDataUpload);
+        return Arrays.stream(larguras(miniaturas)).mapToObj(largura -> chave(livroId, versao, largura)).toList();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // ====== GERAÇÃO ======
+
+    /**
+     * Põe a geração na fila, a não ser que esta versão da capa já esteja lá (false)
+     */
+    private boolean submeter(UUID livroId, String capaKey, LocalDateTime capaDataUpload) {
+        String tarefa = livroId + ":" + Livro.versaoCapa(capaDataUpload);
+        if (!emAndamento.add(tarefa)) return false;
+
+        try {
+            executor.execute(() -> {
+                try {
+                    gerar(livroId, capaKey, capaDataUpload);
+                } finally {
+                    emAndamento.remove(tarefa);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            emAndamento.remove(tarefa);
+            throw e;
+        }
+    }
+
+    private void gerar(UUID livroId, String capaKey, LocalDateTime capaDataUpload) {
+        long inicio = System.nanoTime();
+        String versao = Livro.versaoCapa(capaDataUpload);
+        String tentativas = livroId + ":" + versao;
+        List<String> enviadas = new ArrayList<>();
+        List<Integer> geradas = new ArrayList<>();
+
+        try {
+            byte[] bytes;
+            try (InputStream entrada = minioService.downloadArquivo(capaKey)) {
+                bytes = entrada.readAllBytes();
+            }
+
+            BufferedImage original;
+            try {
+                original = decodificar(bytes);
+            } catch (RuntimeException | IOException e) {
+                // Tentar de novo dá o mesmo resultado: registra "" e a original passa a ser a resposta definitiva
+                log.warn("Capa '{}' do livro {} não pôde ser decodificada ({}): sem miniaturas", capaKey, livroId, e.getMessage());
+                original = null;
+            }
+            String placeholder = null;
+
+            if (original == null) {
+                // Registrado igual (""): a original é a resposta definitiva para qualquer largura
+                log.info("Capa '{}' sem leitor no ImageIO (ex.: WebP) ou ilegível: sem miniaturas", capaKey);
+            } else {
+                placeholder = blurHash(redimensionar(original, Math.min(LARGURA_PLACEHOLDER, original.getWidth())));
+
+                for (int largura : larguras) {
+                    if (largura >= original.getWidth()) break;
+
+                    String chave = chave(livroId, versao, largura);
+                    minioService.uploadBytes(chave, jpeg(redimensionar(original, largura)), CONTENT_TYPE);
+                    enviadas.add(chave);
+                    geradas.add(largura);
+                }
+            }
+
+            // Capa menor que todas as larguras: "" (sem miniaturas), mas o placeholder é gravado igual
+            String miniaturas = String.join(",", geradas.stream().map(String::valueOf).toList());
+            String registrado = placeholder;
+            if (registrar(livroId, capaDataUpload, miniaturas, registrado, enviadas)) {
+                log.info("Miniaturas {} e placeholder da capa do livro {} gerados em {} ms",
+                        miniaturas, livroId, (System.nanoTime() - inicio) / 1_000_000);
+            }
+            falhasTransitorias.remove(tentativas);
+
+        } catch (RuntimeException | IOException e) {
+            try {
+                minioService.deletarArquivos(enviadas);
+            } catch (RuntimeException ignorada) {
+                // objetos órfãos; a capa original continua servindo
+            }
+
+            int falhas = falhasTransitorias.merge(tentativas, 1, Integer::sum);
+            if (falhas < MAX_TENTATIVAS) {
+                log.warn("Falha ao gerar miniaturas da capa do livro {} (tentativa {} de {}, repete no reprocessamento): {}",
+                        livroId, falhas, MAX_TENTATIVAS, e.getMessage());
+                return;
+            }
+
+            log.warn("Miniaturas da capa do livro {} falharam {} vezes: desistindo, fica só a original ({})",
+                    livroId, falhas, e.getMessage());
+            falhasTransitorias.remove(tentativas);
+            try {
+                registrar(livroId, capaDataUpload, "", null, List.of());
+            } catch (RuntimeException ignorada) {
+                // continua null: o próximo reprocessamento começa a contagem de novo
+            }
+        }
+    }
+
+    /**
+     * Grava miniaturas e placeholder se a capa ainda for a mesma versão; senão apaga o que foi enviado
+     * (a não ser que outra geração da mesma versão já tenha registrado: as chaves são as mesmas)
+     */
+    private boolean registrar(UUID livroId, LocalDateTime capaDataUpload, String miniaturas, String placeholder,
+                              List<String> enviadas) {
+        Integer alterados = transactionTemplate.execute(status ->
+                livroRepository.registrarMiniaturas(livroId, capaDataUpload, miniaturas, placeholder));
+
+        if (alterados == null || alterados == 0) {
+            if (!livroRepository.existsByIdAndCapaDataUploadAndCapaMiniaturasIsNotNull(livroId, capaDataUpload)) {
+                log.info("Capa do livro {} mudou durante a geração: miniaturas descartadas", livroId);
+                minioService.deletarArquivos(enviadas);
+            }
+            return false;
+        }
+
+        cacheLivros.invalidar(livroId);
+        geracaoCatalogo.avancar();
+        return true;
+    }
+
+    /**
+     * Decodifica a capa, recusando imagens grandes demais antes de alocar os pixels
+     * (5MB de PNG podem descomprimir para vários GB); null = nenhum leitor para o formato
+     */
+    private BufferedImage decodificar(byte[] bytes) throws IOException {
+        try (ImageInputStream imagem = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(imagem);
+            if (!leitores.hasNext()) return null;
+
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(imagem, true, true);
+                long pixels = (long) leitor.getWidth(0) * leitor.getHeight(0);
+                if (pixels > maximoPixels) {
+                    throw new IllegalArgumentException("Capa com " + pixels + " pixels (máx " + maximoPixels + ")");
+                }
+                return leitor.read(0);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduz pela metade até chegar perto da largura e termina com bilinear:
+     * qualidade próxima do bicúbico por uma fração do custo. Transparência vira fundo branco (JPEG)
+     */
+    private static BufferedImage redimensionar(BufferedImage original, int largura) {
+        BufferedImage atual = original;
+        int l = original.getWidth();
+
+        do {
+            l = Math.max(largura, l / 2);
+            int a = Math.max(1, (int) Math.round((double) original.getHeight() * l / original.getWidth()));
+
+            BufferedImage proxima = new BufferedImage(l, a, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = proxima.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(atual, 0, 0, l, a, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            atual = proxima;
+        } while (l > largura);
+
+        return atual;
+    }
+
+    private byte[] jpeg(BufferedImage imagem) {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        try (ImageOutputStream destino = ImageIO.createImageOutputStream(saida)) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(qualidade);
+            parametros.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+
+            escritor.setOutput(destino);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            escritor.dispose();
+        }
+        return saida.toByteArray();
+    }
+
+    // ====== PLACEHOLDER (BlurHash) ======
+
+    private static final int LARGURA_PLACEHOLDER = 32;  // amostra reduzida: o hash só guarda baixas frequências
+    private static final int COMPONENTES_X = 3;
+    private static final int COMPONENTES_Y = 4;         // capas são retrato: mais detalhe na vertical
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    /**
+     * BlurHash (https://blurha.sh) da imagem: cor média + 11 componentes de cosseno em base 83
+     * Decodificado no navegador (livros.js) para um canvas minúsculo esticado no card
+     */
+    public static String blurHash(BufferedImage imagem) {
+        int largura = imagem.getWidth();
+        int altura = imagem.getHeight();
+        int[] rgb = imagem.getRGB(0, 0, largura, altura, null, 0, largura);
+
+        double[][] fatores = new double[COMPONENTES_X * COMPONENTES_Y][3];
+        for (int j = 0; j < COMPONENTES_Y; j++) {
+            for (int i = 0; i < COMPONENTES_X; i++) {
+                double normalizacao = (i == 0 && j == 0) ? 1 : 2;
+                double[] fator = fatores[j * COMPONENTES_X + i];
+
+                for (int y = 0; y < altura; y++) {
+                    double cosY = Math.cos(Math.PI * j * y / altura);
+                    for (int x = 0; x < largura; x++) {
+                        double base = normalizacao * Math.cos(Math.PI * i * x / largura) * cosY;
+                        int pixel = rgb[y * largura + x];
+                        fator[0] += base * linear((pixel >> 16) & 0xFF);
+                        fator[1] += base * linear((pixel >> 8) & 0xFF);
+                        fator[2] += base * linear(pixel & 0xFF);
+                    }
+                }
+                for (int c = 0; c < 3; c++) fator[c] /= (double) largura * altura;
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(28);
+        base83(hash, (COMPONENTES_X - 1) + (COMPONENTES_Y - 1) * 9, 1);
+
+        double maximo = 0;
+        for (int f = 1; f < fatores.length; f++) {
+            for (double valor : fatores[f]) maximo = Math.max(maximo, Math.abs(valor));
+        }
+        int maximoQuantizado = (int) Math.max(0, Math.min(82, Math.floor(maximo * 166 - 0.5)));
+        double escala = (maximoQuantizado + 1) / 166.0;
+        base83(hash, maximoQuantizado, 1);
+
+        double[] media = fatores[0];
+        base83(hash, (srgb(media[0]) << 16) + (srgb(media[1]) << 8) + srgb(media[2]), 4);
+
+        for (int f = 1; f < fatores.length; f++) {
+            double[] ac = fatores[f];
+            base83(hash, quantizar(ac[0] / escala) * 19 * 19 + quantizar(ac[1] / escala) * 19 + quantizar(ac[2] / escala), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double linear(int valor) {
+        double v = valor / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int srgb(double valor) {
+        double v = Math.clamp(valor, 0.0, 1.0);
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static int quantizar(double valor) {
+        double comSinal = Math.copySign(Math.sqrt(Math.abs(valor)), valor);
+        return (int) Math.max(0, Math.min(18, Math.floor(comSinal * 9 + 9.5)));
+    }
+
+    private static void base83(StringBuilder destino, int valor, int digitos) {
+        for (int d = digitos - 1; d >= 0; d--) {
+            destino.append(BASE83.charAt((int) (valor / (long) Math.pow(83, d)) % 83));
+        }
+    }
+
+    private static int[] larguras(String miniaturas) {
+        if (miniaturas.isEmpty()) return new int[0];
+        return Arrays.stream(miniaturas.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -1,19 +1,33 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.config.MinioMultipartClient;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
 import io.minio.*;
 import io.minio.errors.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -21,11 +35,37 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class MinioService {
 
+    // Mínimo do S3 para todas as partes menos a última
+    private static final long TAMANHO_MINIMO_PARTE = 5L * 1024 * 1024;
+
     private final MinioClient minioClient;
+    private final MinioMultipartClient minioMultipartClient;
 
     @Value("${minio.bucket-name}")
     private String bucketName;
 
+    @Value("${biblioteca.upload-streaming.tamanho-parte:5MB}")
+    private DataSize tamanhoParte;
+
+    @Value("${biblioteca.upload-streaming.partes-paralelas:2}")
+    private int partesParalelas;
+
+    /**
+     * Objeto gravado pelo upload em streaming (tamanho só é conhecido no fim)
+     */
+    public record UploadStreaming(String chave, long tamanho) {}
+
+    /**
+     * Recusa no startup a configuração que só quebraria no primeiro upload grande
+     */
+    @PostConstruct
+    public void validarConfiguracao() {
+        if (partesParalelas < 1) {
+            throw new IllegalStateException(
+                    "biblioteca.upload-streaming.partes-paralelas deve ser >= 1 (atual: " + partesParalelas + ")");
+        }
+    }
+
     public void inicializarBucket() {
         try {
             boolean exists = minioClient.bucketExists(
@@ -49,17 +89,31 @@ public class MinioService {
     }
 
     public String uploadArquivo(MultipartFile file, String prefixo) {
+        try {
+            return uploadStream(file.getInputStream(), file.getSize(), file.getContentType(),
+                    file.getOriginalFilename(), prefixo);
+        } catch (IOException e) {
+            log.error("Erro ao fazer upload: {}", e.getMessage());
+            throw new RuntimeException("Falha ao enviar arquivo para MinIO", e);
+        }
+    }
+
+    /**
+     * Upload a partir de um stream de tamanho conhecido (ex.: entrada de um ZIP na importação em lote)
+     * Seguro para chamar de várias threads ao mesmo tempo (MinioClient é thread-safe)
+     */
+    public String uploadStream(InputStream stream, long tamanho, String contentType, String nomeOriginal, String prefixo) {
         try {
             // Gera nome único para o arquivo
-            String fileName = gerarNomeArquivo(file.getOriginalFilename(), prefixo);
+            String fileName = gerarNomeArquivo(nomeOriginal, prefixo);
 
             // Faz o upload
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucketName)
                             .object(fileName)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
+                            .stream(stream, tamanho, -1)
+                            .contentType(contentType)
                             .build()
             );
 
@@ -72,7 +126,129 @@ public class MinioService {
         }
     }
 
+    /**
+     * Upload de bytes já em memória com chave definida por quem chama (ex.: miniaturas das capas)
+     */
+    public void uploadBytes(String chave, byte[] dados, String contentType) {
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(chave)
+                            .stream(new ByteArrayInputStream(dados), dados.length, -1)
+                            .contentType(contentType)
+                            .build()
+            );
+
+            log.debug("Objeto '{}' enviado para MinIO ({} bytes)", chave, dados.length);
+
+        } catch (Exception e) {
+            log.error("Erro ao fazer upload de '{}': {}", chave, e.getMessage());
+            throw new RuntimeException("Falha ao enviar arquivo para MinIO", e);
+        }
+    }
+
+    /**
+     * Upload em STREAMING de tamanho desconhecido (ex.: corpo cru da requisição), sem spool em disco
+     *
+     * - Lê uma parte por vez (biblioteca.upload-streaming.tamanho-parte) e já envia para o MinIO
+     *   enquanto lê a próxima; no máximo partes-paralelas partes em memória (= memória de pico)
+     * - Corpo menor que uma parte vira um PUT simples
+     * - Passou de tamanhoMaximo ou falhou: o upload multipart é abortado (nada fica no bucket)
+     */
+    public UploadStreaming uploadStreaming(InputStream corpo, String contentType, String nomeOriginal,
+                                           String prefixo, long tamanhoMaximo) {
+        int tamanho = Math.toIntExact(Math.max(tamanhoParte.toBytes(), TAMANHO_MINIMO_PARTE));
+
+        byte[] buffer = new byte[tamanho];
+        int lidos;
+        try {
+            lidos = lerParte(corpo, buffer);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao ler o arquivo enviado", e);
+        }
+
+        if (lidos == 0) {
+            throw new RequisicaoInvalidaException("Arquivo não pode ser vazio");
+        }
+        if (lidos > tamanhoMaximo) {
+            throw new RequisicaoInvalidaException("Arquivo muito grande (máx " + tamanhoMaximo / (1024 * 1024) + "MB)");
+        }
+
+        // Cabe em uma parte: PUT simples
+        if (lidos < tamanho) {
+            String chave = uploadStream(new ByteArrayInputStream(buffer, 0, lidos), lidos, contentType, nomeOriginal, prefixo);
+            return new UploadStreaming(chave, lidos);
+        }
+
+        String fileName = gerarNomeArquivo(nomeOriginal, prefixo);
+        String uploadId;
+        try {
+            uploadId = minioMultipartClient.iniciar(bucketName, fileName, contentType);
+        } catch (Exception e) {
+            log.error("Erro ao iniciar upload multipart: {}", e.getMessage());
+            throw new RuntimeException("Falha ao enviar arquivo para MinIO", e);
+        }
+
+        BlockingQueue<byte[]> livres = new ArrayBlockingQueue<>(partesParalelas);
+        List<CompletableFuture<Part>> partes = new ArrayList<>();
+        int alocados = 1;
+        long total = 0;
+
+        try {
+            while (lidos > 0) {
+                total += lidos;
+                if (total > tamanhoMaximo) {
+                    throw new RequisicaoInvalidaException("Arquivo muito grande (máx " + tamanhoMaximo / (1024 * 1024) + "MB)");
+                }
+                if (partes.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break; // join abaixo relança o erro da parte
+                }
+
+                byte[] enviado = buffer;
+                partes.add(minioMultipartClient
+                        .enviarParte(bucketName, fileName, uploadId, partes.size() + 1, enviado, lidos)
+                        .whenComplete((parte, erro) -> livres.add(enviado)));
+
+                // Próximo buffer: novo até o limite de partes em paralelo, depois espera uma parte terminar
+                buffer = livres.poll();
+                if (buffer == null && alocados < partesParalelas) {
+                    buffer = new byte[tamanho];
+                    alocados++;
+                } else if (buffer == null) {
+                    buffer = livres.take();
+                }
+
+                lidos = lerParte(corpo, buffer);
+            }
+
+            Part[] concluidas = partes.stream().map(CompletableFuture::join).toArray(Part[]::new);
+            minioMultipartClient.concluir(bucketName, fileName, uploadId, concluidas);
+
+            log.info("Arquivo '{}' enviado para MinIO em streaming ({} partes, {} bytes)", fileName, concluidas.length, total);
+            return new UploadStreaming(fileName, total);
+
+        } catch (RequisicaoInvalidaException e) {
+            abortar(fileName, uploadId, partes);
+            throw e;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            abortar(fileName, uploadId, partes);
+            log.error("Erro ao fazer upload em streaming: {}", e.getMessage());
+            throw new RuntimeException("Falha ao enviar arquivo para MinIO", e);
+        }
+    }
+
     public InputStream downloadArquivo(String fileKey) {
+        return downloadObjeto(fileKey);
+    }
+
+    /**
+     * Download com os cabeçalhos do objeto (ETag e Content-Length), usado pelo cache em disco
+     */
+    public GetObjectResponse downloadObjeto(String fileKey) {
         try {
             return minioClient.getObject(
                     GetObjectArgs.builder()
@@ -86,6 +262,25 @@ public class MinioService {
         }
     }
 
+    /**
+     * Trecho [inicio, inicio + tamanho) do objeto (download com Range): o MinIO só envia esses bytes
+     */
+    public InputStream downloadTrecho(String fileKey, long inicio, long tamanho) {
+        try {
+            return minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(fileKey)
+                            .offset(inicio)
+                            .length(tamanho)
+                            .build()
+            );
+        } catch (Exception e) {
+            log.error("Erro ao baixar trecho de '{}': {}", fileKey, e.getMessage());
+            throw new RuntimeException("Falha ao baixar arquivo do MinIO", e);
+        }
+    }
+
     public void deletarArquivo(String fileKey) {
         try {
             minioClient.removeObject(
@@ -101,6 +296,39 @@ public class MinioService {
         }
     }
 
+    /**
+     * Remove vários objetos com a API multi-objeto (até 1000 por requisição ao MinIO)
+     * Retorna as chaves que o MinIO não conseguiu remover
+     */
+    public List<String> deletarArquivos(Collection<String> fileKeys) {
+        if (fileKeys.isEmpty()) return List.of();
+
+        List<DeleteObject> objetos = fileKeys.stream().map(DeleteObject::new).toList();
+        List<String> falhas = new ArrayList<>();
+
+        try {
+            // removeObjects é preguiçoso: as requisições só acontecem ao percorrer os resultados
+            Iterable<Result<DeleteError>> resultados = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .objects(objetos)
+                            .build()
+            );
+
+            for (Result<DeleteError> resultado : resultados) {
+                DeleteError erro = resultado.get();
+                log.warn("Falha ao deletar '{}' do MinIO: {}", erro.objectName(), erro.message());
+                falhas.add(erro.objectName());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao deletar arquivos em lote: {}", e.getMessage());
+            throw new RuntimeException("Falha ao deletar arquivos do MinIO", e);
+        }
+
+        log.info("{} arquivos deletados do MinIO em lote!", fileKeys.size() - falhas.size());
+        return falhas;
+    }
+
     public String atualizarArquivo(String fileKey, MultipartFile file) {
         try {
             // Remove o arquivo antigo
@@ -146,6 +374,27 @@ public class MinioService {
         }
     }
 
+    /**
+     * Enche o buffer até o fim ou até o corpo acabar (read sozinho pode devolver pedaços menores)
+     */
+    private static int lerParte(InputStream corpo, byte[] buffer) throws IOException {
+        return corpo.readNBytes(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Aborta o multipart depois que as partes em voo terminarem (o MinIO descarta as já gravadas)
+     */
+    private void abortar(String fileName, String uploadId, List<CompletableFuture<Part>> partes) {
+        try {
+            CompletableFuture.allOf(partes.toArray(CompletableFuture[]::new))
+                    .exceptionally(erro -> null)
+                    .join();
+            minioMultipartClient.abortar(bucketName, fileName, uploadId);
+        } catch (Exception e) {
+            log.warn("Não foi possível abortar o upload multipart de '{}': {}", fileName, e.getMessage());
+        }
+    }
+
     private String gerarNomeArquivo(String nomeOriginal, String prefixo) {
         String extensao = nomeOriginal.substring(nomeOriginal.lastIndexOf("."));
         return prefixo + "/" + UUID.randomUUID() + extensao;
@@ -1,15 +1,24 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.services;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheUsuarios;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Role;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.RoleRepository;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.validators.ValidacaoUsuario;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,24 +30,17 @@ public class UsuarioService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder; // ✅ Injeta o encoder
     private final ValidacaoUsuario validacaoUsuario;
+    private final GeracaoCatalogo geracaoCatalogo; // dados do autor aparecem nas listagens de livros
+    private final CacheUsuarios cacheUsuarios; // senha e roles usadas no login
+    private final LivroService livroService; // livros do usuário saem junto (cascade de Usuario.livros)
 
     @Transactional
     public Usuario salvarUsuario(Usuario usuario) {
 
-        if (usuarioRepository.existsByUsername(usuario.getUsername())) {
-            throw new RuntimeException("Nome de usuário já está em uso");
-        }
-
-        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
-            throw new RuntimeException("Email já está cadastrado");
-        }
-
-        if (usuarioRepository.existsByCpf(usuario.getCpf())) {
-            throw new RuntimeException("CPF já está cadastrado");
-        }
-
         usuario.setCpf(usuario.getCpf().replaceAll("[^0-9]", ""));
 
+        // Uma query para todos os campos únicos, antes do hash (cadastro duplicado não gasta BCrypt)
+        validacaoUsuario.validarCamposUsuario(usuarioRepository, usuario);
 
         usuario.setPassword(passwordEncoder.encode(usuario.getPassword()));
 
@@ -49,8 +51,6 @@ public class UsuarioService {
             usuario.addRole(roleUser);
         }
 
-        validacaoUsuario.validarCamposUsuario(usuarioRepository, usuario);
-
         return usuarioRepository.save(usuario);
     }
 
@@ -61,6 +61,7 @@ public class UsuarioService {
 
         usuario.setPassword(passwordEncoder.encode(novaSenha));
         usuarioRepository.save(usuario);
+        cacheUsuarios.invalidar(usuario.getUsername());
     }
 
     @Transactional
@@ -81,12 +82,21 @@ public class UsuarioService {
         return usuarioRepository.save(usuario);
     }
 
+    /**
+     * DELETA o usuário; o cascade apaga os livros dele, que saem também dos índices, caches e MinIO
+     */
+    @Transactional
     public void deletarUsuario(UUID id){
-        if (!usuarioRepository.existsById(id)){
-            throw new RuntimeException("Usuário não encontrado");
-        }
+        String username = usuarioRepository.buscarUsernamePorId(id)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        // Chaves antes do DELETE: depois do cascade não há mais de onde lê-las
+        List<ChavesLivro> livros = livroService.buscarChavesDoAutor(id);
 
         usuarioRepository.deleteById(id);
+        livroService.removerLivrosExcluidos(livros);
+        cacheUsuarios.invalidar(username);
+        geracaoCatalogo.avancar();
     }
 
     @Transactional
@@ -99,9 +109,25 @@ public class UsuarioService {
 
         usuario.addRole(role);
         usuarioRepository.save(usuario);
+        cacheUsuarios.invalidar(usuario.getUsername());
     }
 
 
+    /**
+     * LISTA uma página de usuários por cursor (keyset) como projeção, sem roles
+     * aposData/aposId nulos = primeira página
+     */
+    @Transactional(readOnly = true)
+    public Slice<UsuarioResumo> listarPagina(LocalDateTime aposData, UUID aposId, int limite) {
+        Pageable pagina = PageRequest.of(0, Math.clamp(limite, 1, 100));
+
+        if (aposData == null || aposId == null) {
+            return usuarioRepository.buscarPrimeiraPagina(pagina);
+        }
+
+        return usuarioRepository.buscarPaginaApos(aposData, aposId, pagina);
+    }
+
     public boolean verificarSenha(String senhaRaw, String senhaEncodada) {
         return passwordEncoder.matches(senhaRaw, senhaEncodada);
     }
@@ -1,12 +1,21 @@
 package com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros;
 
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.CursorInvalidoException;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.SobrecargaHashSenhaException;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.ValidationExceptionDeUsuario;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Path;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -104,6 +113,129 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    // ==================== BEAN VALIDATION (@RequestParam com @Min, @Max, ...) ====================
+
+    // Controller com @Validated: a validação é feita pelo proxy AOP, antes de entrar no método
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+
+        // Caminho "metodo.parametro": fica só o nome do parâmetro
+        for (ConstraintViolation<?> violacao : ex.getConstraintViolations()) {
+            String campo = null;
+            for (Path.Node no : violacao.getPropertyPath()) {
+                campo = no.getName();
+            }
+            errors.put(campo != null ? campo : "erro", violacao.getMessage());
+        }
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Parâmetros inválidos",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    // Controller sem @Validated: validação embutida do Spring MVC
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleHandlerMethodValidation(HandlerMethodValidationException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+
+        ex.getParameterValidationResults().forEach(resultado -> {
+            String campo = resultado.getMethodParameter().getParameterName();
+            resultado.getResolvableErrors().forEach(erro ->
+                    errors.put(campo != null ? campo : "erro", erro.getDefaultMessage()));
+        });
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Parâmetros inválidos",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    // ==================== REQUISIÇÃO INVÁLIDA ====================
+
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalido(CursorInvalidoException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put("after", ex.getMessage());
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Requisição inválida",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    // Só a exceção da própria aplicação: IllegalArgumentException de biblioteca cai no genérico (500)
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<ErrorResponse> handleRequisicaoInvalida(RequisicaoInvalidaException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put("erro", ex.getMessage());
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Requisição inválida",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    // ==================== PERMISSÃO ====================
+
+    // Negado dentro do controller (ex.: livro de outro autor): 403, não o 500 do handler genérico
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put("erro", ex.getMessage());
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.FORBIDDEN.value(),
+                "Acesso negado",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
+    // ==================== SOBRECARGA ====================
+
+    @ExceptionHandler(SobrecargaHashSenhaException.class)
+    public ResponseEntity<ErrorResponse> handleSobrecargaHashSenha(SobrecargaHashSenhaException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put("erro", ex.getMessage());
+
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servidor ocupado",
+                errors,
+                LocalDateTime.now()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
     // ==================== EXCEÇÕES GENÉRICAS ====================
 
     @ExceptionHandler(Exception.class)
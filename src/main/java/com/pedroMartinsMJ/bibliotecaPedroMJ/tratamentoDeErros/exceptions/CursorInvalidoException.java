@@ -0,0 +1,9 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions;
+
+// Cursor de paginação adulterado ou de outro formato: 400 com mensagem fixa (nada do token volta ao cliente)
+public class CursorInvalidoException extends IllegalArgumentException {
+
+    public CursorInvalidoException(Throwable causa) {
+        super("Cursor de paginação inválido", causa);
+    }
+}
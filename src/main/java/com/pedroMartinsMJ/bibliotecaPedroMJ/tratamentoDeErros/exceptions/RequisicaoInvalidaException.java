@@ -0,0 +1,14 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions;
+
+// Dado enviado pelo cliente recusado pela aplicação: 400 com a mensagem (sempre escrita por nós)
+// IllegalArgumentException genérica, de biblioteca, continua no handler genérico (500, sem mensagem)
+public class RequisicaoInvalidaException extends IllegalArgumentException {
+
+    public RequisicaoInvalidaException(String mensagem) {
+        super(mensagem);
+    }
+
+    public RequisicaoInvalidaException(String mensagem, Throwable causa) {
+        super(mensagem, causa);
+    }
+}
@@ -0,0 +1,9 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions;
+
+// Fila do executor de hash de senhas cheia (ou espera estourada): responder 503 na hora
+public class SobrecargaHashSenhaException extends RuntimeException {
+
+    public SobrecargaHashSenhaException() {
+        super("Servidor ocupado processando logins, tente novamente em instantes");
+    }
+}
@@ -2,6 +2,7 @@ package com.pedroMartinsMJ.bibliotecaPedroMJ.validators;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
 import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ConflitosUsuario;
 
 import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.ValidationExceptionDeUsuario;
 import org.springframework.stereotype.Component;
@@ -14,33 +15,38 @@ import java.util.UUID;
 @Component
 public class ValidacaoUsuario { //sera instanciado no service UsuarioSevicer
 
+    /**
+     * Valida os campos únicos do cadastro com uma única query (todos os conflitos de uma vez)
+     */
     public void validarCamposUsuario (UsuarioRepository repository, Usuario usuario){
 
+        ConflitosUsuario conflitos = repository.buscarConflitos(usuario.getUsername(), usuario.getEmail(),
+                usuario.getNome(), usuario.getCpf(), usuario.getTelefone());
+
         Map<String, String> erros = new HashMap<>();
 
         // Validar username duplicado
-        if (repository.existsByUsername(usuario.getUsername())) {
+        if (conflitos.usernameEmUso()) {
             erros.put("username", "Username já cadastrado no sistema");
         }
 
         // Validar email duplicado
-        if (repository.existsByEmail(usuario.getEmail())) {
+        if (conflitos.emailEmUso()) {
             erros.put("email", "Email já está em uso");
         }
 
         // Validar nome duplicado (se necessário)
-        if (repository.existsByNome(usuario.getNome())) {
+        if (conflitos.nomeEmUso()) {
             erros.put("nome", "Nome já cadastrado");
         }
 
-        if (repository.existsByCpf(usuario.getCpf())){
+        if (conflitos.cpfEmUso()){
             erros.put("cpf", "cpf ja cadastrado");
         }
 
-        if (usuario.getTelefone() != null){
-            if (repository.existsByTelefone(usuario.getTelefone())){
-                erros.put("telefone", "telefone ja cadastrado");
-            }
+        // telefone nulo nunca conflita
+        if (conflitos.telefoneEmUso()){
+            erros.put("telefone", "telefone ja cadastrado");
         }
 
         if (!erros.isEmpty()) {
@@ -50,17 +56,19 @@ public class ValidacaoUsuario { //sera instanciado no service UsuarioSevicer
     }
 
     public void validarAtualizacao(UsuarioRepository repository, UUID id, Usuario usuario) {
+        // Mesma sondagem, só username e email, ignorando o próprio usuário
+        ConflitosUsuario conflitos = repository.buscarConflitosExceto(usuario.getUsername(), usuario.getEmail(),
+                null, null, null, id);
+
         Map<String, String> erros = new HashMap<>();
 
         // Validar username duplicado (exceto o próprio usuário)
-        if (usuario.getUsername() != null &&
-                repository.existsByUsernameAndIdNot(usuario.getUsername(), id)) {
+        if (conflitos.usernameEmUso()) {
             erros.put("username", "Username já cadastrado por outro usuário");
         }
 
         // Validar email duplicado (exceto o próprio usuário)
-        if (usuario.getEmail() != null &&
-                repository.existsByEmailAndIdNot(usuario.getEmail(), id)) {
+        if (conflitos.emailEmUso()) {
             erros.put("email", "Email já está em uso por outro usuário");
         }
 
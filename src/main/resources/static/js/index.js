@@ -37,8 +37,8 @@ document.addEventListener("DOMContentLoaded", async () => {
   root.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Carregando...</h3></div></div>`;
 
   try {
-    const livros = await fetchJson("/api/livros");
-    const destaque = Array.isArray(livros) ? livros.slice(0, 6) : [];
+    const pagina = await fetchJson("/api/livros?limit=6");
+    const destaque = Array.isArray(pagina?.itens) ? pagina.itens : [];
 
     if (destaque.length === 0) {
       root.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Nenhum livro cadastrado ainda.</h3></div></div>`;
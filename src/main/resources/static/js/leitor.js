@@ -30,7 +30,12 @@ async function initPdf(url) {
   pdfRoot.hidden = false;
 
   // eslint-disable-next-line no-undef
-  const loadingTask = pdfjsLib.getDocument(url);
+  // O servidor aceita Range: busca só os trechos das páginas exibidas, não o PDF inteiro
+  const loadingTask = pdfjsLib.getDocument({
+    url,
+    disableAutoFetch: true,
+    disableStream: true,
+  });
   const pdf = await loadingTask.promise;
 
   let pageNum = 1;
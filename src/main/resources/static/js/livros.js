@@ -11,6 +11,100 @@ function normalize(s) {
     .replace(/\p{Diacritic}/gu, "");
 }
 
+// BlurHash (https://blurha.sh) -> pixels RGBA; o servidor calcula no upload da capa (capaPlaceholder)
+const BASE83 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+function base83(texto) {
+  let valor = 0;
+  for (const c of texto) valor = valor * 83 + BASE83.indexOf(c);
+  return valor;
+}
+
+function srgbParaLinear(v) {
+  v /= 255;
+  return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+}
+
+function linearParaSrgb(v) {
+  v = Math.max(0, Math.min(1, v));
+  return Math.round(v <= 0.0031308 ? v * 12.92 * 255 : (1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255);
+}
+
+function decodificarBlurHash(hash, largura, altura) {
+  const tamanho = base83(hash[0]);
+  const nx = (tamanho % 9) + 1;
+  const ny = Math.floor(tamanho / 9) + 1;
+  const maximo = (base83(hash[1]) + 1) / 166;
+  const sinalPow = (v) => Math.sign(v) * v * v;
+
+  const cores = [];
+  const dc = base83(hash.substring(2, 6));
+  cores.push([srgbParaLinear(dc >> 16), srgbParaLinear((dc >> 8) & 255), srgbParaLinear(dc & 255)]);
+  for (let i = 1; i < nx * ny; i++) {
+    const v = base83(hash.substring(4 + i * 2, 6 + i * 2));
+    cores.push([
+      sinalPow((Math.floor(v / 361) - 9) / 9) * maximo,
+      sinalPow(((Math.floor(v / 19) % 19) - 9) / 9) * maximo,
+      sinalPow(((v % 19) - 9) / 9) * maximo,
+    ]);
+  }
+
+  const pixels = new Uint8ClampedArray(largura * altura * 4);
+  for (let y = 0; y < altura; y++) {
+    for (let x = 0; x < largura; x++) {
+      let r = 0, g = 0, b = 0;
+      for (let j = 0; j < ny; j++) {
+        for (let i = 0; i < nx; i++) {
+          const base = Math.cos((Math.PI * x * i) / largura) * Math.cos((Math.PI * y * j) / altura);
+          const cor = cores[i + j * nx];
+          r += cor[0] * base;
+          g += cor[1] * base;
+          b += cor[2] * base;
+        }
+      }
+      const p = 4 * (x + y * largura);
+      pixels[p] = linearParaSrgb(r);
+      pixels[p + 1] = linearParaSrgb(g);
+      pixels[p + 2] = linearParaSrgb(b);
+      pixels[p + 3] = 255;
+    }
+  }
+  return pixels;
+}
+
+// Pinta os placeholders dos cards recém-renderizados (canvas pequeno, esticado pelo CSS)
+function pintarPlaceholders(raiz) {
+  raiz.querySelectorAll("canvas[data-blurhash]").forEach((canvas) => {
+    try {
+      const pixels = decodificarBlurHash(canvas.dataset.blurhash, canvas.width, canvas.height);
+      canvas.getContext("2d").putImageData(new ImageData(pixels, canvas.width, canvas.height), 0, 0);
+    } catch (e) {
+      // Hash inválido: fica o gradiente do card
+    }
+  });
+}
+
+// Capa: placeholder na hora, imagem real (miniatura de 320px) só quando o card chega perto da tela
+function livroCapa(livro) {
+  if (!livro?.capaUrl) {
+    return `
+        <div class="livro-placeholder">
+          <svg viewBox="0 0 24 24" fill="none" stroke="currentColor">
+            <path d="M4 19.5A2.5 2.5 0 0 1 6.5 17H20"></path>
+            <path d="M6.5 2H20v20H6.5A2.5 2.5 0 0 1 4 19.5v-15A2.5 2.5 0 0 1 6.5 2z"></path>
+          </svg>
+        </div>`;
+  }
+
+  const placeholder = livro.capaPlaceholder
+    ? `<canvas class="livro-capa-placeholder" width="16" height="24" data-blurhash="${livro.capaPlaceholder}"></canvas>`
+    : "";
+  return `
+        ${placeholder}
+        <img class="livro-capa" src="${livro.capaUrl}&w=320" alt="" loading="lazy" decoding="async"
+             onload="this.classList.add('carregada')">`;
+}
+
 function livroCard(livro) {
   const autor = livro?.autor?.nome ?? "Autor(a) desconhecido(a)";
   const idioma = livro?.idioma ? `• ${livro.idioma}` : "";
@@ -19,13 +113,7 @@ function livroCard(livro) {
 
   return `
     <div class="livro-card" onclick="window.location.href='/livros/${livro.id}'">
-      <div class="livro-image">
-        <div class="livro-placeholder">
-          <svg viewBox="0 0 24 24" fill="none" stroke="currentColor">
-            <path d="M4 19.5A2.5 2.5 0 0 1 6.5 17H20"></path>
-            <path d="M6.5 2H20v20H6.5A2.5 2.5 0 0 1 4 19.5v-15A2.5 2.5 0 0 1 6.5 2z"></path>
-          </svg>
-        </div>
+      <div class="livro-image">${livroCapa(livro)}
       </div>
       <div class="livro-info">
         <div class="livro-meta">
@@ -39,26 +127,58 @@ function livroCard(livro) {
   `;
 }
 
+const TAMANHO_PAGINA = 24;
+
 document.addEventListener("DOMContentLoaded", async () => {
   const grid = document.getElementById("livros-grid");
   const q = document.getElementById("q");
+  const maisBtn = document.getElementById("carregar-mais");
   if (!grid || !q) return;
 
   grid.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Carregando...</h3></div></div>`;
 
   let livros = [];
+  let cursor = null;
+  let temMais = false;
+
+  async function carregarPagina() {
+    const params = new URLSearchParams({ limit: String(TAMANHO_PAGINA) });
+    if (cursor) params.set("after", cursor);
+
+    const pagina = await fetchJson(`/api/livros?${params}`);
+    livros = livros.concat(Array.isArray(pagina?.itens) ? pagina.itens : []);
+    cursor = pagina?.proximoCursor ?? null;
+    temMais = Boolean(pagina?.temMais && cursor);
+  }
+
   try {
-    const data = await fetchJson("/api/livros");
-    livros = Array.isArray(data) ? data : [];
+    await carregarPagina();
   } catch (e) {
     grid.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Falha ao carregar o catálogo.</h3></div></div>`;
     return;
   }
 
-  function render() {
-    const term = normalize(q.value);
-    const filtered = livros.filter((l) => {
-      const hay = normalize(
+  function render(lista, mostrarMais) {
+    if (maisBtn) maisBtn.hidden = !mostrarMais;
+
+    if (lista.length === 0) {
+      grid.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Nenhum resultado.</h3></div></div>`;
+      return;
+    }
+
+    grid.innerHTML = lista.map(livroCard).join("");
+    pintarPlaceholders(grid);
+  }
+
+  // Sem termo: catálogo paginado. Com termo: busca no índice do servidor (ranqueada)
+  // + trecho em qualquer lugar dos livros já carregados (ISBN, idioma, username do autor e palavra pela metade)
+  let buscaAtual = 0;
+  let debounce = null;
+
+  function filtrarCarregados(term) {
+    const alvo = normalize(term);
+    return livros.filter((l) =>
+      normalize(
         [
           l?.titulo,
           l?.descricao,
@@ -68,19 +188,80 @@ document.addEventListener("DOMContentLoaded", async () => {
           l?.editora,
           l?.isbn,
         ].filter(Boolean).join(" ")
-      );
-      return hay.includes(term);
+      ).includes(alvo)
+    );
+  }
+
+  function juntar(doServidor, locais) {
+    const vistos = new Set(doServidor.map((l) => l?.id));
+    return doServidor.concat(locais.filter((l) => !vistos.has(l?.id)));
+  }
+
+  async function atualizar() {
+    const term = q.value.trim();
+    if (!term) {
+      render(livros, temMais);
+      return;
+    }
+
+    const minhaBusca = ++buscaAtual;
+    const locais = filtrarCarregados(term);
+    try {
+      const resultado = await fetchJson(`/api/livros/search?${new URLSearchParams({ q: term })}`);
+      if (minhaBusca !== buscaAtual) return; // resposta antiga, o usuário já digitou mais
+      render(juntar(Array.isArray(resultado) ? resultado : [], locais), false);
+    } catch (e) {
+      if (minhaBusca !== buscaAtual) return;
+      if (locais.length > 0) {
+        render(locais, false);
+        return;
+      }
+      grid.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Falha na busca.</h3></div></div>`;
+    }
+  }
+
+  if (maisBtn) {
+    maisBtn.addEventListener("click", async () => {
+      maisBtn.disabled = true;
+      try {
+        await carregarPagina();
+        await atualizar();
+      } catch (e) {
+        // Mantém o que já foi carregado; o usuário pode tentar de novo
+      } finally {
+        maisBtn.disabled = false;
+      }
     });
+  }
 
-    if (filtered.length === 0) {
-      grid.innerHTML = `<div class="livro-card"><div class="livro-info"><h3 class="livro-title">Nenhum resultado.</h3></div></div>`;
+  // Autocomplete: títulos e autores que começam com o texto digitado
+  const sugestoes = document.getElementById("sugestoes");
+  let sugestaoAtual = 0;
+
+  async function sugerir() {
+    const term = q.value.trim();
+    if (!sugestoes) return;
+    if (!term) {
+      sugestoes.innerHTML = "";
       return;
     }
 
-    grid.innerHTML = filtered.map(livroCard).join("");
+    const minhaSugestao = ++sugestaoAtual;
+    try {
+      const itens = await fetchJson(`/api/livros/suggest?${new URLSearchParams({ q: term })}`);
+      if (minhaSugestao !== sugestaoAtual) return;
+      sugestoes.innerHTML = (Array.isArray(itens) ? itens : [])
+        .map((s) => `<option value="${String(s.texto ?? "").replace(/"/g, "&quot;")}"></option>`)
+        .join("");
+    } catch (e) {
+      // Sem sugestões; a busca continua funcionando
+    }
   }
 
-  q.addEventListener("input", render);
-  render();
+  q.addEventListener("input", () => {
+    sugerir();
+    clearTimeout(debounce);
+    debounce = setTimeout(atualizar, 200);
+  });
+  atualizar();
 });
-
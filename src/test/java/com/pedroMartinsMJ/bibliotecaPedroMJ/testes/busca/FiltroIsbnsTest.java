@@ -0,0 +1,94 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o filtro de Bloom de ISBNs (repositório mockado)
+ */
+class FiltroIsbnsTest {
+
+    private static final int CADASTRADOS = 10_000;
+
+    private LivroRepository livroRepository;
+    private FiltroIsbns filtro;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = mock(LivroRepository.class);
+        when(livroRepository.streamIsbns()).thenReturn(IntStream.range(0, CADASTRADOS).mapToObj(FiltroIsbnsTest::isbn));
+        filtro = new FiltroIsbns(livroRepository, new SimpleMeterRegistry(), CADASTRADOS, 0.01);
+    }
+
+    private static String isbn(int i) {
+        return "978-85-" + String.format("%06d", i);
+    }
+
+    @Test
+    @DisplayName("Antes da carga deve mandar tudo para o banco")
+    void deveResponderTalvezAntesDaCarga() {
+        assertTrue(filtro.talvezExista("978-0-00-000000-0"));
+    }
+
+    @Test
+    @DisplayName("Não deve ter falso negativo para ISBN cadastrado")
+    void naoDeveTerFalsoNegativo() {
+        filtro.carregar();
+
+        for (int i = 0; i < CADASTRADOS; i++) {
+            assertTrue(filtro.talvezExista(isbn(i)), isbn(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve descartar a grande maioria dos ISBNs novos")
+    void deveDescartarIsbnsNovos() {
+        filtro.carregar();
+
+        long falsosPositivos = IntStream.range(CADASTRADOS, 2 * CADASTRADOS)
+                .filter(i -> filtro.talvezExista(isbn(i)))
+                .count();
+
+        // Dimensionado para 1%: folga para variação da amostra
+        assertTrue(falsosPositivos < CADASTRADOS * 0.03, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    @DisplayName("Deve refletir criação e exclusão depois da carga")
+    void deveAcompanharCriacaoEExclusao() {
+        when(livroRepository.streamIsbns()).thenReturn(Stream.empty());
+        filtro.carregar();
+
+        filtro.adicionar("978-85-359-0277-5");
+        assertTrue(filtro.talvezExista("978-85-359-0277-5"));
+
+        filtro.remover("978-85-359-0277-5");
+        assertFalse(filtro.talvezExista("978-85-359-0277-5"));
+    }
+
+    @Test
+    @DisplayName("Exclusão durante a carga espera o fim: não tira a contagem de ISBN ainda não lido")
+    void deveAdiarExclusaoDuranteACarga() {
+        // Segundo ISBN sai do banco (depois do snapshot da stream) enquanto ela ainda está no primeiro
+        when(livroRepository.streamIsbns()).thenReturn(Stream.of(isbn(1), isbn(2)).peek(isbn -> {
+            if (isbn.equals(isbn(1))) filtro.remover(isbn(2));
+        }));
+        // Exclusão antes da carga começar: a carga não lê o ISBN, não há o que descontar
+        filtro.remover(isbn(1));
+
+        filtro.carregar();
+
+        assertTrue(filtro.talvezExista(isbn(1)));
+        assertFalse(filtro.talvezExista(isbn(2)));
+    }
+}
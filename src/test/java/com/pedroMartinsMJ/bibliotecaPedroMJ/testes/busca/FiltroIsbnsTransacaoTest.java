@@ -0,0 +1,165 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Filtro de ISBNs acompanhando o resultado da transação (commit ou rollback simulados, repositório mockado)
+ */
+class FiltroIsbnsTransacaoTest {
+
+    private static final String ISBN = "978-85-000001";
+
+    private LivroRepository livroRepository;
+    private MinioService minioService;
+    private FiltroIsbns filtro;
+    private LivroService service;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = mock(LivroRepository.class);
+        when(livroRepository.streamIsbns()).thenReturn(Stream.empty());
+        when(livroRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        filtro = new FiltroIsbns(livroRepository, new SimpleMeterRegistry(), 1000, 0.01);
+        filtro.carregar();
+
+        minioService = mock(MinioService.class);
+        service = new LivroService(livroRepository, minioService,
+                mock(IndiceBuscaLivros.class), mock(IndiceSugestoes.class), mock(IndiceFacetas.class),
+                filtro, mock(CacheLivros.class), mock(CacheArquivosDisco.class), mock(CacheCapas.class),
+                mock(MiniaturasCapaService.class), new GeracaoCatalogo(), mock(TransactionTemplate.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Livro livro() {
+        Usuario autor = new Usuario();
+        autor.setId(UUID.randomUUID());
+        autor.setNome("Machado de Assis");
+
+        Livro livro = new Livro();
+        livro.setId(UUID.randomUUID());
+        livro.setTitulo("Dom Casmurro");
+        livro.setIsbn(ISBN);
+        livro.setAutor(autor);
+        return livro;
+    }
+
+    /**
+     * Fecha a transação simulada: afterCommit só no commit, afterCompletion sempre
+     */
+    private void terminar(boolean commit) {
+        var sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (commit) {
+            TransactionSynchronizationUtils.invokeAfterCommit(sincronizacoes);
+        }
+        TransactionSynchronizationUtils.invokeAfterCompletion(sincronizacoes,
+                commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    private void cadastrado(Livro livro) {
+        filtro.adicionar(livro.getIsbn());
+        when(livroRepository.findById(livro.getId())).thenReturn(Optional.of(livro));
+    }
+
+    @Test
+    @DisplayName("Exclusão que volta: o ISBN continua no filtro (duplicado segue como 409)")
+    void exclusaoComRollbackMantemIsbn() {
+        Livro livro = livro();
+        cadastrado(livro);
+
+        service.deletarLivro(livro.getId());
+        assertTrue(filtro.talvezExista(ISBN));
+
+        terminar(false);
+        assertTrue(filtro.talvezExista(ISBN));
+    }
+
+    @Test
+    @DisplayName("Exclusão confirmada: o ISBN sai do filtro depois do commit")
+    void exclusaoComCommitRemoveIsbn() {
+        Livro livro = livro();
+        cadastrado(livro);
+
+        service.deletarLivro(livro.getId());
+        terminar(true);
+
+        assertFalse(filtro.talvezExista(ISBN));
+    }
+
+    @Test
+    @DisplayName("Cadastro que volta: o ISBN sai do filtro; confirmado, fica")
+    void cadastroSegueATransacao() {
+        MockMultipartFile pdf = new MockMultipartFile("arquivo", "a.pdf", "application/pdf", new byte[]{1});
+
+        service.criarLivro(livro(), pdf, null);
+        // Já visível antes do commit: um cadastro concorrente do mesmo ISBN confere no banco
+        assertTrue(filtro.talvezExista(ISBN));
+        terminar(false);
+        assertFalse(filtro.talvezExista(ISBN));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.criarLivro(livro(), pdf, null);
+        terminar(true);
+        assertTrue(filtro.talvezExista(ISBN));
+    }
+
+    @Test
+    @DisplayName("Livros apagados com o autor: filtro e MinIO só depois do commit")
+    void livrosDoAutorExcluidoSeguemATransacao() {
+        filtro.adicionar(ISBN);
+        List<ChavesLivro> livros = List.of(new ChavesLivro(UUID.randomUUID(), ISBN, "livros/a.pdf", "capas/a.png", null, null));
+
+        service.removerLivrosExcluidos(livros);
+        terminar(false);
+        assertTrue(filtro.talvezExista(ISBN));
+        verifyNoInteractions(minioService);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.removerLivrosExcluidos(livros);
+        terminar(true);
+        assertFalse(filtro.talvezExista(ISBN));
+        verify(minioService).deletarArquivos(List.of("livros/a.pdf", "capas/a.png"));
+    }
+}
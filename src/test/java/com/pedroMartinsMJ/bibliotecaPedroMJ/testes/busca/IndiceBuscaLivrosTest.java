@@ -0,0 +1,147 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.NormalizadorTexto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o índice de busca em memória (sem banco)
+ */
+class IndiceBuscaLivrosTest {
+
+    private IndiceBuscaLivros indice;
+
+    private final UUID dom = UUID.randomUUID();
+    private final UUID memorias = UUID.randomUUID();
+    private final UUID cortico = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBuscaLivros(null);
+        indice.indexar(dom, "Dom Casmurro", "Romance narrado por Bentinho", "Garnier", "Machado de Assis");
+        indice.indexar(memorias, "Memórias Póstumas de Brás Cubas", "Defunto autor", "Garnier", "Machado de Assis");
+        indice.indexar(cortico, "O Cortiço", "Romance naturalista", "Garnier", "Aluísio Azevedo");
+    }
+
+    @Test
+    @DisplayName("Deve remover acentos e stopwords na normalização")
+    void deveNormalizarTexto() {
+        assertEquals("memorias postumas de bras cubas", NormalizadorTexto.normalizar("Memórias Póstumas de Brás Cubas"));
+        assertEquals(List.of("cortico"), NormalizadorTexto.tokenizar("O Cortiço"));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar livro ignorando acentos")
+    void deveEncontrarSemAcento() {
+        assertEquals(List.of(cortico), indice.buscar("cortico", 10));
+        assertEquals(List.of(memorias), indice.buscar("BRÁS", 10));
+    }
+
+    @Test
+    @DisplayName("Deve exigir todos os termos da consulta")
+    void deveExigirTodosOsTermos() {
+        assertEquals(List.of(dom), indice.buscar("machado casmurro", 10));
+        assertTrue(indice.buscar("machado cortico", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve ranquear match no título acima de match na descrição")
+    void deveRanquearTituloPrimeiro() {
+        UUID romanceNoTitulo = UUID.randomUUID();
+        indice.indexar(romanceNoTitulo, "Romance da Pedra", null, null, "Ariano Suassuna");
+
+        assertEquals(romanceNoTitulo, indice.buscar("romance", 10).getFirst());
+    }
+
+    @Test
+    @DisplayName("Não deve retornar livro removido nem duplicar livro reindexado")
+    void deveRespeitarRemocaoEReindexacao() {
+        indice.remover(dom);
+        assertTrue(indice.buscar("casmurro", 10).isEmpty());
+
+        indice.indexar(cortico, "O Cortiço", "Nova edição", "Ática", "Aluísio Azevedo");
+        assertEquals(List.of(cortico), indice.buscar("cortico", 10));
+        assertTrue(indice.buscar("naturalista", 10).isEmpty());
+        assertEquals(2, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("IDF não deve contar livros removidos")
+    void idfDeveIgnorarRemovidos() {
+        // Mesmo comprimento; "vento" no título do primeiro, "pedra" no título do segundo
+        UUID ventoNoTitulo = UUID.randomUUID();
+        UUID pedraNoTitulo = UUID.randomUUID();
+        indice.indexar(ventoNoTitulo, "Vento", "pedra", null, null);
+        indice.indexar(pedraNoTitulo, "Pedra", "vento", null, null);
+        for (int i = 0; i < 5; i++) {
+            indice.indexar(UUID.randomUUID(), "Pedra " + i, null, null, null);
+        }
+
+        // Muitos "vento" que saem do catálogo: ativos, "vento" continua mais raro que "pedra"
+        List<UUID> removidos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UUID id = UUID.randomUUID();
+            indice.indexar(id, "Vento " + i, null, null, null);
+            removidos.add(id);
+        }
+        removidos.forEach(indice::remover);
+
+        assertEquals(List.of(ventoNoTitulo, pedraNoTitulo), indice.buscar("vento pedra", 10));
+    }
+
+    @Test
+    @DisplayName("Último termo incompleto casa como prefixo (busca enquanto digita)")
+    void deveCasarUltimoTermoComoPrefixo() {
+        assertEquals(List.of(dom), indice.buscar("dom cas", 10));
+        assertEquals(List.of(dom), indice.buscar("machado casm", 10));
+        assertEquals(List.of(memorias), indice.buscar("post", 10));
+        // Só o último termo: os anteriores continuam exatos
+        assertTrue(indice.buscar("cas dom", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Termo exato ranqueia acima de termo que só começa com ele; removido não volta pelo prefixo")
+    void deveRanquearExatoAcimaDoPrefixo() {
+        UUID domingos = UUID.randomUUID();
+        indice.indexar(domingos, "Domingos", null, null, "Autor Qualquer");
+
+        assertEquals(List.of(dom, domingos), indice.buscar("dom", 10));
+
+        indice.remover(domingos);
+        assertEquals(List.of(dom), indice.buscar("dom", 10));
+        assertEquals(List.of(), indice.buscar("domi", 10));
+    }
+
+    @Test
+    @DisplayName("Deve continuar correto depois de compactar os tombstones")
+    void deveCompactarTombstones() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = UUID.randomUUID();
+            indice.indexar(id, "Livro " + i, i % 2 == 0 ? "par" : "impar", null, null);
+            ids.add(id);
+        }
+        // Remove 2000 (passa do mínimo e de 1/4 dos ordinais) e reindexa um dos que ficam
+        ids.subList(0, 2000).forEach(indice::remover);
+        indice.indexar(ids.get(2500), "Livro 2500", "reeditado", null, null);
+
+        assertEquals(1003, indice.tamanho());
+        assertEquals(List.of(ids.get(2999)), indice.buscar("2999", 10));
+        assertTrue(indice.buscar("1999", 10).isEmpty());
+        assertEquals(List.of(ids.get(2500)), indice.buscar("reeditado", 10));
+        assertEquals(499, indice.buscar("par", 5000).size());
+        assertEquals(List.of(dom), indice.buscar("casmurro", 10));
+
+        indice.remover(dom);
+        indice.indexar(dom, "Dom Casmurro", null, null, "Machado de Assis");
+        assertEquals(List.of(dom), indice.buscar("casmurro", 10));
+    }
+}
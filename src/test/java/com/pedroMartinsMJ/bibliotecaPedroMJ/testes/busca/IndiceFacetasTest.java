@@ -0,0 +1,155 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas.Faceta;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para os filtros facetados em bitmaps (sem banco)
+ */
+class IndiceFacetasTest {
+
+    private IndiceFacetas indice;
+
+    private final UUID dom = UUID.randomUUID();
+    private final UUID memorias = UUID.randomUUID();
+    private final UUID cortico = UUID.randomUUID();
+    private final UUID hamlet = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceFacetas(null);
+        indice.indexar(dom, "pt", TipoArquivo.PDF, "Garnier", LocalDate.of(1899, 1, 1));
+        indice.indexar(memorias, "pt", TipoArquivo.EPUB, "Garnier", LocalDate.of(1881, 1, 1));
+        indice.indexar(cortico, "pt", TipoArquivo.PDF, "Ática", LocalDate.of(1890, 1, 1));
+        indice.indexar(hamlet, "en", TipoArquivo.PDF, null, null);
+    }
+
+    @Test
+    @DisplayName("Deve combinar facetas com AND e valores da mesma faceta com OR")
+    void deveCombinarFiltros() {
+        IndiceFacetas.Resultado pdfGarnier = indice.filtrar(Map.of(
+                Faceta.TIPO_ARQUIVO, Set.of("PDF"),
+                Faceta.EDITORA, Set.of("Garnier")), 0, 10);
+        assertEquals(List.of(dom), pdfGarnier.ids());
+        assertEquals(1, pdfGarnier.total());
+
+        IndiceFacetas.Resultado anos = indice.filtrar(Map.of(Faceta.ANO, Set.of("1881", "1890")), 0, 10);
+        assertEquals(Set.of(memorias, cortico), Set.copyOf(anos.ids()));
+    }
+
+    @Test
+    @DisplayName("Deve contar cada faceta ignorando o filtro dela mesma")
+    void deveContarFacetas() {
+        IndiceFacetas.Resultado resultado = indice.filtrar(Map.of(Faceta.IDIOMA, Set.of("pt")), 0, 10);
+
+        assertEquals(3, resultado.total());
+        assertEquals(Map.of("pt", 3, "en", 1), resultado.contagens().get(Faceta.IDIOMA));
+        assertEquals(Map.of("PDF", 2, "EPUB", 1), resultado.contagens().get(Faceta.TIPO_ARQUIVO));
+        assertEquals(Map.of("Garnier", 2, "Ática", 1), resultado.contagens().get(Faceta.EDITORA));
+    }
+
+    @Test
+    @DisplayName("Deve paginar do mais recente para o mais antigo")
+    void devePaginar() {
+        assertEquals(List.of(hamlet, cortico), indice.filtrar(Map.of(), 0, 2).ids());
+        assertEquals(List.of(memorias, dom), indice.filtrar(Map.of(), 2, 2).ids());
+        assertEquals(4, indice.filtrar(Map.of(), 2, 2).total());
+    }
+
+    @Test
+    @DisplayName("Deve refletir remoção e atualização de valores")
+    void deveAtualizarERemover() {
+        indice.remover(cortico);
+        indice.indexar(memorias, "pt", TipoArquivo.PDF, "Garnier", LocalDate.of(1881, 1, 1));
+
+        IndiceFacetas.Resultado resultado = indice.filtrar(Map.of(Faceta.TIPO_ARQUIVO, Set.of("PDF")), 0, 10);
+        assertEquals(List.of(hamlet, memorias, dom), resultado.ids());
+        assertEquals(Map.of("PDF", 3), resultado.contagens().get(Faceta.TIPO_ARQUIVO));
+        assertFalse(resultado.contagens().get(Faceta.EDITORA).containsKey("Ática"));
+        assertEquals(3, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("Deve compactar os ordinais removidos mantendo ordem, filtros e contagens")
+    void deveCompactarOrdinaisRemovidos() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            indice.indexar(id, i % 2 == 0 ? "pt" : "en", TipoArquivo.PDF, "Editora " + (i % 3), null);
+        }
+        // Remove 2000 (passa do mínimo e de 1/4 dos ordinais) e atualiza um dos que ficam
+        ids.subList(0, 2000).forEach(indice::remover);
+        indice.indexar(ids.get(2500), "es", TipoArquivo.EPUB, "Editora 0", null);
+
+        assertEquals(1004, indice.tamanho());
+        assertTrue(indice.quantidadeOrdinais() < 2000, "ordinais: " + indice.quantidadeOrdinais());
+
+        IndiceFacetas.Resultado pt = indice.filtrar(Map.of(Faceta.IDIOMA, Set.of("pt")), 0, 2);
+        assertEquals(List.of(ids.get(2998), ids.get(2996)), pt.ids());
+        assertEquals(502, pt.total()); // 500 pares restantes (menos o 2500) + dom, memorias, cortico
+        assertEquals(Map.of("pt", 1, "es", 1), indice.filtrar(Map.of(Faceta.TIPO_ARQUIVO, Set.of("EPUB")), 0, 10)
+                .contagens().get(Faceta.IDIOMA));
+
+        // Livros de antes da compactação continuam no fim da paginação, e novos entram no começo
+        UUID novo = UUID.randomUUID();
+        indice.indexar(novo, "pt", TipoArquivo.PDF, "Garnier", null);
+        assertEquals(novo, indice.filtrar(Map.of(), 0, 1).ids().getFirst());
+        assertEquals(dom, indice.filtrar(Map.of(), 1004, 1).ids().getFirst());
+    }
+
+    @Test
+    @DisplayName("Catálogo grande: contagens e paginação iguais com valores densos, raros e remoções")
+    void deveManterContagensEmCatalogoGrande() {
+        // 150 mil livros: vários blocos de 2^16, "pt" denso (bits), "raro" esparso (array)
+        IndiceFacetas grande = new IndiceFacetas(null);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 150_000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            grande.indexar(id, i % 3 == 0 ? "en" : "pt", i % 2 == 0 ? TipoArquivo.PDF : TipoArquivo.EPUB,
+                    i % 10_000 == 0 ? "Raro" : "Comum", null);
+        }
+        // Remove os ímpares de 70 mil a 80 mil: buracos no meio de um bloco de bits
+        for (int i = 70_001; i < 80_000; i += 2) {
+            grande.remover(ids.get(i));
+        }
+
+        IndiceFacetas.Resultado raros = grande.filtrar(Map.of(Faceta.EDITORA, Set.of("Raro")), 0, 3);
+        assertEquals(15, raros.total());
+        assertEquals(List.of(ids.get(140_000), ids.get(130_000), ids.get(120_000)), raros.ids());
+        // Base pequena (15 livros): contagem lida direto dos livros da base
+        assertEquals(Map.of("pt", 10, "en", 5), raros.contagens().get(Faceta.IDIOMA));
+        assertEquals(Map.of("PDF", 15), raros.contagens().get(Faceta.TIPO_ARQUIVO));
+
+        // Base grande: interseção de bitmaps; conferida contra a contagem ingênua
+        IndiceFacetas.Resultado pt = grande.filtrar(Map.of(Faceta.IDIOMA, Set.of("pt")), 0, 1);
+        int ptPdf = 0, pts = 0;
+        for (int i = 0; i < 150_000; i++) {
+            boolean removido = i > 70_000 && i < 80_000 && i % 2 == 1;
+            if (removido || i % 3 == 0) continue;
+            pts++;
+            if (i % 2 == 0) ptPdf++;
+        }
+        assertEquals(pts, pt.total());
+        assertEquals(ptPdf, pt.contagens().get(Faceta.TIPO_ARQUIVO).get("PDF"));
+        assertEquals(List.of(ids.get(149_999)), pt.ids());
+
+        // Sem filtro: cardinalidade de cada valor
+        assertEquals(150_000 - 5_000, grande.filtrar(Map.of(), 0, 0).total());
+        assertEquals(15, grande.filtrar(Map.of(), 0, 0).contagens().get(Faceta.EDITORA).get("Raro"));
+    }
+}
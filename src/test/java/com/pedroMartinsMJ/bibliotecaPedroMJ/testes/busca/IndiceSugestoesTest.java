@@ -0,0 +1,158 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.busca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes.Sugestao;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.BibliotecaPessoalRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.PopularidadeLivro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o autocomplete (trie de prefixos, sem banco)
+ */
+class IndiceSugestoesTest {
+
+    private IndiceSugestoes indice;
+    private BibliotecaPessoalRepository bibliotecaPessoalRepository;
+
+    private final UUID machado = UUID.randomUUID();
+    private final UUID aluisio = UUID.randomUUID();
+    private final UUID dom = UUID.randomUUID();
+    private final UUID memorias = UUID.randomUUID();
+    private final UUID cortico = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        bibliotecaPessoalRepository = mock(BibliotecaPessoalRepository.class);
+        indice = new IndiceSugestoes(null, bibliotecaPessoalRepository);
+        indice.adicionarLivro(dom, "Dom Casmurro", machado, "Machado de Assis");
+        indice.adicionarLivro(memorias, "Memórias Póstumas de Brás Cubas", machado, "Machado de Assis");
+        indice.adicionarLivro(cortico, "O Cortiço", aluisio, "Aluísio Azevedo");
+    }
+
+    private List<UUID> ids(String prefixo) {
+        return indice.sugerir(prefixo, 10).stream().map(Sugestao::id).toList();
+    }
+
+    @Test
+    @DisplayName("Deve sugerir pelo começo do título, ignorando acentos e caixa")
+    void deveSugerirPorPrefixo() {
+        assertEquals(List.of(dom), ids("dom c"));
+        assertEquals(List.of(memorias), ids("MEMÓ"));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir pelo começo de qualquer palavra do título")
+    void deveSugerirPorPalavraDoMeio() {
+        assertEquals(List.of(memorias), ids("bras"));
+        assertEquals(List.of(cortico), ids("cort"));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir autores e ranquear pelo número de livros")
+    void deveSugerirAutores() {
+        List<Sugestao> sugestoes = indice.sugerir("a", 10);
+
+        assertEquals(machado, sugestoes.getFirst().id()); // "assis", 2 livros
+        assertEquals(Sugestao.Tipo.AUTOR, sugestoes.getFirst().tipo());
+        assertTrue(sugestoes.stream().anyMatch(s -> s.id().equals(aluisio)));
+    }
+
+    @Test
+    @DisplayName("Deve tirar livro e autor sem livros das sugestões ao remover")
+    void deveRemover() {
+        indice.removerLivro(cortico);
+
+        assertTrue(ids("cort").isEmpty());
+        assertTrue(ids("aluisio").isEmpty());
+        assertEquals(List.of(machado), ids("machado"));
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o limite e não repetir sugestões")
+    void deveRespeitarLimite() {
+        UUID ana = UUID.randomUUID();
+        indice.adicionarLivro(ana, "Ana e Ana", machado, "Machado de Assis");
+
+        assertEquals(List.of(ana), ids("ana"));
+        assertEquals(1, indice.sugerir("m", 1).size());
+        assertTrue(indice.sugerir("", 10).isEmpty());
+        assertTrue(ids("xyz").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve reordenar pela popularidade relida do banco (e zerar livro que saiu das bibliotecas)")
+    void deveAtualizarPopularidade() {
+        UUID quixote = UUID.randomUUID();
+        indice.adicionarLivro(quixote, "Dom Quixote", aluisio, "Aluísio Azevedo");
+        assertEquals(List.of(dom, quixote), ids("dom"));
+
+        when(bibliotecaPessoalRepository.contarLeitoresPorLivro())
+                .thenReturn(List.of(new PopularidadeLivro(quixote, 3L)))
+                .thenReturn(List.of(new PopularidadeLivro(dom, 1L)));
+
+        indice.atualizarPopularidade();
+        assertEquals(List.of(quixote, dom), ids("dom"));
+
+        indice.atualizarPopularidade();
+        assertEquals(List.of(dom, quixote), ids("dom"));
+    }
+
+    @Test
+    @DisplayName("Popularidade de muitos livros (vários lotes) reordena o top de prefixos compartilhados")
+    void deveAtualizarPopularidadeEmLotes() {
+        List<UUID> volumes = new ArrayList<>();
+        List<PopularidadeLivro> leitores = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            UUID volume = UUID.randomUUID();
+            volumes.add(volume);
+            indice.adicionarLivro(volume, "Enciclopédia volume " + i, machado, "Machado de Assis");
+            leitores.add(new PopularidadeLivro(volume, (long) i));
+        }
+        when(bibliotecaPessoalRepository.contarLeitoresPorLivro()).thenReturn(leitores);
+
+        indice.atualizarPopularidade();
+
+        // Mais lidos primeiro, pelo começo do título e pela palavra do meio
+        List<UUID> esperado = volumes.reversed().subList(0, 10);
+        assertEquals(esperado, ids("enciclopedia"));
+        assertEquals(esperado, ids("volume"));
+        assertEquals(List.of(volumes.get(1199)), ids("enciclopedia volume 1199"));
+    }
+
+    @Test
+    @DisplayName("Deve podar os nós vazios ao remover, voltando ao mesmo tamanho de trie")
+    void devePodarNosVazios() {
+        int antes = indice.quantidadeNos();
+        List<UUID> novos = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        indice.adicionarLivro(novos.get(0), "Dom Casmurro Ilustrado", machado, "Machado de Assis");
+        indice.adicionarLivro(novos.get(1), "Domingo no Parque", UUID.randomUUID(), "Gilberto Gil");
+        indice.adicionarLivro(novos.get(2), "Quincas Borba", machado, "Machado de Assis");
+        assertTrue(indice.quantidadeNos() > antes);
+
+        novos.forEach(indice::removerLivro);
+
+        assertEquals(antes, indice.quantidadeNos());
+        assertEquals(List.of(dom), ids("dom"));
+        assertEquals(List.of(dom), ids("casmurro"));
+        assertEquals(List.of(machado), ids("machado"));
+    }
+
+    @Test
+    @DisplayName("Prefixo maior que o limite de 40 caracteres da chave ainda encontra o título")
+    void deveAceitarPrefixoAlemDoLimiteDaChave() {
+        UUID longo = UUID.randomUUID();
+        String titulo = "Uma Historia Muito Comprida Sobre Tudo Que Aconteceu Naquele Verão";
+        indice.adicionarLivro(longo, titulo, machado, "Machado de Assis");
+
+        assertEquals(List.of(longo), ids(titulo.substring(0, 55)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.cache;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.minio.GetObjectResponse;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o cache de arquivos em disco (MinIO mockado, diretório temporário)
+ */
+class CacheArquivosDiscoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private MinioService minioService;
+    private CacheArquivosDisco cache;
+    private final byte[] arquivo = new byte[10_000];
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < arquivo.length; i++) arquivo[i] = (byte) (i * 31);
+
+        minioService = mock(MinioService.class);
+        when(minioService.downloadTrecho(eq("livros/a.pdf"), anyLong(), anyLong())).thenAnswer(inv -> {
+            long inicio = inv.getArgument(1);
+            long tamanho = inv.getArgument(2);
+            return new ByteArrayInputStream(arquivo, (int) inicio, (int) tamanho);
+        });
+
+        cache = new CacheArquivosDisco(minioService, new SimpleMeterRegistry(), diretorio, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.encerrar();
+    }
+
+    private void objetoNoMinio(String etag) {
+        when(minioService.downloadObjeto("livros/a.pdf")).thenAnswer(inv -> new GetObjectResponse(
+                Headers.of("ETag", etag, "Content-Length", String.valueOf(arquivo.length)),
+                "livros", "", "livros/a.pdf", new ByteArrayInputStream(arquivo)));
+    }
+
+    private byte[] copiar(long inicio, long tamanho) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        cache.copiar("livros/a.pdf", "v1", inicio, tamanho, saida);
+        return saida.toByteArray();
+    }
+
+    private long arquivosNoDisco() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".livro")).count();
+        }
+    }
+
+    private void aguardarDownload() throws Exception {
+        verify(minioService, timeout(2000)).downloadObjeto("livros/a.pdf");
+        Thread.sleep(100);
+    }
+
+    @Test
+    @DisplayName("Deve servir a primeira leitura do MinIO e as seguintes do disco")
+    void deveServirDoDisco() throws Exception {
+        objetoNoMinio("\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(arquivo)) + "\"");
+
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 100, 300), copiar(100, 200));
+        aguardarDownload();
+
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 5000, 9000), copiar(5000, 4000));
+        assertArrayEquals(arquivo, copiar(0, arquivo.length));
+
+        // A primeira leitura pode já achar o download pronto (arquivo pequeno); as outras sempre acham
+        verify(minioService, atMost(1)).downloadTrecho(anyString(), anyLong(), anyLong());
+        verify(minioService, times(1)).downloadObjeto(anyString());
+        assertEquals(1, arquivosNoDisco());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar arquivo que não bate com a ETag")
+    void naoDeveGuardarArquivoCorrompido() throws Exception {
+        objetoNoMinio("\"00000000000000000000000000000000\"");
+
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 0, 10), copiar(0, 10));
+        aguardarDownload();
+
+        // Falha não fica no cache: a próxima leitura volta ao MinIO e tenta de novo
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 0, 10), copiar(0, 10));
+        verify(minioService, timeout(2000).times(2)).downloadObjeto("livros/a.pdf");
+        Thread.sleep(100);
+
+        verify(minioService, times(2)).downloadTrecho(anyString(), anyLong(), anyLong());
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve aceitar ETag de upload multipart conferindo só o tamanho")
+    void deveAceitarEtagMultipart() throws Exception {
+        objetoNoMinio("\"d41d8cd98f00b204e9800998ecf8427e-3\"");
+
+        copiar(0, 10);
+        aguardarDownload();
+
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 9990, 10_000), copiar(9990, 10));
+        assertEquals(1, arquivosNoDisco());
+        verify(minioService, atMost(1)).downloadTrecho(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve apagar a cópia local quando o livro sai ou o arquivo é trocado")
+    void deveApagarCopiaAoInvalidar() throws Exception {
+        objetoNoMinio("\"d41d8cd98f00b204e9800998ecf8427e-3\"");
+
+        copiar(0, 10);
+        aguardarDownload();
+        assertEquals(1, arquivosNoDisco());
+
+        cache.invalidar("livros/b.pdf");
+        cache.invalidar("livros/a.pdf");
+
+        // O removalListener roda no executor do cache
+        for (int i = 0; i < 40 && arquivosNoDisco() > 0; i++) Thread.sleep(50);
+        assertEquals(0, arquivosNoDisco());
+
+        // Próxima leitura não acha mais a cópia: baixa de novo
+        copiar(0, 10);
+        verify(minioService, timeout(2000).times(2)).downloadObjeto("livros/a.pdf");
+    }
+}
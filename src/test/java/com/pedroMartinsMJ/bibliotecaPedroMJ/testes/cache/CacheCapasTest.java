@@ -0,0 +1,95 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.cache;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o cache de capas fora do heap (MinIO mockado)
+ */
+class CacheCapasTest {
+
+    private MinioService minioService;
+    private CacheCapas cache;
+    private final UUID livroId = UUID.randomUUID();
+    private final byte[] capa = new byte[4096];
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < capa.length; i++) capa[i] = (byte) (i * 7);
+
+        minioService = mock(MinioService.class);
+        when(minioService.downloadArquivo("capas/a.jpg")).thenAnswer(inv -> new ByteArrayInputStream(capa));
+        cache = new CacheCapas(minioService, new SimpleMeterRegistry(), DataSize.ofKilobytes(64));
+    }
+
+    private byte[] ler() throws IOException {
+        try (InputStream entrada = cache.abrir(livroId, "v1", "capas/a.jpg")) {
+            return entrada.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ir ao MinIO só na primeira leitura")
+    void deveServirDaMemoriaNativa() throws IOException {
+        assertArrayEquals(capa, ler());
+        assertArrayEquals(capa, ler());
+
+        verify(minioService, times(1)).downloadArquivo("capas/a.jpg");
+    }
+
+    @Test
+    @DisplayName("Deve buscar de novo depois de invalidar")
+    void deveRecarregarDepoisDeInvalidar() throws IOException {
+        ler();
+        cache.invalidar(livroId);
+        ler();
+
+        verify(minioService, times(2)).downloadArquivo("capas/a.jpg");
+    }
+
+    @Test
+    @DisplayName("Leitura em andamento continua válida mesmo se a capa sair do cache")
+    void leituraSobreviveAoDespejo() throws IOException {
+        try (InputStream entrada = cache.abrir(livroId, "v1", "capas/a.jpg")) {
+            byte[] inicio = entrada.readNBytes(100);
+            cache.invalidar(livroId);
+            byte[] resto = entrada.readAllBytes();
+
+            assertEquals(capa.length, inicio.length + resto.length);
+            assertEquals(capa[100], resto[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Leitura atrasada da versão antiga não ocupa a entrada da versão nova")
+    void deveSepararPorVersao() throws IOException {
+        byte[] nova = {1, 2, 3};
+        ler();
+        // Capa trocada no mesmo objeto do MinIO: quem já leu "v2" do banco pede a v2
+        when(minioService.downloadArquivo("capas/a.jpg")).thenAnswer(inv -> new ByteArrayInputStream(nova));
+        cache.invalidar(livroId);
+
+        try (InputStream entrada = cache.abrir(livroId, "v2", "capas/a.jpg")) {
+            assertArrayEquals(nova, entrada.readAllBytes());
+        }
+        // Requisição atrasada com a versão antiga: vai para a chave v1, a v2 continua intacta
+        ler();
+        try (InputStream entrada = cache.abrir(livroId, "v2", "capas/a.jpg")) {
+            assertArrayEquals(nova, entrada.readAllBytes());
+        }
+        verify(minioService, times(3)).downloadArquivo("capas/a.jpg");
+    }
+}
@@ -0,0 +1,72 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.cache;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o cache de leitura de livros (repositório mockado)
+ */
+class CacheLivrosTest {
+
+    private LivroRepository livroRepository;
+    private CacheLivros cache;
+
+    private final UUID id = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = mock(LivroRepository.class);
+        cache = new CacheLivros(livroRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    private LivroDetalhe detalhe(String titulo) {
+        return new LivroDetalhe(id, titulo, null, null, null, null, null, null,
+                UUID.randomUUID(), "Machado de Assis", "machado", "machado@email.com",
+                null, null, null, null, null, null, null, null, null, null, null, 0L);
+    }
+
+    @Test
+    @DisplayName("Deve ir ao banco só na primeira leitura")
+    void deveLerDoCache() {
+        when(livroRepository.buscarDetalhePorId(id)).thenReturn(Optional.of(detalhe("Dom Casmurro")));
+
+        assertEquals("Dom Casmurro", cache.buscar(id).orElseThrow().titulo());
+        assertEquals("Dom Casmurro", cache.buscar(id).orElseThrow().titulo());
+        verify(livroRepository, times(1)).buscarDetalhePorId(id);
+    }
+
+    @Test
+    @DisplayName("Deve recarregar do banco depois de invalidar")
+    void deveRecarregarAposInvalidar() {
+        when(livroRepository.buscarDetalhePorId(id))
+                .thenReturn(Optional.of(detalhe("Dom Casmurro")))
+                .thenReturn(Optional.of(detalhe("Dom Casmurro (2ª edição)")));
+
+        cache.buscar(id);
+        cache.invalidar(id);
+
+        assertEquals("Dom Casmurro (2ª edição)", cache.buscar(id).orElseThrow().titulo());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar livro inexistente")
+    void naoDeveGuardarAusente() {
+        when(livroRepository.buscarDetalhePorId(id)).thenReturn(Optional.empty());
+
+        assertTrue(cache.buscar(id).isEmpty());
+        assertTrue(cache.buscar(id).isEmpty());
+        verify(livroRepository, times(2)).buscarDetalhePorId(id);
+    }
+}
@@ -0,0 +1,51 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.cache;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o cache de respostas JSON pré-serializadas
+ */
+class CacheRespostasJsonTest {
+
+    private final CacheRespostasJson cache =
+            new CacheRespostasJson(new SimpleMeterRegistry(), 1024 * 1024, Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("Deve serializar só na primeira requisição da mesma chave")
+    void deveSerializarUmaVez() {
+        AtomicInteger serializacoes = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.obter("catalogo-1-24-inicio", () -> {
+                serializacoes.incrementAndGet();
+                return "{\"itens\":[]}".getBytes(StandardCharsets.UTF_8);
+            });
+        }
+
+        assertEquals(1, serializacoes.get());
+    }
+
+    @Test
+    @DisplayName("Deve guardar versão gzip com o mesmo conteúdo")
+    void deveGuardarGzip() throws IOException {
+        byte[] json = "{\"titulo\":\"Dom Casmurro\"}".getBytes(StandardCharsets.UTF_8);
+
+        CacheRespostasJson.RespostaJson resposta = cache.obter("livro-1-v0", () -> json);
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(resposta.gzip()))) {
+            assertArrayEquals(json, entrada.readAllBytes());
+        }
+    }
+}
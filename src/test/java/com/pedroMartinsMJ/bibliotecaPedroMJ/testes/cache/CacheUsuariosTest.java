@@ -0,0 +1,76 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.cache;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheUsuarios;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Role;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o cache de dados de login (repositório mockado)
+ */
+class CacheUsuariosTest {
+
+    private UsuarioRepository usuarioRepository;
+    private CacheUsuarios cache;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        cache = new CacheUsuarios(usuarioRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    private Usuario usuario(String username, String senha, String... roles) {
+        Usuario usuario = new Usuario(username, senha, "Nome", username + "@email.com", "12345678909", "11999999999");
+        for (String role : roles) {
+            usuario.addRole(new Role(role));
+        }
+        return usuario;
+    }
+
+    @Test
+    @DisplayName("Deve ir ao banco só no primeiro login")
+    void deveLerDoCache() {
+        when(usuarioRepository.findByUsername("lucas")).thenReturn(Optional.of(usuario("lucas", "hash", "ROLE_USER")));
+
+        cache.buscar("lucas");
+        cache.buscar("lucas");
+
+        verify(usuarioRepository, times(1)).findByUsername("lucas");
+    }
+
+    @Test
+    @DisplayName("Deve recarregar a senha depois de invalidar")
+    void deveRecarregarAposInvalidar() {
+        when(usuarioRepository.findByUsername("lucas"))
+                .thenReturn(Optional.of(usuario("lucas", "hash-antigo", "ROLE_USER")))
+                .thenReturn(Optional.of(usuario("lucas", "hash-novo", "ROLE_USER")));
+
+        cache.buscar("lucas");
+        cache.invalidar("lucas");
+
+        assertEquals("hash-novo", cache.buscar("lucas").orElseThrow().senha());
+    }
+
+    @Test
+    @DisplayName("Usuários com as mesmas roles devem compartilhar o mesmo conjunto de authorities")
+    void deveInternarAuthorities() {
+        when(usuarioRepository.findByUsername("lucas")).thenReturn(Optional.of(usuario("lucas", "h", "ROLE_USER", "ROLE_AUTOR")));
+        when(usuarioRepository.findByUsername("maria")).thenReturn(Optional.of(usuario("maria", "h", "ROLE_AUTOR", "ROLE_USER")));
+
+        var lucas = cache.buscar("lucas").orElseThrow().autoridades();
+        var maria = cache.buscar("maria").orElseThrow().autoridades();
+
+        assertSame(lucas, maria);
+        assertThrows(UnsupportedOperationException.class, () -> lucas.clear());
+    }
+}
@@ -0,0 +1,123 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.capas;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para a leitura do lote de capas (cache de capas mockado)
+ */
+class CapasEmLoteTest {
+
+    private CacheCapas cacheCapas;
+    private LivroService service;
+
+    // Streams abertos e ainda não fechados, por objeto
+    private final Set<String> abertos = ConcurrentHashMap.newKeySet();
+
+    private final LocalDateTime capaDataUpload = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        cacheCapas = mock(CacheCapas.class);
+        when(cacheCapas.abrir(any(), anyString(), anyString())).thenAnswer(inv -> stream(inv.getArgument(2)));
+        when(cacheCapas.abrir(any(), anyString(), anyInt(), anyString())).thenAnswer(inv -> stream(inv.getArgument(3)));
+
+        service = new LivroService(mock(LivroRepository.class), mock(MinioService.class),
+                mock(IndiceBuscaLivros.class), mock(IndiceSugestoes.class), mock(IndiceFacetas.class),
+                mock(FiltroIsbns.class), mock(CacheLivros.class), mock(CacheArquivosDisco.class), cacheCapas,
+                mock(MiniaturasCapaService.class), new GeracaoCatalogo(), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(service, "leiturasParalelasCapas", 4);
+    }
+
+    private InputStream stream(String objeto) {
+        abertos.add(objeto);
+        return new ByteArrayInputStream(objeto.getBytes()) {
+            @Override
+            public void close() {
+                abertos.remove(objeto);
+            }
+        };
+    }
+
+    private CapaLivro capa(String capaKey, String miniaturas) {
+        return new CapaLivro(UUID.randomUUID(), capaKey, "image/png", capaDataUpload, miniaturas);
+    }
+
+    @Test
+    @DisplayName("Deve entregar todas as capas (miniatura quando houver) e fechar os streams")
+    void deveEntregarTodasAsCapas() {
+        List<CapaLivro> capas = List.of(capa("capas/a.png", "160,320"), capa("capas/b.png", null), capa("capas/c.png", "160"));
+        Map<UUID, String> recebidas = new ConcurrentHashMap<>();
+
+        service.lerCapas(capas, 200, lida -> {
+            try {
+                recebidas.put(lida.livro().id(), new String(lida.capa().conteudo().readAllBytes()) + " " + lida.capa().contentType());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        String versao = capas.get(0).capaVersao();
+        assertEquals(MiniaturasCapaService.chave(capas.get(0).id(), versao, 320) + " image/jpeg", recebidas.get(capas.get(0).id()));
+        assertEquals("capas/b.png image/png", recebidas.get(capas.get(1).id()));
+        assertEquals("capas/c.png image/png", recebidas.get(capas.get(2).id()));
+        assertTrue(abertos.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Capa que falha ao abrir fica de fora sem derrubar o lote")
+    void deveIgnorarCapaQueFalhou() {
+        when(cacheCapas.abrir(any(), anyString(), eq("capas/quebrada.png"))).thenThrow(new RuntimeException("MinIO fora"));
+        List<CapaLivro> capas = List.of(capa("capas/a.png", null), capa("capas/quebrada.png", null));
+        List<UUID> recebidas = new CopyOnWriteArrayList<>();
+
+        service.lerCapas(capas, 160, lida -> recebidas.add(lida.livro().id()));
+
+        assertEquals(List.of(capas.get(0).id()), recebidas);
+    }
+
+    @Test
+    @DisplayName("Cliente desconectado no meio: todas as capas abertas são fechadas")
+    void deveFecharCapasSeClienteDesconectar() {
+        List<CapaLivro> capas = List.of(capa("capas/a.png", null), capa("capas/b.png", null),
+                capa("capas/c.png", null), capa("capas/d.png", null), capa("capas/e.png", null));
+
+        assertThrows(UncheckedIOException.class, () -> service.lerCapas(capas, 160, lida -> {
+            throw new UncheckedIOException(new IOException("Broken pipe"));
+        }));
+
+        assertTrue(abertos.isEmpty());
+    }
+}
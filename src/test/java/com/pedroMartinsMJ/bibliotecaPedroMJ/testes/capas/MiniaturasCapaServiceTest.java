@@ -0,0 +1,202 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.capas;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para as miniaturas de capa (MinIO e repositório mockados)
+ */
+class MiniaturasCapaServiceTest {
+
+    private MinioService minioService;
+    private LivroRepository livroRepository;
+    private CacheLivros cacheLivros;
+    private MiniaturasCapaService service;
+
+    private final UUID livroId = UUID.randomUUID();
+    private final LocalDateTime capaDataUpload = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        minioService = mock(MinioService.class);
+        livroRepository = mock(LivroRepository.class);
+        cacheLivros = mock(CacheLivros.class);
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        service = new MiniaturasCapaService(minioService, livroRepository, cacheLivros, new GeracaoCatalogo(), transactionTemplate,
+                List.of(160, 320, 640), 0.8f, 40_000_000, 1, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    private void capaNoMinio(int largura, int altura) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB), "png", png);
+        when(minioService.downloadArquivo("capas/a.png")).thenAnswer(inv -> new ByteArrayInputStream(png.toByteArray()));
+    }
+
+    private long downloads() {
+        return mockingDetails(minioService).getInvocations().stream()
+                .filter(inv -> inv.getMethod().getName().equals("downloadArquivo"))
+                .count();
+    }
+
+    /**
+     * Reagenda até a tentativa começar: enquanto a anterior está na fila ou gerando, agendar é ignorado
+     */
+    private void tentar(int tentativa) throws InterruptedException {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (downloads() < tentativa) {
+            assertTrue(System.nanoTime() < limite, "tentativa " + tentativa + " não começou");
+            service.agendar(livroId, "capas/a.png", capaDataUpload);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve escolher a menor miniatura que cobre a largura pedida")
+    void deveEscolherMiniatura() {
+        assertEquals(160, MiniaturasCapaService.escolher("160,320", 100));
+        assertEquals(320, MiniaturasCapaService.escolher("160,320", 161));
+        assertNull(MiniaturasCapaService.escolher("160,320", 500));
+        assertNull(MiniaturasCapaService.escolher(null, 100));
+        assertNull(MiniaturasCapaService.escolher("160,320", null));
+    }
+
+    @Test
+    @DisplayName("Deve gerar só as larguras menores que a original e registrar no livro")
+    void deveGerarMiniaturas() throws IOException {
+        capaNoMinio(400, 600);
+        when(livroRepository.registrarMiniaturas(eq(livroId), eq(capaDataUpload), eq("160,320"), anyString())).thenReturn(1);
+
+        service.agendar(livroId, "capas/a.png", capaDataUpload);
+
+        verify(cacheLivros, timeout(5000)).invalidar(livroId);
+        String versao = Livro.versaoCapa(capaDataUpload);
+        verify(minioService).uploadBytes(eq(MiniaturasCapaService.chave(livroId, versao, 160)), any(), eq("image/jpeg"));
+        verify(minioService).uploadBytes(eq(MiniaturasCapaService.chave(livroId, versao, 320)), any(), eq("image/jpeg"));
+        verify(minioService, times(2)).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Deve apagar as miniaturas se a capa mudou durante a geração")
+    void deveDescartarSeCapaMudou() throws IOException {
+        capaNoMinio(200, 300);
+        when(livroRepository.registrarMiniaturas(any(), any(), any(), any())).thenReturn(0);
+
+        service.agendar(livroId, "capas/a.png", capaDataUpload);
+
+        String chave = MiniaturasCapaService.chave(livroId, Livro.versaoCapa(capaDataUpload), 160);
+        verify(minioService, timeout(5000)).deletarArquivos(List.of(chave));
+        verify(cacheLivros, never()).invalidar(any());
+    }
+
+    @Test
+    @DisplayName("Capa menor que todas as larguras: geração concluída sem miniaturas, com placeholder")
+    void deveGravarPlaceholderSemMiniaturas() throws IOException {
+        capaNoMinio(100, 150);
+        when(livroRepository.registrarMiniaturas(eq(livroId), eq(capaDataUpload), eq(""), anyString())).thenReturn(1);
+
+        service.agendar(livroId, "capas/a.png", capaDataUpload);
+
+        verify(cacheLivros, timeout(5000)).invalidar(livroId);
+        verify(minioService, never()).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Capa ilegível: falha definitiva, geração concluída sem miniaturas e sem placeholder")
+    void deveConcluirSemMiniaturasSeCapaIlegivel() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB), "png", png);
+        // Cabeçalho PNG válido (há leitor), dados cortados: a decodificação falha
+        byte[] truncado = Arrays.copyOf(png.toByteArray(), 40);
+        when(minioService.downloadArquivo("capas/a.png")).thenAnswer(inv -> new ByteArrayInputStream(truncado));
+        when(livroRepository.registrarMiniaturas(livroId, capaDataUpload, "", null)).thenReturn(1);
+
+        service.agendar(livroId, "capas/a.png", capaDataUpload);
+
+        verify(cacheLivros, timeout(5000)).invalidar(livroId);
+        verify(minioService, never()).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    @DisplayName("Falha transitória (MinIO): fica pendente até MAX_TENTATIVAS, depois desiste e conclui sem miniaturas")
+    void deveRepetirFalhaTransitoria() throws InterruptedException {
+        when(minioService.downloadArquivo("capas/a.png")).thenThrow(new RuntimeException("MinIO fora"));
+        when(livroRepository.registrarMiniaturas(livroId, capaDataUpload, "", null)).thenReturn(1);
+
+        for (int tentativa = 1; tentativa < 5; tentativa++) {
+            tentar(tentativa);
+        }
+        verify(livroRepository, after(200).never()).registrarMiniaturas(any(), any(), any(), any());
+
+        tentar(5);
+
+        verify(livroRepository, timeout(5000)).registrarMiniaturas(livroId, capaDataUpload, "", null);
+        verify(cacheLivros, timeout(5000)).invalidar(livroId);
+    }
+
+    @Test
+    @DisplayName("Reprocessamento: capas sem miniaturas (livros antigos) entram na fila de geração")
+    void deveReprocessarCapasPendentes() throws IOException {
+        capaNoMinio(400, 600);
+        when(livroRepository.buscarCapasSemMiniaturas(any())).thenReturn(List.of(
+                new CapaLivro(livroId, "capas/a.png", "image/png", capaDataUpload, null)));
+        when(livroRepository.registrarMiniaturas(eq(livroId), eq(capaDataUpload), eq("160,320"), anyString())).thenReturn(1);
+
+        service.reprocessarPendentes();
+
+        verify(cacheLivros, timeout(5000)).invalidar(livroId);
+        verify(minioService, times(2)).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    @DisplayName("BlurHash deve ter o tamanho fixo e a cor média da capa")
+    void deveCalcularBlurHash() {
+        BufferedImage vermelha = new BufferedImage(30, 45, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = vermelha.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 30, 45);
+        g.dispose();
+
+        String hash = MiniaturasCapaService.blurHash(vermelha);
+
+        // 3x4 componentes ('T'), cor média 0xFF0000 ("TI:j" em base 83), 11 componentes de 2 caracteres
+        assertEquals(28, hash.length());
+        assertEquals('T', hash.charAt(0));
+        assertEquals("TI:j", hash.substring(2, 6));
+    }
+}
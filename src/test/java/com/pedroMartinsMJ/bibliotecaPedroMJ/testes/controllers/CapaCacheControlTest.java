@@ -0,0 +1,167 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.LivroController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.CapaLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroDetalhe;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Cache-Control do GET /api/livros/{id}/capa: imutável só quando a resposta é a definitiva para (v, w)
+ */
+class CapaCacheControlTest {
+
+    private static final String IMUTAVEL = "max-age=31536000, public, immutable";
+
+    private CacheLivros cacheLivros;
+    private LivroRepository livroRepository;
+    private MockMvc mvc;
+
+    private final UUID livroId = UUID.randomUUID();
+    private final LocalDateTime capaDataUpload = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private final String versao = Livro.versaoCapa(capaDataUpload);
+
+    @BeforeEach
+    void setUp() {
+        cacheLivros = mock(CacheLivros.class);
+        CacheCapas cacheCapas = mock(CacheCapas.class);
+        when(cacheCapas.abrir(any(), anyString(), anyString())).thenAnswer(inv -> new ByteArrayInputStream(inv.<String>getArgument(2).getBytes()));
+        when(cacheCapas.abrir(any(), anyString(), anyInt(), anyString())).thenAnswer(inv -> new ByteArrayInputStream(inv.<String>getArgument(3).getBytes()));
+
+        livroRepository = mock(LivroRepository.class);
+        LivroService livroService = new LivroService(livroRepository, mock(MinioService.class),
+                mock(IndiceBuscaLivros.class), mock(IndiceSugestoes.class), mock(IndiceFacetas.class),
+                mock(FiltroIsbns.class), cacheLivros, mock(CacheArquivosDisco.class), cacheCapas,
+                mock(MiniaturasCapaService.class), new GeracaoCatalogo(), mock(TransactionTemplate.class));
+        ReflectionTestUtils.setField(livroService, "leiturasParalelasCapas", 2);
+
+        LivroController controller = new LivroController(livroService, mock(ImportacaoLivrosService.class),
+                mock(ExclusaoLivrosService.class), mock(LivroMapper.class), JsonMapper.builder().build(),
+                mock(CacheRespostasJson.class));
+
+        // Mesmo proxy de validação (@Validated) que o contexto cria para o controller
+        MethodValidationPostProcessor validacao = new MethodValidationPostProcessor();
+        validacao.setProxyTargetClass(true);
+        validacao.afterPropertiesSet();
+
+        mvc = MockMvcBuilders.standaloneSetup(validacao.postProcessAfterInitialization(controller, "livroController"))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private void livroComMiniaturas(String miniaturas) {
+        when(cacheLivros.buscar(livroId)).thenReturn(Optional.of(new LivroDetalhe(livroId, "Dom Casmurro",
+                null, null, null, null, null, null,
+                UUID.randomUUID(), "Machado de Assis", "machado", "machado@email.com",
+                null, null, null, null,
+                "capas/original.png", "image/png", 1000L, capaDataUpload, miniaturas, null,
+                null, 0L)));
+    }
+
+    @Test
+    @DisplayName("Miniatura ainda não gerada: serve a original sem cache imutável")
+    void naoDeveFixarOriginalAntesDaMiniatura() throws Exception {
+        livroComMiniaturas(null);
+
+        mvc.perform(get("/api/livros/" + livroId + "/capa?w=320&v=" + versao))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().string("capas/original.png"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    @DisplayName("Miniatura registrada: imutável")
+    void deveFixarMiniaturaRegistrada() throws Exception {
+        livroComMiniaturas("160,320");
+
+        mvc.perform(get("/api/livros/" + livroId + "/capa?w=320&v=" + versao))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().string(MiniaturasCapaService.chave(livroId, versao, 320)))
+                .andExpect(header().string("Cache-Control", IMUTAVEL));
+    }
+
+    @Test
+    @DisplayName("Geração concluída sem miniatura para a largura (ou sem largura): a original é definitiva")
+    void deveFixarOriginalQuandoDefinitiva() throws Exception {
+        livroComMiniaturas("");
+        mvc.perform(get("/api/livros/" + livroId + "/capa?w=320&v=" + versao))
+                .andExpect(header().string("Cache-Control", IMUTAVEL));
+
+        livroComMiniaturas(null);
+        mvc.perform(get("/api/livros/" + livroId + "/capa?v=" + versao))
+                .andExpect(header().string("Cache-Control", IMUTAVEL));
+    }
+
+    @Test
+    @DisplayName("Sem versão na URL: continua 24h")
+    void deveManter24hSemVersao() throws Exception {
+        livroComMiniaturas("160,320");
+
+        mvc.perform(get("/api/livros/" + livroId + "/capa?w=320"))
+                .andExpect(header().string("Cache-Control", "max-age=86400"));
+    }
+
+    @Test
+    @DisplayName("Largura fora de 1..4096: 400 apontando o parâmetro, sem buscar o livro")
+    void deveRecusarLarguraInvalida() throws Exception {
+        for (String w : List.of("0", "-5", "4097")) {
+            mvc.perform(get("/api/livros/" + livroId + "/capa?w=" + w + "&v=" + versao))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.erros.largura").exists());
+        }
+        verifyNoInteractions(cacheLivros);
+    }
+
+    @Test
+    @DisplayName("Lote com capa ainda sem miniaturas: revalida; com todas concluídas: 24h")
+    void loteDeveRevalidarEnquantoGera() throws Exception {
+        CapaLivro pronta = new CapaLivro(UUID.randomUUID(), "capas/a.png", "image/png", capaDataUpload, "160,320");
+        CapaLivro gerando = new CapaLivro(UUID.randomUUID(), "capas/b.png", "image/png", capaDataUpload, null);
+
+        when(livroRepository.buscarCapasPorIds(any())).thenReturn(List.of(pronta, gerando));
+        mvc.perform(get("/api/livros/capas?ids=" + pronta.id() + "," + gerando.id()))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+
+        when(livroRepository.buscarCapasPorIds(any())).thenReturn(List.of(pronta));
+        mvc.perform(get("/api/livros/capas?ids=" + pronta.id()))
+                .andExpect(header().string("Cache-Control", "max-age=86400"));
+    }
+}
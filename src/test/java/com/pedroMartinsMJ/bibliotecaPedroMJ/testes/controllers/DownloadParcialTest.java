@@ -0,0 +1,90 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DownloadParcial;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o download com Range (arquivo simulado em memória)
+ */
+class DownloadParcialTest {
+
+    private static final String ETAG = "\"arq-1-64\"";
+    private final byte[] arquivo = new byte[100];
+
+    {
+        for (int i = 0; i < arquivo.length; i++) arquivo[i] = (byte) i;
+    }
+
+    private ResponseEntity<StreamingResponseBody> baixar(String range, String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/livros/1/download");
+        if (range != null) request.addHeader(HttpHeaders.RANGE, range);
+        if (ifRange != null) request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+
+        return DownloadParcial.responder(new ServletWebRequest(request, new MockHttpServletResponse()),
+                ETAG, -1, arquivo.length, MediaType.APPLICATION_PDF, new HttpHeaders(),
+                (inicio, tamanho, saida) -> saida.write(arquivo, (int) inicio, (int) tamanho));
+    }
+
+    private static byte[] corpo(ResponseEntity<StreamingResponseBody> resposta) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        resposta.getBody().writeTo(saida);
+        return saida.toByteArray();
+    }
+
+    @Test
+    @DisplayName("Deve devolver 206 só com os bytes da faixa")
+    void deveDevolverFaixa() throws IOException {
+        ResponseEntity<StreamingResponseBody> resposta = baixar("bytes=10-19", null);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, resposta.getStatusCode());
+        assertEquals("bytes 10-19/100", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, resposta.getHeaders().getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(arquivo, 10, 20), corpo(resposta));
+    }
+
+    @Test
+    @DisplayName("If-Range de outra versão deve receber o arquivo inteiro")
+    void deveIgnorarRangeDeOutraVersao() throws IOException {
+        ResponseEntity<StreamingResponseBody> resposta = baixar("bytes=10-19", "\"arq-0-64\"");
+
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertArrayEquals(arquivo, corpo(resposta));
+    }
+
+    @Test
+    @DisplayName("Faixa além do fim do arquivo deve dar 416")
+    void deveRecusarFaixaForaDoArquivo() {
+        ResponseEntity<StreamingResponseBody> resposta = baixar("bytes=200-300", null);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, resposta.getStatusCode());
+        assertEquals("bytes */100", resposta.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    @DisplayName("Várias faixas devem vir em multipart/byteranges com Content-Length exato")
+    void deveDevolverVariasFaixas() throws IOException {
+        ResponseEntity<StreamingResponseBody> resposta = baixar("bytes=0-4,-5", null);
+        byte[] corpo = corpo(resposta);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, resposta.getStatusCode());
+        assertEquals("multipart", resposta.getHeaders().getContentType().getType());
+        assertEquals(corpo.length, resposta.getHeaders().getContentLength());
+        assertTrue(new String(corpo, StandardCharsets.ISO_8859_1).contains("Content-Range: bytes 95-99/100"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceBuscaLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceFacetas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.IndiceSugestoes;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheArquivosDisco;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheCapas;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheLivros;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.LivroController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.enums.TipoArquivo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.LivroResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MiniaturasCapaService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.UsuarioService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /api/livros/export: NDJSON em streaming, uma linha por livro, do primeiro ao último do catálogo
+ */
+class ExportacaoCatalogoTest {
+
+    // Bem mais que uma página da listagem (LIMITE_MAXIMO_PAGINA): a exportação não para no limite
+    private static final int LIVROS = 2 * LivroService.LIMITE_MAXIMO_PAGINA + 37;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final LocalDateTime agora = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private final AtomicBoolean fechado = new AtomicBoolean();
+
+    private List<LivroResumo> catalogo;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        // Mesma ordem da query: mais recentes primeiro
+        catalogo = IntStream.range(0, LIVROS)
+                .mapToObj(i -> new LivroResumo(UUID.randomUUID(), "Livro " + i, "Descrição\ncom quebra de linha",
+                        "978-85-" + String.format("%06d", i), "Garnier", null, 100 + i, "pt",
+                        UUID.randomUUID(), "Machado de Assis", "machado", "machado@email.com",
+                        "livros/" + i + ".pdf", TipoArquivo.PDF, 1024L, agora, null, null, null,
+                        agora.minusMinutes(i)))
+                .toList();
+
+        LivroRepository livroRepository = mock(LivroRepository.class);
+        when(livroRepository.streamCatalogo()).thenAnswer(inv -> catalogo.stream().onClose(() -> fechado.set(true)));
+
+        LivroService livroService = new LivroService(livroRepository, mock(MinioService.class),
+                mock(IndiceBuscaLivros.class), mock(IndiceSugestoes.class), mock(IndiceFacetas.class),
+                mock(FiltroIsbns.class), mock(CacheLivros.class), mock(CacheArquivosDisco.class), mock(CacheCapas.class),
+                mock(MiniaturasCapaService.class), new GeracaoCatalogo(), mock(TransactionTemplate.class));
+
+        mvc = MockMvcBuilders.standaloneSetup(new LivroController(livroService, mock(ImportacaoLivrosService.class),
+                mock(ExclusaoLivrosService.class), new LivroMapper(mock(UsuarioService.class)), jsonMapper,
+                mock(CacheRespostasJson.class))).build();
+    }
+
+    @Test
+    @DisplayName("Deve responder application/x-ndjson com um objeto JSON por linha, do primeiro ao último livro")
+    void deveExportarCatalogoInteiro() throws Exception {
+        MvcResult inicio = mvc.perform(get("/api/livros/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult resultado = mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalogo.ndjson\""))
+                .andReturn();
+
+        String corpo = resultado.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(corpo.endsWith("\n"));
+
+        // Quebra de linha dentro de um campo sai escapada: cada linha do corpo é um livro inteiro
+        List<String> linhas = corpo.lines().toList();
+        assertEquals(LIVROS, linhas.size());
+        for (int i = 0; i < LIVROS; i++) {
+            JsonNode livro = jsonMapper.readTree(linhas.get(i));
+            assertTrue(livro.isObject(), linhas.get(i));
+            assertEquals(catalogo.get(i).id().toString(), livro.get("id").asString());
+            assertEquals("Descrição\ncom quebra de linha", livro.get("descricao").asString());
+        }
+
+        // Stream do cursor lida até o fim e fechada
+        assertTrue(fechado.get());
+    }
+
+    @Test
+    @DisplayName("Catálogo vazio: 200 com corpo vazio")
+    void deveExportarCatalogoVazio() throws Exception {
+        catalogo = List.of();
+
+        MvcResult inicio = mvc.perform(get("/api/livros/export")).andReturn();
+        mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(""));
+    }
+}
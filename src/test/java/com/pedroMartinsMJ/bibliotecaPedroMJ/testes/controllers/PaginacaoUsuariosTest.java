@@ -0,0 +1,132 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.CursorLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.DTOs.CursorUsuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.UsuarioController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.UsuarioMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.UsuarioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.GlobalExceptionHandler;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.CursorInvalidoException;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Listagem de usuários (GET /usuario/tudo): cursor próprio, ordem estável entre páginas e cursor inválido
+ */
+class PaginacaoUsuariosTest {
+
+    // Mesma ordem das queries do UsuarioRepository: dataCadastro DESC, id DESC
+    private static final Comparator<UsuarioResumo> MAIS_RECENTES = Comparator
+            .comparing(UsuarioResumo::dataCadastro)
+            .thenComparing(UsuarioResumo::id)
+            .reversed();
+
+    private final LocalDateTime agora = LocalDateTime.of(2025, 3, 10, 12, 0, 0, 123_456_000);
+    private final List<UsuarioResumo> usuarios = new ArrayList<>();
+
+    private UsuarioService usuarioService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        // 7 usuários, 3 deles cadastrados no mesmo instante (desempate pelo id)
+        for (int i = 0; i < 7; i++) {
+            LocalDateTime data = i < 3 ? agora : agora.minusMinutes(i);
+            usuarios.add(new UsuarioResumo(UUID.randomUUID(), "usuario" + i, "Usuário " + i,
+                    "usuario" + i + "@email.com", null, null, data, true));
+        }
+
+        usuarioService = mock(UsuarioService.class);
+        // Seek em memória com o mesmo predicado do buscarPaginaApos
+        when(usuarioService.listarPagina(any(), any(), anyInt())).thenAnswer(inv -> {
+            LocalDateTime aposData = inv.getArgument(0);
+            UUID aposId = inv.getArgument(1);
+            int limite = inv.getArgument(2);
+
+            List<UsuarioResumo> restantes = usuarios.stream()
+                    .sorted(MAIS_RECENTES)
+                    .filter(u -> aposData == null || u.dataCadastro().isBefore(aposData)
+                            || (u.dataCadastro().isEqual(aposData) && u.id().compareTo(aposId) < 0))
+                    .toList();
+            return new SliceImpl<>(restantes.stream().limit(limite).toList(), PageRequest.of(0, limite),
+                    restantes.size() > limite);
+        });
+
+        LivroService livroService = mock(LivroService.class);
+        when(livroService.buscarPorAutores(any())).thenReturn(Map.of());
+
+        mvc = MockMvcBuilders.standaloneSetup(new UsuarioController(usuarioService, livroService,
+                        new UsuarioMapper(mock(LivroMapper.class))))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Páginas seguidas pelo cursor: todos os usuários, uma vez cada, dos mais recentes aos mais antigos")
+    void devePercorrerTodasAsPaginasEmOrdem() throws Exception {
+        List<String> vistos = new ArrayList<>();
+        String after = "";
+        int paginas = 0;
+
+        do {
+            String json = mvc.perform(get("/usuario/tudo?limit=3&after=" + after))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            vistos.addAll(JsonPath.read(json, "$.itens[*].id"));
+            after = JsonPath.read(json, "$.proximoCursor");
+            paginas++;
+        } while (after != null);
+
+        List<String> esperado = usuarios.stream().sorted(MAIS_RECENTES).map(u -> u.id().toString()).toList();
+        assertEquals(esperado, vistos);
+        assertEquals(3, paginas);
+    }
+
+    @Test
+    @DisplayName("Cursor da página leva a posição exata (com nanos) do último usuário entregue")
+    void deveFazerIdaEVoltaDoCursor() {
+        UUID id = UUID.randomUUID();
+        CursorUsuario cursor = new CursorUsuario(agora, id);
+
+        assertEquals(cursor, CursorUsuario.decodificar(cursor.codificar()));
+        assertFalse(cursor.codificar().contains("="));
+    }
+
+    @Test
+    @DisplayName("Cursor adulterado ou do catálogo de livros: 400 sem consultar o banco")
+    void deveRecusarCursorInvalido() throws Exception {
+        String deLivro = new CursorLivro(agora, UUID.randomUUID()).codificar();
+
+        assertThrows(CursorInvalidoException.class, () -> CursorUsuario.decodificar(deLivro));
+        assertThrows(CursorInvalidoException.class, () -> CursorUsuario.decodificar("%%%"));
+
+        for (String after : List.of("nao-e-um-cursor", deLivro)) {
+            mvc.perform(get("/usuario/tudo?after=" + after))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.erros.after").value("Cursor de paginação inválido"));
+        }
+        verifyNoInteractions(usuarioService);
+    }
+}
@@ -0,0 +1,72 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.LivroController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.GlobalExceptionHandler;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 400 só para os erros de requisição da própria aplicação; IllegalArgumentException qualquer não vaza a mensagem
+ */
+class RequisicaoInvalidaTest {
+
+    private LivroService livroService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        livroService = mock(LivroService.class);
+        mvc = MockMvcBuilders.standaloneSetup(new LivroController(livroService, mock(ImportacaoLivrosService.class),
+                        mock(ExclusaoLivrosService.class), mock(LivroMapper.class), JsonMapper.builder().build(),
+                        mock(CacheRespostasJson.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Cursor adulterado: 400 com mensagem fixa")
+    void cursorInvalidoDeveSer400() throws Exception {
+        mvc.perform(get("/api/livros?after=nao-e-um-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.after").value("Cursor de paginação inválido"));
+    }
+
+    @Test
+    @DisplayName("Erro de requisição da aplicação: 400 com a mensagem dela")
+    void requisicaoInvalidaDeveSer400() throws Exception {
+        when(livroService.buscarCapas(any())).thenThrow(new RequisicaoInvalidaException("Informe de 1 a 100 livros"));
+
+        mvc.perform(get("/api/livros/capas?ids=" + UUID.randomUUID()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.erro").value("Informe de 1 a 100 livros"));
+    }
+
+    @Test
+    @DisplayName("IllegalArgumentException de biblioteca: 500 genérico, sem a mensagem interna")
+    void illegalArgumentGenericoNaoDeveVazar() throws Exception {
+        when(livroService.buscarCapas(any())).thenThrow(new IllegalArgumentException("detalhe interno do driver"));
+
+        mvc.perform(get("/api/livros/capas?ids=" + UUID.randomUUID()))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string(not(containsString("detalhe interno"))));
+    }
+}
@@ -0,0 +1,89 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.controllers;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheRespostasJson;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.LivroController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Resposta JSON pré-serializada do catálogo: negociação do gzip e chave do cache
+ */
+class RespostaJsonTest {
+
+    private LivroService livroService;
+    private CacheRespostasJson cacheRespostasJson;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        livroService = mock(LivroService.class);
+        cacheRespostasJson = mock(CacheRespostasJson.class);
+        when(livroService.geracaoCatalogo()).thenReturn(7L);
+        when(livroService.listarPagina(any(), any(), anyInt())).thenReturn(new SliceImpl<>(List.of()));
+        when(cacheRespostasJson.obter(anyString(), any())).thenReturn(new CacheRespostasJson.RespostaJson(
+                "{}".getBytes(StandardCharsets.UTF_8), new byte[]{0x1f, (byte) 0x8b}));
+
+        mvc = MockMvcBuilders.standaloneSetup(new LivroController(livroService, mock(ImportacaoLivrosService.class),
+                        mock(ExclusaoLivrosService.class), mock(LivroMapper.class), JsonMapper.builder().build(),
+                        cacheRespostasJson))
+                .build();
+    }
+
+    @ParameterizedTest(name = "Accept-Encoding: {0} → gzip = {1}")
+    @CsvSource(delimiter = '|', value = {
+            "gzip                     | true",
+            "deflate, GZIP;q=0.5      | true",
+            "br;q=1.0, gzip; q=0.001  | true",
+            "*                        | true",
+            "gzip;q=0                 | false",
+            "gzip;q=0.0, deflate      | false",
+            "*;q=1, gzip;q=0          | false",
+            "gzip;q=abc               | false",
+            "deflate, br              | false",
+            "identity                 | false",
+    })
+    @DisplayName("Deve respeitar os q-values do Accept-Encoding")
+    void deveNegociarGzip(String aceita, boolean gzip) throws Exception {
+        var resultado = mvc.perform(get("/api/livros").header(HttpHeaders.ACCEPT_ENCODING, aceita))
+                .andExpect(status().isOk());
+
+        if (gzip) {
+            resultado.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-7-24-inicio-gz\""));
+        } else {
+            resultado.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"catalogo-7-24-inicio\""));
+        }
+    }
+
+    @Test
+    @DisplayName("Limites acima do máximo caem na mesma entrada do cache")
+    void deveUsarLimiteAjustadoNaChave() throws Exception {
+        mvc.perform(get("/api/livros?limit=100")).andExpect(status().isOk());
+        mvc.perform(get("/api/livros?limit=5000")).andExpect(status().isOk());
+        mvc.perform(get("/api/livros?limit=-3")).andExpect(status().isOk());
+
+        verify(cacheRespostasJson, times(2)).obter(eq("catalogo-7-100-inicio"), any());
+        verify(cacheRespostasJson).obter(eq("catalogo-7-1-inicio"), any());
+    }
+}
@@ -0,0 +1,206 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.exclusao;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.BibliotecaPessoalRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ChavesLivro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService.Progresso;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ExclusaoLivrosService.StatusExclusao;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para a exclusão em lote (banco e MinIO mockados, job rodando de verdade no executor)
+ */
+class ExclusaoLivrosServiceTest {
+
+    private static final Authentication ADMIN = new TestingAuthenticationToken("admin", null, "SCOPE_ROLE_ADMIN");
+
+    private final UUID autorId = UUID.randomUUID();
+    private final Authentication autor = new TestingAuthenticationToken("machado", null, "ROLE_USER");
+
+    private LivroRepository livroRepository;
+    private UsuarioRepository usuarioRepository;
+    private MinioService minioService;
+    private ExclusaoLivrosService service;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = mock(LivroRepository.class);
+        usuarioRepository = mock(UsuarioRepository.class);
+        minioService = mock(MinioService.class);
+
+        Usuario machado = new Usuario();
+        machado.setId(autorId);
+        machado.setUsername("machado");
+        when(usuarioRepository.findByUsername("machado")).thenReturn(Optional.of(machado));
+        when(usuarioRepository.existsById(autorId)).thenReturn(true);
+        // Banco devolve só os ids pedidos que "existem" (todos, salvo quando o teste diz o contrário)
+        when(livroRepository.buscarChavesPorIds(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<UUID>>getArgument(0).stream().map(ExclusaoLivrosServiceTest::chaves).toList());
+        when(minioService.deletarArquivos(anyCollection())).thenReturn(List.of());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        service = new ExclusaoLivrosService(livroRepository, mock(BibliotecaPessoalRepository.class), usuarioRepository,
+                mock(LivroService.class), minioService, new GeracaoCatalogo(), transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    private static ChavesLivro chaves(UUID id) {
+        return new ChavesLivro(id, null, "livros/" + id + ".pdf", "capas/" + id + ".png", null, null);
+    }
+
+    private static List<UUID> ids(int quantidade) {
+        return IntStream.range(0, quantidade).mapToObj(i -> UUID.randomUUID()).toList();
+    }
+
+    /**
+     * Espera o job terminar, consultando o progresso como o cliente faria
+     */
+    private Progresso esperar(Progresso agendado) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Progresso atual = service.progresso(agendado.id()).orElseThrow();
+            if (atual.status() == StatusExclusao.CONCLUIDO || atual.status() == StatusExclusao.FALHOU) {
+                return atual;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Job não terminou");
+    }
+
+    @Test
+    @DisplayName("Lista de ids: lotes de 500 (buscar, DELETE e removeObjects por lote)")
+    void deveDividirIdsEmLotes() throws InterruptedException {
+        Progresso progresso = esperar(service.excluirPorIds(ids(1201), ADMIN));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> lotes = ArgumentCaptor.forClass(Collection.class);
+        verify(livroRepository, times(3)).buscarChavesPorIds(lotes.capture());
+        assertEquals(List.of(500, 500, 201), lotes.getAllValues().stream().map(Collection::size).toList());
+        verify(livroRepository, times(3)).deletarPorIds(anyCollection());
+        verify(minioService, times(3)).deletarArquivos(anyCollection());
+
+        assertEquals(StatusExclusao.CONCLUIDO, progresso.status());
+        assertEquals(1201, progresso.removidos());
+        assertEquals(1201, progresso.processados());
+    }
+
+    @Test
+    @DisplayName("Autor: páginas por seek no id até a página vazia")
+    void devePaginarLivrosDoAutor() throws InterruptedException {
+        List<ChavesLivro> primeira = ids(500).stream().map(ExclusaoLivrosServiceTest::chaves).toList();
+        List<ChavesLivro> segunda = ids(3).stream().map(ExclusaoLivrosServiceTest::chaves).toList();
+        when(livroRepository.countByAutorId(autorId)).thenReturn(503L);
+        when(livroRepository.buscarChavesPorAutor(eq(autorId), any(), any(Pageable.class)))
+                .thenReturn(primeira, segunda, List.of());
+
+        Progresso progresso = esperar(service.excluirPorAutor(autorId, ADMIN));
+
+        ArgumentCaptor<UUID> apos = ArgumentCaptor.forClass(UUID.class);
+        verify(livroRepository, times(3)).buscarChavesPorAutor(eq(autorId), apos.capture(), any(Pageable.class));
+        assertEquals(List.of(new UUID(0, 0), primeira.getLast().id(), segunda.getLast().id()), apos.getAllValues());
+        assertEquals(503, progresso.total());
+        assertEquals(503, progresso.removidos());
+    }
+
+    @Test
+    @DisplayName("MinIO falhando: livros removidos, objetos contados como órfãos")
+    void deveContarOrfaosQuandoMinioFalha() throws InterruptedException {
+        List<UUID> ids = ids(3);
+        String naoRemovido = "livros/" + ids.get(1) + ".pdf";
+        when(minioService.deletarArquivos(anyCollection()))
+                .thenReturn(List.of(naoRemovido))
+                .thenThrow(new RuntimeException("MinIO fora"));
+
+        // 1ª chamada: o MinIO recusa uma chave; 2ª: removeObjects inteiro falha (2 objetos por livro)
+        Progresso parcial = esperar(service.excluirPorIds(ids, ADMIN));
+        Progresso fora = esperar(service.excluirPorIds(ids.subList(0, 2), ADMIN));
+
+        assertEquals(StatusExclusao.CONCLUIDO, parcial.status());
+        assertEquals(3, parcial.removidos());
+        assertEquals(1, parcial.objetosOrfaos());
+        assertEquals(StatusExclusao.CONCLUIDO, fora.status());
+        assertEquals(2, fora.removidos());
+        assertEquals(4, fora.objetosOrfaos());
+    }
+
+    @Test
+    @DisplayName("Progresso: inexistentes e lote que falha no banco viram falha; processados chega ao total")
+    void deveContarFalhasNoProgresso() throws InterruptedException {
+        List<UUID> ids = ids(600);
+        UUID inexistente = ids.get(10);
+        when(livroRepository.buscarChavesPorIds(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<UUID>>getArgument(0).stream()
+                        .filter(id -> !id.equals(inexistente))
+                        .map(ExclusaoLivrosServiceTest::chaves)
+                        .toList());
+        // Segundo lote (100 livros) falha no DELETE
+        when(livroRepository.deletarPorIds(anyCollection()))
+                .thenReturn(499)
+                .thenThrow(new RuntimeException("deadlock"));
+
+        Progresso agendado = service.excluirPorIds(ids, ADMIN);
+        assertEquals(600, agendado.total());
+
+        Progresso progresso = esperar(agendado);
+
+        assertEquals(StatusExclusao.CONCLUIDO, progresso.status());
+        assertEquals(499, progresso.removidos());
+        assertEquals(101, progresso.falhas());
+        assertEquals(600, progresso.processados());
+        assertNotNull(progresso.inicio());
+        assertNotNull(progresso.fim());
+        // Objetos do lote que não saiu do banco ficam no MinIO
+        verify(minioService, times(1)).deletarArquivos(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Sem ADMIN: só os próprios livros; outro autor ou livro alheio é 403 antes de agendar")
+    void deveExigirAdminOuAutor() throws InterruptedException {
+        UUID outroAutor = UUID.randomUUID();
+        List<UUID> ids = ids(2);
+
+        assertThrows(AccessDeniedException.class, () -> service.excluirPorAutor(outroAutor, autor));
+        assertThrows(AccessDeniedException.class, () -> service.excluirPorIds(ids, null));
+        when(livroRepository.existsByIdInAndAutorIdNot(anyCollection(), eq(autorId))).thenReturn(true);
+        assertThrows(AccessDeniedException.class, () -> service.excluirPorIds(ids, autor));
+        verify(livroRepository, never()).deletarPorIds(anyCollection());
+
+        when(livroRepository.existsByIdInAndAutorIdNot(anyCollection(), eq(autorId))).thenReturn(false);
+        assertEquals(2, esperar(service.excluirPorIds(ids, autor)).removidos());
+        assertEquals(StatusExclusao.CONCLUIDO, esperar(service.excluirPorAutor(autorId, autor)).status());
+    }
+}
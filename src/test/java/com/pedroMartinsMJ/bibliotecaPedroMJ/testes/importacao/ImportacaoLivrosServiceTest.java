@@ -0,0 +1,266 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.importacao;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.busca.FiltroIsbns;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Livro;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.LivroRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.UsuarioResumo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.ImportacaoLivrosService.ResultadoLinha;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para a importação em lote (banco e MinIO mockados, pacote ZIP montado em memória)
+ */
+class ImportacaoLivrosServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.4 conteúdo".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G'};
+
+    private final UUID autorId = UUID.randomUUID();
+
+    private LivroRepository livroRepository;
+    private MinioService minioService;
+    private LivroService livroService;
+    private ImportacaoLivrosService service;
+
+    @BeforeEach
+    void setUp() {
+        livroRepository = mock(LivroRepository.class);
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        minioService = mock(MinioService.class);
+        livroService = mock(LivroService.class);
+        FiltroIsbns filtroIsbns = mock(FiltroIsbns.class);
+
+        when(usuarioRepository.buscarResumosPorIds(any())).thenReturn(List.of(
+                new UsuarioResumo(autorId, "machado", "Machado de Assis", "machado@email.com", null, null, null, true)));
+        when(minioService.uploadStream(any(), anyLong(), anyString(), anyString(), anyString()))
+                .thenAnswer(inv -> inv.getArgument(4) + "/" + inv.getArgument(3));
+        // Banco "grava" dando id a cada livro
+        when(livroRepository.saveAll(anyList())).thenAnswer(inv -> {
+            inv.<List<Livro>>getArgument(0).forEach(livro -> livro.setId(UUID.randomUUID()));
+            return inv.getArgument(0);
+        });
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        service = new ImportacaoLivrosService(livroRepository, usuarioRepository, livroService, filtroIsbns,
+                minioService, new GeracaoCatalogo(), transactionTemplate, JsonMapper.builder().build(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, DataSize.ofKilobytes(64));
+    }
+
+    private static byte[] zip(Map<String, byte[]> entradas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entrada : entradas.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entrada.getKey()));
+                zip.write(entrada.getValue());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Livros entregues ao LivroService para indexar (indexarNovoLivro é do pacote services)
+     */
+    private long indexados() {
+        return mockingDetails(livroService).getInvocations().stream()
+                .filter(inv -> inv.getMethod().getName().equals("indexarNovoLivro"))
+                .count();
+    }
+
+    /**
+     * ISBNs entregues ao LivroService para o filtro (reservarIsbn é do pacote services)
+     */
+    private List<Object> isbnsReservados() {
+        return mockingDetails(livroService).getInvocations().stream()
+                .filter(inv -> inv.getMethod().getName().equals("reservarIsbn"))
+                .map(inv -> inv.getArgument(0))
+                .toList();
+    }
+
+    private String csv(String... linhas) {
+        return "titulo,autorId,isbn,arquivo,capa\n" + String.join("\n", linhas).replace("{autor}", autorId.toString());
+    }
+
+    private List<ResultadoLinha> importarStreaming(Map<String, byte[]> entradas) throws IOException {
+        byte[] pacote = zip(entradas);
+        return service.importar(new ByteArrayInputStream(pacote), pacote.length);
+    }
+
+    @Test
+    @DisplayName("Pacote válido em streaming: todas as linhas importadas e indexadas")
+    void deveImportarPacoteValido() throws IOException {
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        entradas.put("manifesto.csv", csv(
+                "Dom Casmurro,{autor},978-85-359-0277-8,dom.pdf,dom.png",
+                "Helena,{autor},,helena.pdf,").getBytes(StandardCharsets.UTF_8));
+        entradas.put("dom.pdf", PDF);
+        entradas.put("dom.png", PNG);
+        entradas.put("helena.pdf", PDF);
+
+        List<ResultadoLinha> resultado = importarStreaming(entradas);
+
+        assertEquals(2, resultado.size());
+        assertTrue(resultado.stream().allMatch(ResultadoLinha::importado), resultado.toString());
+        assertTrue(resultado.stream().allMatch(linha -> linha.livroId() != null));
+        verify(minioService).uploadStream(any(), eq((long) PNG.length), eq("image/png"), eq("dom.png"), eq("capas"));
+        verify(minioService, times(2)).uploadStream(any(), eq((long) PDF.length), eq("application/pdf"), anyString(), eq("livros"));
+        assertEquals(2, indexados());
+    }
+
+    @Test
+    @DisplayName("Multipart: manifesto JSON separado do pacote")
+    void deveImportarMultipart() throws IOException {
+        String manifesto = """
+                [{"titulo": "Dom Casmurro", "autorId": "%s", "arquivo": "livros/dom.epub"}]
+                """.formatted(autorId);
+        MockMultipartFile pacote = new MockMultipartFile("pacote", "pacote.zip", "application/zip",
+                zip(Map.of("livros/dom.epub", PDF)));
+
+        List<ResultadoLinha> resultado = service.importar(
+                new MockMultipartFile("manifesto", "manifesto.json", "application/json", manifesto.getBytes(StandardCharsets.UTF_8)),
+                pacote);
+
+        assertTrue(resultado.getFirst().importado(), resultado.toString());
+        verify(minioService).uploadStream(any(), anyLong(), eq("application/epub+zip"), eq("livros/dom.epub"), eq("livros"));
+    }
+
+    @Test
+    @DisplayName("Entradas ruins reprovam só a própria linha")
+    void deveReprovarEntradaRuim() throws IOException {
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        entradas.put("manifesto.csv", csv(
+                "Dom Casmurro,{autor},,dom.pdf,",
+                "Sem Arquivo,{autor},,faltando.pdf,",
+                "Tipo Errado,{autor},,notas.txt,",
+                "Vazio,{autor},,vazio.pdf,",
+                "Capa Errada,{autor},,dom.pdf,capa.gif",
+                "Autor Inexistente," + UUID.randomUUID() + ",,dom.pdf,",
+                ",{autor},,dom.pdf,").getBytes(StandardCharsets.UTF_8));
+        entradas.put("dom.pdf", PDF);
+        entradas.put("notas.txt", PDF);
+        entradas.put("vazio.pdf", new byte[0]);
+        entradas.put("capa.gif", PNG);
+
+        List<ResultadoLinha> resultado = importarStreaming(entradas);
+
+        assertNull(resultado.get(0).erro());
+        assertEquals("Arquivo não encontrado no pacote: faltando.pdf", resultado.get(1).erro());
+        assertEquals("Apenas PDF e EPUB são aceitos", resultado.get(2).erro());
+        assertEquals("Arquivo não pode ser vazio", resultado.get(3).erro());
+        assertEquals("Apenas JPEG, PNG e WebP são aceitos para capas", resultado.get(4).erro());
+        assertTrue(resultado.get(5).erro().startsWith("Autor não encontrado"));
+        assertTrue(resultado.get(6).erro().startsWith("titulo:"));
+        assertEquals(1, indexados());
+    }
+
+    @Test
+    @DisplayName("ISBNs do lote entram no filtro dentro da transação, antes do INSERT")
+    void deveReservarIsbnsAntesDoInsert() throws IOException {
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        entradas.put("manifesto.csv", csv(
+                "Dom Casmurro,{autor},978-85-359-0277-8,dom.pdf,",
+                "Helena,{autor},978-85-359-0278-5,helena.pdf,").getBytes(StandardCharsets.UTF_8));
+        entradas.put("dom.pdf", PDF);
+        entradas.put("helena.pdf", PDF);
+
+        List<List<Object>> reservadosNoInsert = new ArrayList<>();
+        when(livroRepository.saveAll(anyList())).thenAnswer(inv -> {
+            reservadosNoInsert.add(isbnsReservados());
+            inv.<List<Livro>>getArgument(0).forEach(livro -> livro.setId(UUID.randomUUID()));
+            return inv.getArgument(0);
+        });
+
+        importarStreaming(entradas);
+
+        assertEquals(List.of(List.of("978-85-359-0277-8", "978-85-359-0278-5")), reservadosNoInsert);
+        assertEquals(2, indexados());
+    }
+
+    @Test
+    @DisplayName("Falha parcial: upload e INSERT que falham saem da lista sem derrubar o resto")
+    void deveIsolarFalhasParciais() throws IOException {
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        entradas.put("manifesto.csv", csv(
+                "Dom Casmurro,{autor},,dom.pdf,",
+                "MinIO Fora,{autor},,minio.pdf,",
+                "Duplicado,{autor},,duplicado.pdf,dup.png").getBytes(StandardCharsets.UTF_8));
+        entradas.put("dom.pdf", PDF);
+        entradas.put("minio.pdf", PDF);
+        entradas.put("duplicado.pdf", PDF);
+        entradas.put("dup.png", PNG);
+
+        when(minioService.uploadStream(any(), anyLong(), anyString(), eq("minio.pdf"), anyString()))
+                .thenThrow(new RuntimeException("MinIO fora"));
+        // Lote falha (ex.: ISBN cadastrado por outra requisição); linha a linha, só o "Duplicado" falha
+        when(livroRepository.saveAll(anyList())).thenThrow(new RuntimeException("duplicate key"));
+        when(livroRepository.save(any())).thenAnswer(inv -> {
+            Livro livro = inv.getArgument(0);
+            if (livro.getTitulo().equals("Duplicado")) throw new RuntimeException("duplicate key");
+            livro.setId(UUID.randomUUID());
+            return livro;
+        });
+
+        List<ResultadoLinha> resultado = importarStreaming(entradas);
+
+        assertTrue(resultado.get(0).importado());
+        assertEquals("Falha ao enviar arquivo para o MinIO", resultado.get(1).erro());
+        assertEquals("Falha ao salvar livro (ISBN ou arquivo duplicado?)", resultado.get(2).erro());
+        // Objetos da linha que não foi salva saem do MinIO
+        verify(minioService).deletarArquivo("livros/duplicado.pdf");
+        verify(minioService).deletarArquivo("capas/dup.png");
+        assertEquals(1, indexados());
+    }
+
+    @Test
+    @DisplayName("Pacote sem manifesto, inválido ou acima do limite: 400 antes de importar qualquer linha")
+    void deveRecusarPacoteInvalido() throws IOException {
+        assertThrows(RequisicaoInvalidaException.class, () -> importarStreaming(Map.of("dom.pdf", PDF)));
+
+        byte[] lixo = "não é zip".getBytes(StandardCharsets.UTF_8);
+        assertThrows(RequisicaoInvalidaException.class, () -> service.importar(new ByteArrayInputStream(lixo), lixo.length));
+
+        // Declarado acima do limite, e sem tamanho declarado (-1) mas passando do limite na cópia
+        assertThrows(RequisicaoInvalidaException.class, () -> service.importar(new ByteArrayInputStream(new byte[0]), 65 * 1024));
+        assertThrows(RequisicaoInvalidaException.class, () -> service.importar(new ByteArrayInputStream(new byte[65 * 1024]), -1));
+
+        verifyNoInteractions(minioService, livroService);
+    }
+}
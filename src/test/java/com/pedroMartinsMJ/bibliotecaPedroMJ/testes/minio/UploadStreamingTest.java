@@ -0,0 +1,136 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.minio;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.config.MinioMultipartClient;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.MinioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.RequisicaoInvalidaException;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para o upload em streaming (multipart do MinIO mockado)
+ */
+class UploadStreamingTest {
+
+    private static final int MB = 1024 * 1024;
+    private static final String UPLOAD_ID = "upload-1";
+
+    private MinioClient minioClient;
+    private MinioMultipartClient multipart;
+    private MinioService service;
+
+    // Tamanho de cada parte enviada, por número da parte
+    private final Map<Integer, Integer> partes = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioClient = mock(MinioClient.class);
+        multipart = mock(MinioMultipartClient.class);
+
+        service = new MinioService(minioClient, multipart);
+        ReflectionTestUtils.setField(service, "bucketName", "biblioteca");
+        ReflectionTestUtils.setField(service, "tamanhoParte", DataSize.ofMegabytes(5));
+        ReflectionTestUtils.setField(service, "partesParalelas", 2);
+
+        when(multipart.iniciar(anyString(), anyString(), anyString())).thenReturn(UPLOAD_ID);
+        when(multipart.enviarParte(anyString(), anyString(), eq(UPLOAD_ID), anyInt(), any(), anyInt())).thenAnswer(inv -> {
+            int numero = inv.getArgument(3);
+            partes.put(numero, inv.getArgument(5));
+            return CompletableFuture.completedFuture(new Part(numero, "etag-" + numero));
+        });
+    }
+
+    private static ByteArrayInputStream corpo(int tamanho) {
+        return new ByteArrayInputStream(new byte[tamanho]);
+    }
+
+    @Test
+    @DisplayName("Corpo maior que uma parte: partes de 5MB em ordem, a última com o resto, e conclusão")
+    void deveDividirEmPartes() throws Exception {
+        MinioService.UploadStreaming upload = service.uploadStreaming(corpo(12 * MB), "application/pdf",
+                "arquivo.pdf", "livros", 50L * MB);
+
+        assertEquals(12L * MB, upload.tamanho());
+        assertTrue(upload.chave().startsWith("livros/") && upload.chave().endsWith(".pdf"));
+        assertEquals(Map.of(1, 5 * MB, 2, 5 * MB, 3, 2 * MB), partes);
+
+        ArgumentCaptor<Part[]> concluidas = ArgumentCaptor.forClass(Part[].class);
+        verify(multipart).concluir(eq("biblioteca"), eq(upload.chave()), eq(UPLOAD_ID), concluidas.capture());
+        assertEquals(List.of(1, 2, 3), Arrays.stream(concluidas.getValue()).map(Part::partNumber).toList());
+        verify(multipart, never()).abortar(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Corpo menor que uma parte: PUT simples, sem multipart")
+    void deveUsarPutSimplesParaCorpoPequeno() throws Exception {
+        MinioService.UploadStreaming upload = service.uploadStreaming(corpo(MB), "application/pdf",
+                "arquivo.pdf", "livros", 50L * MB);
+
+        assertEquals(MB, upload.tamanho());
+        verify(minioClient).putObject(any(PutObjectArgs.class));
+        verifyNoInteractions(multipart);
+    }
+
+    @Test
+    @DisplayName("Parte que falha: upload abortado, nada concluído")
+    void deveAbortarQuandoParteFalha() throws Exception {
+        when(multipart.enviarParte(anyString(), anyString(), eq(UPLOAD_ID), eq(2), any(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("MinIO fora")));
+
+        assertThrows(RuntimeException.class, () -> service.uploadStreaming(corpo(17 * MB), "application/pdf",
+                "arquivo.pdf", "livros", 50L * MB));
+
+        verify(multipart).abortar(eq("biblioteca"), anyString(), eq(UPLOAD_ID));
+        verify(multipart, never()).concluir(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Passou do limite no meio do corpo: 400 e upload abortado")
+    void deveAbortarAoPassarDoLimite() throws Exception {
+        assertThrows(RequisicaoInvalidaException.class, () -> service.uploadStreaming(corpo(12 * MB), "application/pdf",
+                "arquivo.pdf", "livros", 8L * MB));
+
+        verify(multipart).abortar(eq("biblioteca"), anyString(), eq(UPLOAD_ID));
+        verify(multipart, never()).concluir(any(), any(), any(), any());
+        // A parte que estourou o limite nem chega a ser enviada
+        assertEquals(Map.of(1, 5 * MB), partes);
+    }
+
+    @Test
+    @DisplayName("Corpo vazio ou primeira parte acima do limite: recusado antes de abrir o multipart")
+    void deveRecusarAntesDoMultipart() {
+        assertThrows(RequisicaoInvalidaException.class, () -> service.uploadStreaming(corpo(0), "application/pdf",
+                "arquivo.pdf", "livros", 50L * MB));
+        assertThrows(RequisicaoInvalidaException.class, () -> service.uploadStreaming(corpo(3 * MB), "application/pdf",
+                "arquivo.pdf", "livros", 2L * MB));
+
+        verifyNoInteractions(multipart, minioClient);
+    }
+
+    @Test
+    @DisplayName("Nenhuma parte em paralelo: configuração recusada no startup, não no primeiro upload")
+    void deveRecusarPartesParalelasInvalidas() {
+        service.validarConfiguracao();
+
+        ReflectionTestUtils.setField(service, "partesParalelas", 0);
+        IllegalStateException erro = assertThrows(IllegalStateException.class, service::validarConfiguracao);
+        assertTrue(erro.getMessage().contains("partes-paralelas"));
+    }
+}
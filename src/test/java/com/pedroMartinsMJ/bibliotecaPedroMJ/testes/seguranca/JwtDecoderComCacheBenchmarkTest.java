@@ -0,0 +1,131 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.seguranca;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT.JwtDecoderComCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Medição repetível: decode com e sem o cache de tokens verificados, em RS256 e ES256
+ *
+ * Desligado por padrão (não roda no build). Para medir:
+ *   mvn test -Dtest=JwtDecoderComCacheBenchmarkTest -Dbenchmark=true
+ *
+ * - Chaves geradas na hora (RSA 2048 e EC P-256, como em JwtChavesConfig) e TOKENS tokens distintos,
+ *   decodificados em rodízio, como vários usuários ao mesmo tempo
+ * - AQUECIMENTO rodadas descartadas (JIT), depois RODADAS medidas; imprime a mediana em µs por decode
+ * - Números dependem da máquina: compare as duas linhas da mesma execução, não execuções diferentes
+ * - Falha se o cache não for ao menos 5x mais rápido que a verificação completa
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtDecoderComCacheBenchmarkTest {
+
+    private static final int TOKENS = 1_000;
+    private static final int AQUECIMENTO = 5;
+    private static final int RODADAS = 10;
+
+    @ParameterizedTest
+    @EnumSource(value = SignatureAlgorithm.class, names = {"RS256", "ES256"})
+    @DisplayName("Decode com cache deve ser bem mais barato que a verificação completa")
+    void compararDecodeComESemCache(SignatureAlgorithm algoritmo) throws Exception {
+        JwtEncoder encoder;
+        JwtDecoder verificacao;
+        if (algoritmo == SignatureAlgorithm.RS256) {
+            KeyPair par = gerar("RSA", 2048);
+            encoder = NimbusJwtEncoder.withKeyPair((RSAPublicKey) par.getPublic(), (RSAPrivateKey) par.getPrivate()).build();
+            verificacao = NimbusJwtDecoder.withPublicKey((RSAPublicKey) par.getPublic()).build();
+        } else {
+            KeyPairGenerator gerador = KeyPairGenerator.getInstance("EC");
+            gerador.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair par = gerador.generateKeyPair();
+            ECPublicKey publica = (ECPublicKey) par.getPublic();
+            encoder = NimbusJwtEncoder.withKeyPair(publica, (ECPrivateKey) par.getPrivate()).build();
+            ECKey jwk = new ECKey.Builder(Curve.P_256, publica).keyIDFromThumbprint().build();
+            verificacao = NimbusJwtDecoder.withJwkSource(new ImmutableJWKSet<>(new JWKSet(jwk)))
+                    .jwsAlgorithm(SignatureAlgorithm.ES256)
+                    .build();
+        }
+
+        List<String> tokens = IntStream.range(0, TOKENS)
+                .mapToObj(i -> emitir(encoder, algoritmo, "usuario-" + i))
+                .toList();
+        JwtDecoder comCache = new JwtDecoderComCache(verificacao, new SimpleMeterRegistry(), TOKENS * 2L);
+
+        double semCache = medir(verificacao, tokens);
+        double cache = medir(comCache, tokens);
+
+        System.out.printf("%s: sem cache %.2f us/decode, com cache %.2f us/decode (%.0fx)%n",
+                algoritmo, semCache, cache, semCache / cache);
+        assertTrue(cache * 5 < semCache, "Cache deveria ser ao menos 5x mais rápido");
+    }
+
+    /**
+     * Mediana, entre as rodadas medidas, do tempo médio de um decode (µs)
+     */
+    private static double medir(JwtDecoder decoder, List<String> tokens) {
+        double[] rodadas = new double[RODADAS];
+        long consumidos = 0;
+
+        for (int r = 0; r < AQUECIMENTO + RODADAS; r++) {
+            long inicio = System.nanoTime();
+            for (String token : tokens) {
+                // Usa o resultado para o JIT não descartar o decode
+                consumidos += decoder.decode(token).getSubject().length();
+            }
+            long duracao = System.nanoTime() - inicio;
+            if (r >= AQUECIMENTO) {
+                rodadas[r - AQUECIMENTO] = duracao / 1_000.0 / tokens.size();
+            }
+        }
+
+        assertTrue(consumidos > 0);
+        Arrays.sort(rodadas);
+        return rodadas[RODADAS / 2];
+    }
+
+    private static KeyPair gerar(String algoritmo, int tamanho) throws Exception {
+        KeyPairGenerator gerador = KeyPairGenerator.getInstance(algoritmo);
+        gerador.initialize(tamanho);
+        return gerador.generateKeyPair();
+    }
+
+    private static String emitir(JwtEncoder encoder, SignatureAlgorithm algoritmo, String usuario) {
+        Instant agora = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("spring-security-jwt")
+                .issuedAt(agora)
+                .expiresAt(agora.plusSeconds(3600))
+                .subject(usuario)
+                .claim("scope", "ROLE_USER")
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(algoritmo).build(), claims)).getTokenValue();
+    }
+}
@@ -0,0 +1,70 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.seguranca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT.JwtDecoderComCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o cache de tokens JWT já verificados (decoder original simulado)
+ */
+class JwtDecoderComCacheTest {
+
+    private final AtomicInteger verificacoes = new AtomicInteger();
+    private JwtDecoderComCache decoder;
+
+    @BeforeEach
+    void setUp() {
+        JwtDecoder original = token -> {
+            verificacoes.incrementAndGet();
+            if (token.startsWith("invalido")) {
+                throw new JwtException("Assinatura inválida");
+            }
+            return Jwt.withTokenValue(token)
+                    .header("alg", "RS256")
+                    .subject("lucas")
+                    .issuedAt(Instant.now())
+                    .expiresAt(token.startsWith("sem-exp") ? null : Instant.now().plusSeconds(3600))
+                    .build();
+        };
+        decoder = new JwtDecoderComCache(original, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    @DisplayName("Deve verificar a assinatura só na primeira vez do mesmo token")
+    void deveVerificarUmaVez() {
+        Jwt primeiro = decoder.decode("token-a");
+        Jwt segundo = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertSame(primeiro, segundo);
+        assertEquals(2, verificacoes.get());
+    }
+
+    @Test
+    @DisplayName("Token rejeitado não deve entrar no cache")
+    void naoDeveGuardarRejeitado() {
+        assertThrows(JwtException.class, () -> decoder.decode("invalido"));
+        assertThrows(JwtException.class, () -> decoder.decode("invalido"));
+
+        assertEquals(2, verificacoes.get());
+    }
+
+    @Test
+    @DisplayName("Token sem expiração não deve entrar no cache")
+    void naoDeveGuardarSemExpiracao() {
+        decoder.decode("sem-exp");
+        decoder.decode("sem-exp");
+
+        assertEquals(2, verificacoes.get());
+    }
+}
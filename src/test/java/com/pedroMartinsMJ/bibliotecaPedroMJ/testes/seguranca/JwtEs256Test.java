@@ -0,0 +1,86 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.seguranca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT.JwtChavesConfig;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.JWT.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tokens ES256 de ponta a ponta: JwtService assina com o encoder do JwtChavesConfig e o decoder
+ * (com cache) do mesmo config verifica, com chaves PEM geradas na hora
+ */
+class JwtEs256Test {
+
+    private JwtService jwtService;
+    private JwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator gerador = KeyPairGenerator.getInstance("EC");
+        gerador.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair par = gerador.generateKeyPair();
+
+        JwtChavesConfig config = new JwtChavesConfig();
+        ReflectionTestUtils.setField(config, "algoritmo", SignatureAlgorithm.ES256);
+        ReflectionTestUtils.setField(config, "tamanhoCache", 100L);
+        ReflectionTestUtils.setField(config, "ecPublicKey", pem("PUBLIC KEY", par.getPublic().getEncoded()));
+        ReflectionTestUtils.setField(config, "ecPrivateKey", pem("PRIVATE KEY", par.getPrivate().getEncoded()));
+
+        jwtService = new JwtService(config.jwtEncoder());
+        decoder = config.jwtDecoder(new SimpleMeterRegistry());
+    }
+
+    private static ByteArrayResource pem(String tipo, byte[] der) {
+        String pem = "-----BEGIN " + tipo + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + tipo + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Token gerado no login deve ser aceito pelo decoder, com alg ES256, kid e as claims")
+    void deveAssinarEVerificar() {
+        String token = jwtService.generateToken(new UsernamePasswordAuthenticationToken("machado", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        Jwt jwt = decoder.decode(token);
+
+        assertEquals("ES256", jwt.getHeaders().get("alg").toString());
+        assertNotNull(jwt.getHeaders().get("kid"));
+        assertEquals("machado", jwt.getSubject());
+        assertEquals("ROLE_USER ROLE_ADMIN", jwt.getClaimAsString("scope"));
+        // Segunda vez sai do cache: mesmo objeto
+        assertSame(jwt, decoder.decode(token));
+    }
+
+    @Test
+    @DisplayName("Token com assinatura adulterada deve ser recusado")
+    void deveRecusarAssinaturaAdulterada() {
+        String token = jwtService.generateToken(new UsernamePasswordAuthenticationToken("machado", null, List.of()));
+        String[] partes = token.split("\\.");
+        char ultimo = partes[2].charAt(partes[2].length() - 2);
+        String adulterado = partes[0] + "." + partes[1] + "."
+                + partes[2].substring(0, partes[2].length() - 2) + (ultimo == 'A' ? 'B' : 'A') + partes[2].charAt(partes[2].length() - 1);
+
+        assertThrows(JwtException.class, () -> decoder.decode(adulterado));
+    }
+}
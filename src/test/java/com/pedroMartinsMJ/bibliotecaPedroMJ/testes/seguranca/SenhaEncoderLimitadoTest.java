@@ -0,0 +1,87 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.seguranca;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.segurityConfig.SenhaEncoderLimitado;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.exceptions.SobrecargaHashSenhaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o encoder de senhas com executor limitado
+ */
+class SenhaEncoderLimitadoTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private SenhaEncoderLimitado encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.encerrar();
+    }
+
+    @Test
+    @DisplayName("Deve gerar hash com prefixo e verificar a senha")
+    void deveGerarEVerificar() {
+        encoder = new SenhaEncoderLimitado(registry, 4, 1, 8, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("senha123");
+
+        assertTrue(hash.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("senha123", hash));
+        assertFalse(encoder.matches("errada", hash));
+        assertEquals(3, registry.get("biblioteca.senha.hash").timers().stream().mapToLong(t -> t.count()).sum());
+        assertEquals(3, registry.get("biblioteca.senha.espera").timer().count());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar hash antigo sem prefixo e pedir re-hash")
+    void deveAceitarHashAntigo() {
+        encoder = new SenhaEncoderLimitado(registry, 4, 1, 8, Duration.ofSeconds(5));
+        String antigo = new BCryptPasswordEncoder(4).encode("senha123");
+
+        assertTrue(encoder.matches("senha123", antigo));
+        assertTrue(encoder.upgradeEncoding(antigo));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("senha123")));
+    }
+
+    @Test
+    @DisplayName("Deve pedir re-hash quando o custo configurado aumenta")
+    void devePedirRehashComCustoMaior() {
+        encoder = new SenhaEncoderLimitado(registry, 5, 1, 8, Duration.ofSeconds(5));
+        String custoMenor = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("senha123");
+
+        assertTrue(encoder.upgradeEncoding(custoMenor));
+    }
+
+    @Test
+    @DisplayName("Deve recusar com sobrecarga quando a espera estoura")
+    void deveRecusarQuandoEsperaEstoura() {
+        encoder = new SenhaEncoderLimitado(registry, 12, 1, 1, Duration.ofMillis(1));
+
+        assertThrows(SobrecargaHashSenhaException.class, () -> encoder.encode("senha123"));
+        assertEquals(1.0, registry.get("biblioteca.senha.rejeitadas").counter().count());
+    }
+
+    @Test
+    @DisplayName("Hash abandonado ainda na fila sai dela na hora e nunca roda")
+    void deveTirarDaFilaHashAbandonado() {
+        // 1 thread e 1 vaga na fila; custo alto o bastante para o primeiro hash ainda estar rodando
+        encoder = new SenhaEncoderLimitado(registry, 14, 1, 1, Duration.ofMillis(50));
+
+        assertThrows(SobrecargaHashSenhaException.class, () -> encoder.encode("primeira")); // rodando
+        assertThrows(SobrecargaHashSenhaException.class, () -> encoder.encode("segunda"));  // na fila
+
+        assertEquals(0.0, registry.get("biblioteca.senha.fila").gauge().value());
+        // Vaga liberada: a próxima entra na fila em vez de ser recusada na submissão
+        assertThrows(SobrecargaHashSenhaException.class, () -> encoder.encode("terceira"));
+        assertEquals(3.0, registry.get("biblioteca.senha.rejeitadas").counter().count());
+        // Só o primeiro chegou a uma thread; os cancelados na fila nunca rodam
+        assertEquals(1, registry.get("biblioteca.senha.espera").timer().count());
+    }
+}
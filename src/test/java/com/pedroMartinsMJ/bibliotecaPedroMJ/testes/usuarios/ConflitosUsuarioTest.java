@@ -0,0 +1,164 @@
+package com.pedroMartinsMJ.bibliotecaPedroMJ.testes.usuarios;
+
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.CacheUsuarios;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.cache.GeracaoCatalogo;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.UsuarioController;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.LivroMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.controllers.mappersManuais.UsuarioMapper;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Role;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.entities.Usuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.RoleRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.UsuarioRepository;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.repositorys.projecoes.ConflitosUsuario;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.LivroService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.services.UsuarioService;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.tratamentoDeErros.GlobalExceptionHandler;
+import com.pedroMartinsMJ.bibliotecaPedroMJ.validators.ValidacaoUsuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unicidade de username e email (uma query só, ConflitosUsuario): cada conflito vira 400 com o próprio campo
+ */
+class ConflitosUsuarioTest {
+
+    private static final String CADASTRO = """
+            {"username": "machado", "password": "capitu123", "nome": "Machado de Assis",
+             "email": "machado@email.com", "cpf": "529.982.247-25", "telefone": "21999990000"}
+            """;
+
+    private final UUID id = UUID.randomUUID();
+
+    private UsuarioRepository usuarioRepository;
+    private RoleRepository roleRepository;
+    private PasswordEncoder passwordEncoder;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+
+        Usuario existente = new Usuario("machado", "hash", "Machado de Assis", "machado@email.com",
+                "52998224725", "21999990000");
+        existente.setId(id);
+        when(usuarioRepository.findById(id)).thenReturn(Optional.of(existente));
+
+        UsuarioService usuarioService = new UsuarioService(usuarioRepository, roleRepository,
+                passwordEncoder, new ValidacaoUsuario(), new GeracaoCatalogo(), mock(CacheUsuarios.class),
+                mock(LivroService.class));
+        mvc = MockMvcBuilders.standaloneSetup(new UsuarioController(usuarioService, mock(LivroService.class),
+                        new UsuarioMapper(mock(LivroMapper.class))))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static ConflitosUsuario conflitos(long username, long email) {
+        return new ConflitosUsuario(username, email, 0L, 0L, 0L);
+    }
+
+    private void cadastroComConflitos(ConflitosUsuario conflitos) {
+        when(usuarioRepository.buscarConflitos(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(conflitos);
+    }
+
+    private void atualizacaoComConflitos(ConflitosUsuario conflitos) {
+        when(usuarioRepository.buscarConflitosExceto(any(), any(), any(), any(), any(), eq(id)))
+                .thenReturn(conflitos);
+    }
+
+    @Test
+    @DisplayName("Cadastro com só o username em uso: 400 apontando username, sem gastar BCrypt")
+    void cadastroComUsernameEmUso() throws Exception {
+        cadastroComConflitos(conflitos(1, 0));
+
+        mvc.perform(post("/usuario/create").contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.username").value("Username já cadastrado no sistema"))
+                .andExpect(jsonPath("$.erros.email").doesNotExist());
+
+        verifyNoInteractions(passwordEncoder);
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Cadastro com só o email em uso: 400 apontando email")
+    void cadastroComEmailEmUso() throws Exception {
+        cadastroComConflitos(conflitos(0, 1));
+
+        mvc.perform(post("/usuario/create").contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.email").value("Email já está em uso"))
+                .andExpect(jsonPath("$.erros.username").doesNotExist());
+
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Cadastro com username e email em uso: 400 com os dois campos de uma vez")
+    void cadastroComUsernameEEmailEmUso() throws Exception {
+        cadastroComConflitos(conflitos(1, 2));
+
+        mvc.perform(post("/usuario/create").contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.username").value("Username já cadastrado no sistema"))
+                .andExpect(jsonPath("$.erros.email").value("Email já está em uso"));
+
+        // Uma única sondagem no banco para todos os campos
+        verify(usuarioRepository, times(1)).buscarConflitos(anyString(), anyString(), anyString(), anyString(), anyString());
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Atualização: username, email ou ambos em uso por outro usuário dão 400 com os campos certos")
+    void atualizacaoComConflitos() throws Exception {
+        atualizacaoComConflitos(conflitos(1, 0));
+        mvc.perform(put("/usuario/put/" + id).contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.username").value("Username já cadastrado por outro usuário"))
+                .andExpect(jsonPath("$.erros.email").doesNotExist());
+
+        atualizacaoComConflitos(conflitos(0, 1));
+        mvc.perform(put("/usuario/put/" + id).contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.email").value("Email já está em uso por outro usuário"))
+                .andExpect(jsonPath("$.erros.username").doesNotExist());
+
+        atualizacaoComConflitos(conflitos(1, 1));
+        mvc.perform(put("/usuario/put/" + id).contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.erros.username").exists())
+                .andExpect(jsonPath("$.erros.email").exists());
+
+        verify(usuarioRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Sem conflitos: cadastro segue para o hash e o INSERT")
+    void cadastroSemConflitos() throws Exception {
+        cadastroComConflitos(conflitos(0, 0));
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(roleRepository.findByName("ROLE_USER")).thenReturn(Optional.of(new Role("ROLE_USER")));
+
+        mvc.perform(post("/usuario/create").contentType(MediaType.APPLICATION_JSON).content(CADASTRO))
+                .andExpect(status().isCreated());
+
+        verify(passwordEncoder).encode("capitu123");
+        verify(usuarioRepository).save(any(Usuario.class));
+    }
+}